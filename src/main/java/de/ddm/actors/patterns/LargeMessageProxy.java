@@ -2,22 +2,28 @@ package de.ddm.actors.patterns;
 
 import akka.actor.typed.ActorRef;
 import akka.actor.typed.Behavior;
+import akka.actor.typed.PostStop;
 import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
 import akka.serialization.Serialization;
 import akka.serialization.SerializationExtension;
+import akka.serialization.Serializer;
 import akka.serialization.Serializers;
+import de.ddm.configuration.SystemConfiguration;
 import de.ddm.serialization.AkkaSerializable;
+import de.ddm.serialization.BlockCompression;
+import de.ddm.serialization.StreamingDeserializer;
+import de.ddm.singletons.SystemConfigurationSingleton;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Message> {
 
@@ -50,6 +56,9 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private int largeMessageSize;
 		private int serializerId;
 		private String manifest;
+		// the compression of the bytes to transfer and their number
+		private SystemConfiguration.Compression compression;
+		private int transferSize;
 	}
 
 	@Getter
@@ -61,14 +70,32 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private int receiverTransmissionKey;
 	}
 
+	// A large message for a proxy in the same actor system, which passes it on without serializing it.
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class LocalMessage implements Message {
+		private static final long serialVersionUID = 7714921950536364853L;
+		private LargeMessage message;
+	}
+
+	// A chunk of the bytes [offset, offset + length) of a large message. On the sender, bytes is a view on the whole
+	// serialized large message, and the BytesMessageSerializer writes just the chunk; on the receiver, bytes holds
+	// only the chunk.
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class BytesMessage implements Message {
 		private static final long serialVersionUID = -8435193720156121630L;
 		private byte[] bytes;
+		// the position of the chunk in bytes: its offset on the sender, 0 on the receiver
+		private int start;
 		private int senderTransmissionKey;
 		private int receiverTransmissionKey;
+		private int offset;
+		private int length;
+		// the sender's System::nanoTime when it sent the bytes, echoed in the ack to measure the round trip
+		private long sendTime;
 	}
 
 	@Getter
@@ -78,6 +105,8 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 		private static final long serialVersionUID = 5992096322167014051L;
 		private int senderTransmissionKey;
 		private int receiverTransmissionKey;
+		private int length;
+		private long sendTime;
 	}
 
 	////////////////////////
@@ -86,16 +115,37 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 
 	public static final String DEFAULT_NAME = "largeMessageProxy";
 
-	public static int MAX_MESSAGE_SIZE = 100000;
+	// Chunks start at MIN_CHUNK_SIZE and double while their round trips stay below TARGET_ROUND_TRIP_NANOS, up to
+	// the largest chunk that fits into a frame of Artery's large message stream; they halve on slow round trips
+	public static final int MIN_CHUNK_SIZE = 100000;
+	private static final long TARGET_ROUND_TRIP_NANOS = 50_000_000L;
+	// room for the BytesMessage's fields and the envelope within a frame
+	private static final int FRAME_OVERHEAD = 64 * 1024;
+
+	// The number of chunks that a transfer may have in flight without an ack, unless the proxy is created with another
+	public static final int DEFAULT_WINDOW_SIZE = 8;
+
+	// Messages are compressed if they have at least MIN_COMPRESSION_SIZE bytes and their first SAMPLE_SIZE bytes
+	// compress to at most MAX_SAMPLE_RATIO of their size
+	private static final int MIN_COMPRESSION_SIZE = 64 * 1024;
+	private static final int SAMPLE_SIZE = 64 * 1024;
+	private static final double MAX_SAMPLE_RATIO = 0.8;
 
 	public static Behavior<Message> create(ActorRef<LargeMessage> parent) {
-		return Behaviors.setup(context -> new LargeMessageProxy(context, parent));
+		return create(parent, DEFAULT_WINDOW_SIZE);
+	}
+
+	public static Behavior<Message> create(ActorRef<LargeMessage> parent, int windowSize) {
+		return Behaviors.setup(context -> new LargeMessageProxy(context, parent, windowSize));
 	}
 
-	private LargeMessageProxy(ActorContext<Message> context, ActorRef<LargeMessage> parent) {
+	private LargeMessageProxy(ActorContext<Message> context, ActorRef<LargeMessage> parent, int windowSize) {
 		super(context);
 
 		this.parent = parent;
+		this.windowSize = Math.max(1, windowSize);
+		long frameSize = context.getSystem().settings().config().getBytes("akka.remote.artery.advanced.maximum-large-frame-size");
+		this.maxChunkSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(Integer.MAX_VALUE, frameSize - FRAME_OVERHEAD));
 	}
 
 	/////////////////
@@ -104,29 +154,71 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 
 	private final ActorRef<LargeMessage> parent;
 
+	private final int windowSize;
+
+	private final int maxChunkSize;
+
 	private int messageCounter = 0;
 
+	// throughput metrics of the completed sends, logged when the proxy stops
+	private long sentMessages = 0;
+	private long sentBytes = 0;
+	private long sendNanos = 0;
+	private long compressedMessages = 0;
+	private long uncompressedBytes = 0;
+	private long compressedBytes = 0;
+	private long compressionNanos = 0;
+	private long decompressedMessages = 0;
+	private long decompressionNanos = 0;
+
 	private final Map<Integer, SendState> pendingSends = new HashMap<>();
 	private final Map<Integer, ReceiveState> pendingReceives = new HashMap<>();
 
 	private final Serialization serialization = SerializationExtension.get(this.getContext().getSystem());
 
 	@Data
-	@AllArgsConstructor
 	private static class SendState {
-		private byte[] bytes;
-		private int offset;
-		private ActorRef<Message> receiverProxy;
+		private final byte[] bytes;
+		private final ActorRef<Message> receiverProxy;
+		private final long startTime = System.nanoTime();
+		private int receiverTransmissionKey;
+		private int offset = 0;
+		private int ackedBytes = 0;
+		private int chunksInFlight = 0;
+		private int chunkSize = MIN_CHUNK_SIZE;
+		private int numChunks = 0;
 	}
 
 	@Data
 	@AllArgsConstructor
 	private static class ReceiveState {
-		private byte[] bytes;
-		private int offset;
+		private StreamingDeserializer.Decoder decoder;
+		private int transferSize;
+		private int receivedBytes;
 		private ActorRef<Message> senderProxy;
-		private int serializerId;
-		private String manifest;
+		// chunks that overtook their predecessors, by offset; decoders need the bytes in order
+		private final TreeMap<Integer, BytesMessage> earlyChunks = new TreeMap<>();
+		private int decodedBytes;
+	}
+
+	// Collects the bytes of a message whose serializer cannot decode it piece by piece, and deserializes it as a whole
+	@AllArgsConstructor
+	private class StagingDecoder implements StreamingDeserializer.Decoder {
+		private final byte[] bytes;
+		private int length;
+		private final int serializerId;
+		private final String manifest;
+
+		@Override
+		public void decode(byte[] bytes, int offset, int length) {
+			System.arraycopy(bytes, offset, this.bytes, this.length, length);
+			this.length += length;
+		}
+
+		@Override
+		public Object result() {
+			return LargeMessageProxy.this.serialization.deserialize(this.bytes, this.serializerId, this.manifest).get();
+		}
 	}
 
 	////////////////////
@@ -137,83 +229,167 @@ public class LargeMessageProxy extends AbstractBehavior<LargeMessageProxy.Messag
 	public Receive<Message> createReceive() {
 		return newReceiveBuilder()
 				.onMessage(SendMessage.class, this::handle)
+				.onMessage(LocalMessage.class, this::handle)
 				.onMessage(ConnectMessage.class, this::handle)
 				.onMessage(ConnectAckMessage.class, this::handle)
 				.onMessage(BytesMessage.class, this::handle)
 				.onMessage(BytesAckMessage.class, this::handle)
+				.onSignal(PostStop.class, this::handle)
 				.build();
 	}
 
 	private Behavior<Message> handle(SendMessage message) {
 		LargeMessage largeMessage = message.getMessage();
 
+		// A local receiver gets the message object itself. Its id arrays may be shared with the sender, e.g. the frozen
+		// columns' arrays of Column::getDistinctIds, but neither side modifies them once they are sent.
+		if (message.getReceiverProxy().path().address().hasLocalScope()) {
+			message.getReceiverProxy().tell(new LocalMessage(largeMessage));
+			return this;
+		}
+
 		byte[] bytes = this.serialization.serialize(largeMessage).get();
 		int serializerId = this.serialization.findSerializerFor(largeMessage).identifier();
 		String manifest = Serializers.manifestFor(this.serialization.findSerializerFor(largeMessage), largeMessage);
 
+		SystemConfiguration.Compression compression = this.chooseCompression(bytes);
+		byte[] transferBytes = bytes;
+		if (compression != SystemConfiguration.Compression.NONE) {
+			long start = System.nanoTime();
+			transferBytes = BlockCompression.compress(compression, bytes);
+			this.compressionNanos += System.nanoTime() - start;
+			this.compressedMessages++;
+			this.uncompressedBytes += bytes.length;
+			this.compressedBytes += transferBytes.length;
+		}
+
 		int senderTransmissionKey = this.messageCounter++;
-		this.pendingSends.put(senderTransmissionKey, new SendState(bytes, 0, message.getReceiverProxy()));
+		this.pendingSends.put(senderTransmissionKey, new SendState(transferBytes, message.getReceiverProxy()));
+
+		message.getReceiverProxy().tell(new ConnectMessage(senderTransmissionKey, this.getContext().getSelf(), bytes.length, serializerId, manifest, compression, transferBytes.length));
+		return this;
+	}
+
+	// The configured compression for large messages whose sample compresses well, no compression for all others
+	private SystemConfiguration.Compression chooseCompression(byte[] bytes) {
+		SystemConfiguration.Compression compression = SystemConfigurationSingleton.get().getCompression();
+		if (compression == SystemConfiguration.Compression.NONE || bytes.length < MIN_COMPRESSION_SIZE)
+			return SystemConfiguration.Compression.NONE;
+
+		long start = System.nanoTime();
+		double ratio = BlockCompression.ratio(compression, bytes, Math.min(SAMPLE_SIZE, bytes.length));
+		this.compressionNanos += System.nanoTime() - start;
+		return ratio <= MAX_SAMPLE_RATIO ? compression : SystemConfiguration.Compression.NONE;
+	}
 
-		message.getReceiverProxy().tell(new ConnectMessage(senderTransmissionKey, this.getContext().getSelf(), bytes.length, serializerId, manifest));
+	private Behavior<Message> handle(LocalMessage message) {
+		this.parent.tell(message.getMessage());
 		return this;
 	}
 
 	private Behavior<Message> handle(ConnectMessage message) {
 		int receiverTransmissionKey = this.messageCounter++;
-		this.pendingReceives.put(receiverTransmissionKey, new ReceiveState(new byte[message.getLargeMessageSize()], 0, message.getSenderProxy(), message.getSerializerId(), message.getManifest()));
+		Serializer serializer = this.serialization.serializerByIdentity().get(message.getSerializerId()).get();
+		StreamingDeserializer.Decoder decoder = serializer instanceof StreamingDeserializer
+				? ((StreamingDeserializer) serializer).decoder(message.getManifest())
+				: null;
+		if (decoder == null)
+			decoder = new StagingDecoder(new byte[message.getLargeMessageSize()], 0, message.getSerializerId(), message.getManifest());
+		if (message.getCompression() != SystemConfiguration.Compression.NONE)
+			decoder = new BlockCompression.Decompressor(message.getCompression(), decoder);
+		this.pendingReceives.put(receiverTransmissionKey, new ReceiveState(decoder, message.getTransferSize(), 0, message.getSenderProxy(), 0));
 
 		message.getSenderProxy().tell(new ConnectAckMessage(message.getSenderTransmissionKey(), receiverTransmissionKey));
 		return this;
 	}
 
 	private Behavior<Message> handle(ConnectAckMessage message) {
-		return this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
+		SendState state = this.pendingSends.get(message.getSenderTransmissionKey());
+		state.setReceiverTransmissionKey(message.getReceiverTransmissionKey());
+		this.sendWindow(message.getSenderTransmissionKey(), state);
+		return this;
 	}
 
 	private Behavior<Message> handle(BytesAckMessage message) {
-		return this.sendNext(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey());
-	}
-
-	private Behavior<Message> sendNext(int senderTransmissionKey, int receiverTransmissionKey) {
-		ActorRef<Message> receiverProxy = this.pendingSends.get(senderTransmissionKey).getReceiverProxy();
+		SendState state = this.pendingSends.get(message.getSenderTransmissionKey());
+		state.setAckedBytes(state.getAckedBytes() + message.getLength());
+		state.setChunksInFlight(state.getChunksInFlight() - 1);
+
+		long roundTrip = System.nanoTime() - message.getSendTime();
+		if (roundTrip < TARGET_ROUND_TRIP_NANOS)
+			state.setChunkSize((int) Math.min(this.maxChunkSize, 2L * state.getChunkSize()));
+		else if (roundTrip > 4 * TARGET_ROUND_TRIP_NANOS)
+			state.setChunkSize(Math.max(MIN_CHUNK_SIZE, state.getChunkSize() / 2));
+
+		if (state.getAckedBytes() == state.getBytes().length) {
+			this.pendingSends.remove(message.getSenderTransmissionKey());
+			long nanos = Math.max(1, System.nanoTime() - state.getStartTime());
+			this.sentMessages++;
+			this.sentBytes += state.getBytes().length;
+			this.sendNanos += nanos;
+			this.getContext().getLog().debug("Sent {} bytes in {} chunks within {} ms ({} MB/s), final chunk size {} bytes",
+					state.getBytes().length, state.getNumChunks(), nanos / 1000000,
+					String.format("%.1f", state.getBytes().length * 1e3 / nanos), state.getChunkSize());
+			return this;
+		}
 
-		SendState state = this.pendingSends.get(senderTransmissionKey);
+		this.sendWindow(message.getSenderTransmissionKey(), state);
+		return this;
+	}
 
+	// Sends chunks until windowSize of them are in flight or all bytes are sent
+	private void sendWindow(int senderTransmissionKey, SendState state) {
 		byte[] bytes = state.getBytes();
-		int startOffset = state.getOffset();
-		int endOffset = Math.min(startOffset + MAX_MESSAGE_SIZE, bytes.length);
+		while (state.getChunksInFlight() < this.windowSize && (state.getOffset() < bytes.length || state.getNumChunks() == 0)) {
+			int startOffset = state.getOffset();
+			int endOffset = Math.min(startOffset + state.getChunkSize(), bytes.length);
 
-		byte[] nextBytes = Arrays.copyOfRange(bytes, startOffset, endOffset);
-		state.setOffset(endOffset);
+			state.setOffset(endOffset);
+			state.setChunksInFlight(state.getChunksInFlight() + 1);
+			state.setNumChunks(state.getNumChunks() + 1);
 
-		if (endOffset == bytes.length)
-			this.pendingSends.remove(senderTransmissionKey);
-
-		receiverProxy.tell(new BytesMessage(nextBytes, senderTransmissionKey, receiverTransmissionKey));
-		return this;
+			state.getReceiverProxy().tell(new BytesMessage(bytes, startOffset, senderTransmissionKey, state.getReceiverTransmissionKey(), startOffset, endOffset - startOffset, System.nanoTime()));
+		}
 	}
 
 	private Behavior<Message> handle(BytesMessage message) {
 		ReceiveState receiveState = this.pendingReceives.get(message.getReceiverTransmissionKey());
 
-		byte[] bytes = receiveState.getBytes();
-		int offset = receiveState.getOffset();
-
-		System.arraycopy(message.getBytes(), 0, bytes, offset, message.getBytes().length);
-
-		receiveState.setOffset(offset + message.getBytes().length);
+		receiveState.getEarlyChunks().put(message.getOffset(), message);
+		BytesMessage next;
+		while ((next = receiveState.getEarlyChunks().remove(receiveState.getDecodedBytes())) != null) {
+			receiveState.getDecoder().decode(next.getBytes(), next.getStart(), next.getLength());
+			receiveState.setDecodedBytes(receiveState.getDecodedBytes() + next.getLength());
+		}
+		receiveState.setReceivedBytes(receiveState.getReceivedBytes() + message.getLength());
 
-		if (receiveState.getOffset() != bytes.length) {
-			receiveState.getSenderProxy().tell(new BytesAckMessage(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey()));
+		receiveState.getSenderProxy().tell(new BytesAckMessage(message.getSenderTransmissionKey(), message.getReceiverTransmissionKey(), message.getLength(), message.getSendTime()));
+		if (receiveState.getReceivedBytes() != receiveState.getTransferSize())
 			return this;
-		}
 
 		this.pendingReceives.remove(message.getReceiverTransmissionKey());
 
-		LargeMessage largeMessage = (LargeMessage) this.serialization.deserialize(bytes, receiveState.getSerializerId(), receiveState.getManifest()).get();
+		LargeMessage largeMessage = (LargeMessage) receiveState.getDecoder().result();
+		if (receiveState.getDecoder() instanceof BlockCompression.Decompressor) {
+			this.decompressedMessages++;
+			this.decompressionNanos += ((BlockCompression.Decompressor) receiveState.getDecoder()).getNanos();
+		}
 
 		this.parent.tell(largeMessage);
 		return this;
 	}
 
-}
\ No newline at end of file
+	private Behavior<Message> handle(PostStop signal) {
+		if (this.sentMessages > 0)
+			this.getContext().getLog().info("Sent {} large messages with {} bytes at {} MB/s per message",
+					this.sentMessages, this.sentBytes, String.format("%.1f", this.sentBytes * 1e3 / this.sendNanos));
+		if (this.compressedMessages > 0)
+			this.getContext().getLog().info("Compressed {} large messages from {} to {} bytes within {} ms, saving {} KB per ms",
+					this.compressedMessages, this.uncompressedBytes, this.compressedBytes, this.compressionNanos / 1000000,
+					String.format("%.1f", (this.uncompressedBytes - this.compressedBytes) * 1e3 / Math.max(1, this.compressionNanos)));
+		if (this.decompressedMessages > 0)
+			this.getContext().getLog().info("Decompressed {} large messages within {} ms",
+					this.decompressedMessages, this.decompressionNanos / 1000000);
+		return this;
+	}
+}
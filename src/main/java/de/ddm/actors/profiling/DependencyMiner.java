@@ -2,26 +2,45 @@ package de.ddm.actors.profiling;
 
 import akka.actor.typed.ActorRef;
 import akka.actor.typed.Behavior;
+import akka.actor.typed.DispatcherSelector;
 import akka.actor.typed.Terminated;
 import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
+import akka.actor.typed.javadsl.TimerScheduler;
 import akka.actor.typed.receptionist.Receptionist;
 import akka.actor.typed.receptionist.ServiceKey;
+import com.opencsv.exceptions.CsvValidationException;
 import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.configuration.SystemConfiguration;
 import de.ddm.singletons.InputConfigurationSingleton;
 import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.Column;
+import de.ddm.structures.ColumnBatch;
+import de.ddm.structures.ColumnId;
+import de.ddm.structures.DistinctTupleCache;
+import de.ddm.structures.IdDictionary;
 import de.ddm.structures.InclusionDependency;
+import de.ddm.structures.IndCandidateMatrix;
+import de.ddm.structures.NaryCandidateGenerator;
 import de.ddm.structures.Task;
+import de.ddm.structures.TaskCostModel;
 import de.ddm.structures.TaskGenerator;
 import de.ddm.structures.LocalDataStorage;
+import de.ddm.structures.PartitionedVerdict;
+import de.ddm.structures.SindyCandidates;
+import de.ddm.structures.WorkerColumnCache;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.Executor;
 
 public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 
@@ -46,19 +65,57 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 		String[] header;
 	}
 
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ChunksMessage implements Message {
+		private static final long serialVersionUID = 2284915071396027613L;
+		int id;
+		// see InputConfiguration::splitIntoChunks; null if the split failed
+		long[] boundaries;
+		String error;
+	}
+
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SnapshotSavedMessage implements Message {
+		private static final long serialVersionUID = -6179301725586412930L;
+		int id;
+		long time;
+		// null if the snapshot was saved
+		String error;
+	}
+
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class BatchMessage implements Message {
 		private static final long serialVersionUID = 4591192372652568030L;
 		int id;
-		List<String[]> batch; // TODO rename to rows
+		int chunk;
+		// batches of remote readers may overtake each other in the large message proxies, so they are numbered per
+		// reader, and the batches of a replaced reader are recognized by their attempt
+		int attempt;
+		int sequenceNumber;
+		ColumnBatch batch;
 
 		public boolean finishedReading(){
-			return batch.isEmpty();
+			return batch.getNumRows() == 0;
 		}
 	}
 
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ReaderMessage implements Message {
+		private static final long serialVersionUID = 7352893504123795187L;
+		int id;
+		int chunk;
+		int attempt;
+		ActorRef<InputReader.Message> reader;
+	}
+
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
@@ -68,16 +125,34 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 		ActorRef<LargeMessageProxy.Message> dependencyWorkerLargeMessageProxy;
 	}
 
+	@NoArgsConstructor
+	public static class SpeculationMessage implements Message {
+		private static final long serialVersionUID = 5307263521409466372L;
+	}
+
 	@Getter
 	@NoArgsConstructor
 	@AllArgsConstructor
 	public static class CompletionMessage implements Message {
 		private static final long serialVersionUID = -7642425159675583598L;
 		ActorRef<DependencyWorker.Message> dependencyWorker;
+		int taskId;
 
 		List<InclusionDependency> inclusionDependencies;
 	}
 
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SindyResultMessage implements Message {
+		private static final long serialVersionUID = -3340960471269153215L;
+		ActorRef<DependencyWorker.Message> dependencyWorker;
+		int partition;
+
+		// see SindyPartition::getCandidates
+		int[][] candidates;
+	}
+
 	////////////////////////
 	// Actor Construction //
 	////////////////////////
@@ -86,21 +161,48 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 
 	public static final ServiceKey<DependencyMiner.Message> dependencyMinerService = ServiceKey.create(DependencyMiner.Message.class, DEFAULT_NAME + "Service");
 
+	// how many distinct values of a dependent column are tested against the Bloom filter of a referenced column
+	private static final int BLOOM_SAMPLE_SIZE = 1024;
+
+	// a task becomes a straggler once it runs this many times longer than the median task
+	private static final double SPECULATION_FACTOR = 3.0;
+	private static final long SPECULATION_MIN_RUNTIME = 2000;
+	private static final int SPECULATION_MIN_SAMPLES = 3;
+	private static final Duration SPECULATION_INTERVAL = Duration.ofSeconds(1);
+
 	public static Behavior<Message> create() {
-		return Behaviors.setup(DependencyMiner::new);
+		return Behaviors.setup(
+				context -> Behaviors.withTimers(timers -> new DependencyMiner(context, timers)));
 	}
 
-	private DependencyMiner(ActorContext<Message> context) {
+	private DependencyMiner(ActorContext<Message> context, TimerScheduler<Message> timers) {
 		super(context);
+		this.timers = timers;
+		this.blockingExecutor = context.getSystem().dispatchers().lookup(DispatcherSelector.blocking());
 		this.discoverNaryDependencies = SystemConfigurationSingleton.get().isHardMode();
 
 		this.memUsage = 0;
 		this.inputFiles = InputConfigurationSingleton.get().getInputFiles();
 		this.finishedReading = new boolean[this.inputFiles.length];
 
+		// every file has no chunks until its split arrives, see ChunksMessage
 		this.inputReaders = new ArrayList<>(inputFiles.length);
-		for (int id = 0; id < this.inputFiles.length; id++)
-			this.inputReaders.add(context.spawn(InputReader.create(id, this.inputFiles[id]), InputReader.DEFAULT_NAME + "_" + id));
+		this.readAheadBatches = new ArrayList<>(inputFiles.length);
+		this.finishedChunks = new boolean[this.inputFiles.length][0];
+		this.outstandingBatches = new int[this.inputFiles.length][0];
+		this.currentChunks = new int[this.inputFiles.length];
+		this.chunkBoundaries = new long[this.inputFiles.length][];
+		this.readerAttempts = new int[this.inputFiles.length][0];
+		this.nextBatchNumbers = new int[this.inputFiles.length][0];
+		this.receivedRecords = new long[this.inputFiles.length][0];
+		this.pendingBatches = new ArrayList<>(inputFiles.length);
+		this.readerHosts = new ArrayList<>(inputFiles.length);
+		for (int id = 0; id < this.inputFiles.length; id++) {
+			this.inputReaders.add(new ArrayList<>());
+			this.readAheadBatches.add(new ArrayList<>());
+			this.pendingBatches.add(new ArrayList<>());
+			this.readerHosts.add(new ArrayList<>());
+		}
 		this.resultCollector = context.spawn(ResultCollector.create(), ResultCollector.DEFAULT_NAME);
 		this.largeMessageProxy = this.getContext().spawn(LargeMessageProxy.create(this.getContext().getSelf().unsafeUpcast()), LargeMessageProxy.DEFAULT_NAME);
 
@@ -111,15 +213,55 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	// Actor State //
 	/////////////////
 
+	private final TimerScheduler<Message> timers;
+	// splits input files and writes snapshots, so that the file I/O does not block the actor
+	private final Executor blockingExecutor;
+	// snapshots being written; the miner only ends once they are complete
+	private int pendingSnapshots = 0;
+
 	private long startTime;
+	private boolean finished = false;
 
 	private int memUsage;
 	private final boolean discoverNaryDependencies;
+	// the arity of the INDs discovered right now, and the INDs found on this level so far
+	private int naryLevel = 1;
+	private final List<InclusionDependency> levelDependencies = new ArrayList<>();
 	private final File[] inputFiles;
 	private final LocalDataStorage dataStorage = new LocalDataStorage();
+	// the global id of every distinct value of all tables; tasks carry these ids instead of the values
+	private final IdDictionary<String> valueDictionary = new IdDictionary<>();
+	// the value combinations of the current n-ary level, numbered together and shared by all its tasks
+	private DistinctTupleCache distinctTuples = new DistinctTupleCache(this.dataStorage);
 	private final boolean[] finishedReading;
 
-	private final List<ActorRef<InputReader.Message>> inputReaders;
+	// one reader per chunk of each input file, see InputConfiguration::splitIntoChunks
+	private final List<List<ActorRef<InputReader.Message>>> inputReaders;
+	private final boolean[][] finishedChunks;
+	// Credit-based reading: the batches that each chunk reader may still send, i.e. the granted but not yet received ones
+	private final int[][] outstandingBatches;
+	private final int readerCredits = Math.max(1, InputConfigurationSingleton.get().getReaderCredits());
+	// below this fraction of free heap, every reader gets at most one credit, and only if its rows can be appended right away
+	private static final double MIN_HEAP_HEADROOM = 0.2;
+	// For ordered ingestion, the chunk of each file whose rows are appended right now; the other chunks read ahead.
+	private final boolean orderedIngestion = InputConfigurationSingleton.get().isOrderedIngestion();
+	private final int[] currentChunks;
+	private final List<List<Deque<ColumnBatch>>> readAheadBatches;
+	private static final int MAX_READ_AHEAD_BATCHES = 8;
+	// Distributed reading: the chunks are read on the workers, which send distinct values only unless n-ary INDs need
+	// the rows. The miner tracks which worker reads which chunk and buffers batches that overtook earlier ones.
+	private final boolean distributedReading = InputConfigurationSingleton.get().isDistributedReading();
+	private final boolean distinctOnlyReading = this.distributedReading && !SystemConfigurationSingleton.get().isHardMode();
+	private final long[][] chunkBoundaries;
+	private final Deque<int[]> unassignedChunks = new ArrayDeque<>();
+	private final List<List<ActorRef<DependencyWorker.Message>>> readerHosts;
+	private int nextReaderHost = 0;
+	private final int[][] readerAttempts;
+	private final int[][] nextBatchNumbers;
+	// the records of each chunk that arrived in order, i.e. that were appended or buffered for read-ahead; a
+	// replacement reader of the chunk skips them, because batch sizes adapt and differ between readers
+	private final long[][] receivedRecords;
+	private final List<List<Map<Integer, BatchMessage>>> pendingBatches;
 	private final ActorRef<ResultCollector.Message> resultCollector;
 	private final ActorRef<LargeMessageProxy.Message> largeMessageProxy;
 
@@ -127,9 +269,42 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	private final List<ActorRef<DependencyWorker.Message>> dependencyWorkers = new ArrayList<>();
 	private final List<ActorRef<LargeMessageProxy.Message>> dependencyWorkerLargeProxies = new ArrayList<>();
 	// all tasks that not yet assigned
-	private final Queue<Task> unassignedTasks = new ArrayDeque<>();
-	// all workers that are busy, with their assigned Task
-	private final Map<ActorRef<DependencyWorker.Message>, Task> busyWorkers = new HashMap<>();
+	private final Deque<Task> unassignedTasks = new ArrayDeque<>();
+	// how many unassigned tasks are scanned for column locality when a worker becomes idle
+	private static final int LOCALITY_SCAN_WINDOW = 256;
+	// all workers that are busy, with their assigned Tasks by task id; up to tasksPerWorker tasks are in flight per worker
+	private final Map<ActorRef<DependencyWorker.Message>, Map<Integer, Task>> busyWorkers = new HashMap<>();
+	private final Map<ActorRef<DependencyWorker.Message>, Integer> nextSequenceNumbers = new HashMap<>();
+	private final int tasksPerWorker = Math.max(1, SystemConfigurationSingleton.get().getTasksPerWorker());
+	private int taskCounter = 0;
+
+	// tasks by id that some worker completed; speculative copies share the id of their original task
+	private final Set<Integer> completedTasks = new HashSet<>();
+	// the tasks whose results are still expected, by id; a re-queued task gets a new id once it is delegated again
+	private final Map<Integer, Task> tasksById = new HashMap<>();
+	private final Set<Integer> speculatedTasks = new HashSet<>();
+	private final Map<Integer, Long> taskStartTimes = new HashMap<>();
+	private final List<Long> taskRuntimes = new ArrayList<>();
+	// the status of all IND candidates, so that candidates decided by earlier results are not validated again
+	private final IndCandidateMatrix candidateMatrix = new IndCandidateMatrix();
+	// per-partition results of partitioned tasks by Task::getColumnsKey until all partitions completed
+	private final Map<String, PartitionedVerdict> partitionedVerdicts = new HashMap<>();
+	// the columns that each worker holds in its cache
+	private final Map<ActorRef<DependencyWorker.Message>, WorkerColumnCache> workerCaches = new HashMap<>();
+	private final Map<ColumnId, Long> columnSizes = new HashMap<>();
+	private final long columnCacheSize = SystemConfigurationSingleton.get().getColumnCacheSize() * 1024L * 1024L;
+	private final TaskCostModel taskCostModel = new TaskCostModel(
+		SystemConfigurationSingleton.get().getTaskBudget() * 1024L * 1024L, SystemConfigurationSingleton.get().getTaskValueBudget());
+
+	// SINDY engine: partitions not yet handed out, the partition that each worker inverts, and the combined candidates
+	private final SystemConfiguration.MiningEngine miningEngine = SystemConfigurationSingleton.get().getMiningEngine();
+	private final Deque<Integer> unassignedPartitions = new ArrayDeque<>();
+	private final Map<ActorRef<DependencyWorker.Message>, Integer> sindyAssignments = new HashMap<>();
+	private SindyCandidates sindyCandidates = null;
+
+	// column bytes sent to the workers and column bytes that the workers took from their caches instead
+	private long sentColumnBytes = 0;
+	private long cachedColumnBytes = 0;
 
 	////////////////////
 	// Actor Behavior //
@@ -139,21 +314,131 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 	public Receive<Message> createReceive() {
 		return newReceiveBuilder()
 				.onMessage(StartMessage.class, this::handle)
+				.onMessage(ChunksMessage.class, this::handle)
 				.onMessage(HeaderMessage.class, this::handle)
 				.onMessage(BatchMessage.class, this::handle)
+				.onMessage(SnapshotSavedMessage.class, this::handle)
+				.onMessage(ReaderMessage.class, this::handle)
 				.onMessage(RegistrationMessage.class, this::handle)
 				.onMessage(CompletionMessage.class, this::handle)
+				.onMessage(SindyResultMessage.class, this::handle)
+				.onMessage(SpeculationMessage.class, this::handle)
 				.onSignal(Terminated.class, this::handle)
 				.build();
 	}
 
 	private Behavior<Message> handle(StartMessage message) {
-		// ReadHeaderMessage for all input readers
-		for (ActorRef<InputReader.Message> inputReader : this.inputReaders)
-			inputReader.tell(new InputReader.ReadHeaderMessage(this.getContext().getSelf()));
-
 		this.startTime = System.currentTimeMillis();
+		this.timers.startTimerAtFixedRate("Speculation", new SpeculationMessage(), SPECULATION_INTERVAL, SPECULATION_INTERVAL);
+
+		// tables with a valid snapshot are not parsed at all; the others are split into chunks off the actor thread
+		for (int id = 0; id < this.inputFiles.length; id++) {
+			if (this.loadSnapshot(id)) {
+				this.finishReading(id);
+				continue;
+			}
+			int fileId = id;
+			this.getContext().pipeToSelf(InputConfigurationSingleton.get().splitIntoChunks(this.inputFiles[id], this.blockingExecutor),
+				(boundaries, failure) -> new ChunksMessage(fileId, boundaries, failure == null ? null : failure.getMessage()));
+		}
+
+		// the snapshots may hold all tables already, and their tasks may all be pruned
+		this.endIfFinished();
+		return this;
+	}
+
+	private Behavior<Message> handle(ChunksMessage message) throws IOException, CsvValidationException {
+		int id = message.id;
+		long[] boundaries = message.boundaries;
+		if (boundaries == null) {
+			this.getContext().getLog().warn("Could not split input file {}, reading it as one chunk: {}", this.inputFiles[id].getName(), message.error);
+			boundaries = new long[]{0, this.inputFiles[id].length()};
+		}
+		int numChunks = boundaries.length - 1;
+		if (numChunks > 1)
+			this.getContext().getLog().info("Split input file {} into {} chunks", this.inputFiles[id].getName(), numChunks);
+
+		this.chunkBoundaries[id] = boundaries;
+		this.finishedChunks[id] = new boolean[numChunks];
+		this.outstandingBatches[id] = new int[numChunks];
+		this.readerAttempts[id] = new int[numChunks];
+		this.nextBatchNumbers[id] = new int[numChunks];
+		this.receivedRecords[id] = new long[numChunks];
+		for (int chunk = 0; chunk < numChunks; chunk++) {
+			this.readAheadBatches.get(id).add(new ArrayDeque<>());
+			this.pendingBatches.get(id).add(new HashMap<>());
+			this.readerHosts.get(id).add(null);
+		}
+
+		if (this.distributedReading) {
+			// the header is read here, as if the first chunk's reader had sent it, and all chunks go to the workers
+			for (int chunk = 0; chunk < numChunks; chunk++) {
+				this.inputReaders.get(id).add(null);
+				this.unassignedChunks.add(new int[]{id, chunk});
+			}
+			this.handle(new HeaderMessage(id, InputConfigurationSingleton.get().getHeader(this.inputFiles[id])));
+			this.assignChunks();
+		} else {
+			for (int chunk = 0; chunk < numChunks; chunk++)
+				this.inputReaders.get(id).add(this.getContext().spawn(
+					InputReader.create(id, chunk, this.inputFiles[id], boundaries[chunk], boundaries[chunk + 1]),
+					InputReader.DEFAULT_NAME + "_" + id + "_" + chunk));
+			this.inputReaders.get(id).get(0).tell(new InputReader.ReadHeaderMessage(this.getContext().getSelf()));
+		}
+		return this;
+	}
+
+	// Adds the table of the given input file from its snapshot, if snapshots are enabled and the file did not change
+	// since the snapshot was saved; the file is neither split nor read then.
+	private boolean loadSnapshot(int id) {
+		InputConfiguration inputConfiguration = InputConfigurationSingleton.get();
+		if (!inputConfiguration.hasSnapshots())
+			return false;
+
+		File inputFile = this.inputFiles[id];
+		File snapshotFile = inputConfiguration.getSnapshotFile(inputFile);
+		long start = System.currentTimeMillis();
+		try {
+			if (!this.dataStorage.loadSnapshot(inputFile.getName(), inputConfiguration.getFingerprint(inputFile), snapshotFile))
+				return false;
+		} catch (IOException e) {
+			this.getContext().getLog().warn("Could not load snapshot {}, parsing {} instead: {}", snapshotFile, inputFile.getName(), e.getMessage());
+			return false;
+		}
 
+		List<String> header = this.dataStorage.getHeader(inputFile.getName());
+		this.candidateMatrix.addColumns(inputFile.getName(), header);
+		this.getContext().getLog().info("Loaded table {} with {} rows from snapshot {} within {} ms", inputFile.getName(),
+			this.dataStorage.getNumRows(inputFile.getName()), snapshotFile, System.currentTimeMillis() - start);
+		return true;
+	}
+
+	// Saves the completely read and frozen table of the given input file as a snapshot off the actor thread, if
+	// snapshots are enabled and the table holds all rows, i.e. the workers did not send distinct values only.
+	private void saveSnapshot(int id) {
+		InputConfiguration inputConfiguration = InputConfigurationSingleton.get();
+		if (!inputConfiguration.hasSnapshots() || this.distinctOnlyReading)
+			return;
+
+		File inputFile = this.inputFiles[id];
+		File snapshotFile = inputConfiguration.getSnapshotFile(inputFile);
+		long start = System.currentTimeMillis();
+		this.pendingSnapshots++;
+		this.getContext().pipeToSelf(
+			this.dataStorage.saveSnapshot(inputFile.getName(), inputConfiguration.getFingerprint(inputFile), snapshotFile, this.blockingExecutor),
+			(done, failure) -> new SnapshotSavedMessage(id, System.currentTimeMillis() - start, failure == null ? null : failure.getMessage()));
+	}
+
+	private Behavior<Message> handle(SnapshotSavedMessage message) {
+		File snapshotFile = InputConfigurationSingleton.get().getSnapshotFile(this.inputFiles[message.id]);
+		this.pendingSnapshots--;
+		if (message.error == null)
+			this.getContext().getLog().info("Saved table {} as snapshot {} with {} bytes within {} ms", this.inputFiles[message.id].getName(),
+				snapshotFile, snapshotFile.length(), message.time);
+		else
+			this.getContext().getLog().warn("Could not save snapshot {}: {}", snapshotFile, message.error);
+
+		this.endIfFinished();
 		return this;
 	}
 
@@ -162,95 +447,341 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 
 		String tableName = this.inputFiles[message.id].getName();
 		this.dataStorage.addTable(tableName, Arrays.asList(message.header));
+		this.candidateMatrix.addColumns(tableName, Arrays.asList(message.header));
 
-		// first ReadBatchMessage for current input reader
-		this.inputReaders.get(message.id).tell(new InputReader.ReadBatchMessage(this.getContext().getSelf()));
+		// first ReadBatchMessage for all chunk readers of the current input file
+		this.requestBatches(message.id);
 
 		return this;
 	}
 
-	// try to delegate all unassigned Tasks to idle DependencyWorkers
+	// try to delegate all unassigned Tasks to DependencyWorkers that have free task slots
 	private void delegateTasks(){
 		this.getContext().getLog().info("Before task delegation: {} unassigned tasks", this.unassignedTasks.size());
 
-		for (int workerIdx = 0; workerIdx < this.dependencyWorkers.size(); ++workerIdx){
-			if (this.unassignedTasks.isEmpty()) {
-				break; // no more unassigned tasks
-			}
+		// fill the slots level by level, so that every idle worker gets a task before any worker gets a prefetched one
+		for (int slots = 1; slots <= this.tasksPerWorker; ++slots) {
+			for (int workerIdx = 0; workerIdx < this.dependencyWorkers.size(); ++workerIdx){
+				if (this.unassignedTasks.isEmpty()) {
+					break; // no more unassigned tasks
+				}
 
-		    ActorRef<DependencyWorker.Message> worker = this.dependencyWorkers.get(workerIdx);
-		    ActorRef<LargeMessageProxy.Message> workerProxy = this.dependencyWorkerLargeProxies.get(workerIdx);
+				ActorRef<DependencyWorker.Message> worker = this.dependencyWorkers.get(workerIdx);
+				ActorRef<LargeMessageProxy.Message> workerProxy = this.dependencyWorkerLargeProxies.get(workerIdx);
 
-			if (this.busyWorkers.containsKey(worker)) {
-				continue; // this worker is busy
+				Map<Integer, Task> workerTasks = this.busyWorkers.computeIfAbsent(worker, w -> new LinkedHashMap<>());
+				if (workerTasks.size() >= slots) {
+					continue; // this worker has enough tasks in flight for this level
+				}
+
+				Task task = this.pollUndecidedTaskFor(worker);
+				if (task == null) {
+					break; // the remaining tasks were all decided by earlier results
+				}
+				int taskId = this.taskCounter++;
+				this.delegateTask(worker, workerProxy, taskId, task);
+				workerTasks.put(taskId, task);
+				this.tasksById.put(taskId, task);
+				this.taskStartTimes.put(taskId, System.currentTimeMillis());
 			}
-			// this worker is idle
+		}
 
-			Task task = this.unassignedTasks.remove();
+		this.getContext().getLog().info("After task delegation: {} unassigned tasks", this.unassignedTasks.size());
+	}
 
-			Map<String, Set<String>> distinctValuesA = new HashMap<>();
-			Map<String, Set<String>> distinctValuesB = new HashMap<>();
-			for (String colName: task.getColumnNamesA()) {
-				distinctValuesA.put(colName, this.dataStorage.getColumn(task.getTableNameA(), colName).getDistinctValues());
-			}
-			for (String colName: task.getColumnNamesB()) {
-				distinctValuesB.put(colName, this.dataStorage.getColumn(task.getTableNameB(), colName).getDistinctValues());
+	private void delegateTask(ActorRef<DependencyWorker.Message> worker, ActorRef<LargeMessageProxy.Message> workerProxy, int taskId, Task task) {
+		// only columns that the worker does not hold in its cache yet need to be sent; partitions of oversized
+		// columns bypass the cache, because no other task uses the same partition
+		WorkerColumnCache cache = task.usesColumnCache() ? this.workerCaches.get(worker) : null;
+		Set<ColumnId> taskColumns = new HashSet<>();
+		Map<ColumnId, Long> addedColumns = new HashMap<>();
+		Map<String, int[]> distinctValuesA = this.collectDistinctValues(task, task.getTableNameA(), task.getColumnNamesA(), cache, taskColumns, addedColumns);
+		Map<String, int[]> distinctValuesB = this.collectDistinctValues(task, task.getTableNameB(), task.getColumnNamesB(), cache, taskColumns, addedColumns);
+		List<ColumnId> evictedColumns = cache == null ? new ArrayList<>() : cache.admit(taskColumns, addedColumns);
+
+		// transfers may overtake each other, but the worker must apply the cache updates in the order we made them
+		int sequenceNumber = this.nextSequenceNumbers.merge(worker, 1, Integer::sum) - 1;
+
+		DependencyWorker.TaskMessage taskMessage = new DependencyWorker.TaskMessage(
+			this.largeMessageProxy,
+			taskId, sequenceNumber,
+			task, distinctValuesA, distinctValuesB, evictedColumns);
+
+		this.getContext().getLog().info("Delegated task {} as #{}, message has {} memory size, {} of {} columns cached by the worker",
+			task, taskId, taskMessage.getMemorySize(), taskColumns.size() - addedColumns.size(), taskColumns.size());
+
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(taskMessage, workerProxy));
+	}
+
+	// the unassigned task whose columns are cached best by the given worker, or by the other workers on its node
+	// to break ties; falls back to the oldest unassigned task so that no worker sits idle
+	private Task pollTaskFor(ActorRef<DependencyWorker.Message> worker) {
+		WorkerColumnCache cache = this.workerCaches.get(worker);
+		List<WorkerColumnCache> nodeCaches = new ArrayList<>();
+		this.workerCaches.forEach((otherWorker, otherCache) -> {
+			if (otherWorker != worker && otherWorker.path().address().equals(worker.path().address()))
+				nodeCaches.add(otherCache);
+		});
+
+		Task bestTask = this.unassignedTasks.peek();
+		long bestWorkerScore = 0;
+		long bestNodeScore = 0;
+		int scanned = 0;
+		for (Task task : this.unassignedTasks) {
+			if (scanned++ == LOCALITY_SCAN_WINDOW)
+				break;
+
+			long workerScore = 0;
+			long nodeScore = 0;
+			for (ColumnId column : this.getColumns(task)) {
+				Long size = this.columnSizes.get(column);
+				if (size == null)
+					continue; // never sent to any worker
+				if (cache.contains(column))
+					workerScore += size;
+				else if (nodeCaches.stream().anyMatch(nodeCache -> nodeCache.contains(column)))
+					nodeScore += size;
 			}
 
-			DependencyWorker.TaskMessage taskMessage = new DependencyWorker.TaskMessage(
-				this.largeMessageProxy,
-				task, distinctValuesA, distinctValuesB);
+			if (workerScore > bestWorkerScore || (workerScore == bestWorkerScore && nodeScore > bestNodeScore)) {
+				bestTask = task;
+				bestWorkerScore = workerScore;
+				bestNodeScore = nodeScore;
+			}
+		}
 
-			this.getContext().getLog().info("Delegated task {}, message has {} memory size", task, taskMessage.getMemorySize());;
+		this.unassignedTasks.removeFirstOccurrence(bestTask);
+		return bestTask;
+	}
 
-			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage (taskMessage, workerProxy));
-			this.busyWorkers.put(worker, task);
+	// like pollTaskFor, but drops the candidates that earlier results already decide; null if no undecided task is left
+	private Task pollUndecidedTaskFor(ActorRef<DependencyWorker.Message> worker) {
+		while (!this.unassignedTasks.isEmpty()) {
+			Task task = this.candidateMatrix.prune(this.pollTaskFor(worker));
+			if (task != null)
+				return task;
 		}
+		return null;
+	}
 
-		this.getContext().getLog().info("After task delegation: {} unassigned tasks", this.unassignedTasks.size());
+	private Set<ColumnId> getColumns(Task task) {
+		Set<ColumnId> columns = new HashSet<>();
+		for (String columnName : task.getColumnNamesA())
+			columns.add(new ColumnId(task.getTableNameA(), columnName));
+		for (String columnName : task.getColumnNamesB())
+			columns.add(new ColumnId(task.getTableNameB(), columnName));
+		return columns;
+	}
+
+	// distinct value ids of all given columns that are not in the worker's cache; also records the sizes of these columns
+	private Map<String, int[]> collectDistinctValues(Task task, String tableName, List<String> columnNames, WorkerColumnCache cache, Set<ColumnId> taskColumns, Map<ColumnId, Long> addedColumns) {
+		Map<String, int[]> distinctValues = new HashMap<>();
+		for (String columnName : columnNames) {
+			ColumnId column = new ColumnId(tableName, columnName);
+			if (!taskColumns.add(column))
+				continue; // intra-table tasks may list a column on both sides
+
+			if (cache != null && cache.contains(column)) {
+				this.cachedColumnBytes += this.columnSizes.get(column);
+				continue;
+			}
+
+			int[] values;
+			if (task.isNary())
+				values = this.distinctTuples.get(tableName, task.getCombination(columnName), task.getPartition(), task.getNumPartitions());
+			else if (task.isPartitioned())
+				values = this.dataStorage.getColumn(tableName, columnName).getDistinctIds(task.getPartition(), task.getNumPartitions());
+			else
+				values = this.dataStorage.getColumn(tableName, columnName).getDistinctIds();
+			long size = DependencyWorker.TaskMessage.getColumnMemorySize(values);
+			distinctValues.put(columnName, values);
+			addedColumns.put(column, size);
+			if (cache != null)
+				this.columnSizes.put(column, size);
+			this.sentColumnBytes += size;
+		}
+		return distinctValues;
 	}
 
 	private Behavior<Message> handle(BatchMessage message) {
 		String tableName = this.inputFiles[message.id].getName();
+		if (message.attempt != this.readerAttempts[message.id][message.chunk])
+			return this; // from a reader on a terminated worker
+
+		Map<Integer, BatchMessage> pending = this.pendingBatches.get(message.id).get(message.chunk);
+		pending.put(message.sequenceNumber, message);
+		BatchMessage next;
+		while ((next = pending.remove(this.nextBatchNumbers[message.id][message.chunk])) != null) {
+			this.nextBatchNumbers[message.id][message.chunk]++;
+			this.receivedRecords[message.id][message.chunk] += next.batch.getNumRows();
+			this.getContext().getLog().info("Read {} rows from chunk {} of table {}", next.batch.getNumRows(), next.chunk, tableName);
+			this.ingest(next);
+		}
+
+		boolean finishedAllChunks = true;
+		for (boolean finishedChunk : this.finishedChunks[message.id])
+			finishedAllChunks &= finishedChunk;
+
+		if (finishedAllChunks && !this.finishedReading[message.id]) {
+			this.finishReading(message.id);
+			this.saveSnapshot(message.id);
 
-		this.getContext().getLog().info("Read {} rows from table {}", message.batch.size(), tableName);
+			// the delegation prunes the tasks whose candidates are all decided, which may leave nothing to wait for
+			this.endIfFinished();
+		}
 
-		if (message.finishedReading()) {
-			this.finishedReading[message.id] = true;
+		return this;
+	}
 
-			// generate new tasks for completed table.
-			for (int id = 0; id < this.inputFiles.length; ++id) {
-				// IMPORTANT: DONT skip current table!
-				//if (id == message.id) continue; // skip current table
+	// generates the tasks of a completely read table against itself and all other completely read tables
+	private void finishReading(int id) {
+		String tableName = this.inputFiles[id].getName();
+		this.finishedReading[id] = true;
 
-				// we want to check against every other completed table
-				if (this.finishedReading[id]) {
-					String otherTableName = this.inputFiles[id].getName();
-					List<Task> tasks = TaskGenerator.run(
-						dataStorage,
-						60 * 1024 * 1024, // target 60 mib. TODO make this configurable
-						tableName,
-						otherTableName);
+		// all tasks with columns of this table share one sorted id array per column from now on
+		this.dataStorage.freeze(tableName, this.valueDictionary);
+		this.getContext().getLog().info("Froze table {}, which occupies about {} bytes of heap", tableName, this.dataStorage.getMemorySize(tableName));
 
-					this.getContext().getLog().info("Generated {} tasks for new table {} against table {}", tasks.size(), tableName, otherTableName);
-					tasks.forEach(task -> this.getContext().getLog().info("Task: {}", task));
+		if (this.miningEngine == SystemConfiguration.MiningEngine.SINDY) {
+			if (this.finishedReadingAll())
+				this.startSindy();
+			return;
+		}
 
-					this.unassignedTasks.addAll(tasks);
-				}
+		// generate new tasks for completed table.
+		for (int otherId = 0; otherId < this.inputFiles.length; ++otherId) {
+			// IMPORTANT: DONT skip current table!
+			//if (otherId == id) continue; // skip current table
+
+			// we want to check against every other completed table
+			if (this.finishedReading[otherId]) {
+				String otherTableName = this.inputFiles[otherId].getName();
+				this.refuteCandidates(tableName, otherTableName);
+				List<Task> tasks = TaskGenerator.run(
+					dataStorage,
+					this.taskCostModel,
+					tableName,
+					otherTableName);
+
+				this.getContext().getLog().info("Generated {} tasks for new table {} against table {}", tasks.size(), tableName, otherTableName);
+				tasks.forEach(task -> this.getContext().getLog().info("Task: {}", task));
+
+				this.unassignedTasks.addAll(tasks);
 			}
+		}
 
-			// new tasks available for idle workers
-			delegateTasks();
-		} else {
-			this.dataStorage.addRows(tableName, message.batch.stream().map(row -> List.of(row)));
+		// new tasks available for idle workers
+		delegateTasks();
+	}
+
+	// Refutes the candidates between the columns of both tables whose sampled dependent values miss the Bloom filter of
+	// the referenced column, so that they never reach a worker.
+	private void refuteCandidates(String tableNameA, String tableNameB) {
+		long refutedBefore = this.candidateMatrix.getRefutedPairs();
+		for (String columnNameA : this.dataStorage.getHeader(tableNameA)) {
+			for (String columnNameB : this.dataStorage.getHeader(tableNameB)) {
+				ColumnId columnA = new ColumnId(tableNameA, columnNameA);
+				ColumnId columnB = new ColumnId(tableNameB, columnNameB);
+				if (columnA.equals(columnB))
+					continue;
+
+				Column a = this.dataStorage.getColumn(tableNameA, columnNameA);
+				Column b = this.dataStorage.getColumn(tableNameB, columnNameB);
+				if (this.candidateMatrix.isUndecided(columnA, columnB) && !a.mayBeIncludedIn(b, BLOOM_SAMPLE_SIZE))
+					this.candidateMatrix.refute(columnA, columnB);
+				if (this.candidateMatrix.isUndecided(columnB, columnA) && !b.mayBeIncludedIn(a, BLOOM_SAMPLE_SIZE))
+					this.candidateMatrix.refute(columnB, columnA);
+			}
+		}
+		this.getContext().getLog().info("Refuted {} candidates of table {} against table {} with Bloom filters",
+			this.candidateMatrix.getRefutedPairs() - refutedBefore, tableNameA, tableNameB);
+	}
+
+	// appends the rows of the batch, or keeps them until all previous chunks are appended for ordered ingestion
+	private void ingest(BatchMessage message) {
+		String tableName = this.inputFiles[message.id].getName();
+		this.outstandingBatches[message.id][message.chunk]--;
+
+		if (message.finishedReading())
+			this.finishedChunks[message.id][message.chunk] = true;
+		else if (!this.orderedIngestion || message.chunk == this.currentChunks[message.id])
+			this.dataStorage.addBatch(tableName, message.batch);
+		else
+			this.readAheadBatches.get(message.id).get(message.chunk).add(message.batch);
+
+		while (this.orderedIngestion && this.finishedChunks[message.id][this.currentChunks[message.id]]
+				&& this.currentChunks[message.id] + 1 < this.finishedChunks[message.id].length) {
+			int chunk = ++this.currentChunks[message.id];
+			Deque<ColumnBatch> batches = this.readAheadBatches.get(message.id).get(chunk);
+			while (!batches.isEmpty())
+				this.dataStorage.addBatch(tableName, batches.poll());
+		}
+
+		// follow-up ReadBatchMessages for the chunk readers of the current input file
+		this.requestBatches(message.id);
+	}
+
+	// Tops up the credits of every chunk reader of the given file: readers whose rows are appended right away may
+	// keep readerCredits batches in flight, read-ahead chunks may buffer up to MAX_READ_AHEAD_BATCHES batches, and
+	// with little free heap, only the readers whose rows are appended right away get a single credit.
+	private void requestBatches(int id) {
+		boolean lowOnHeap = freeHeap() < MIN_HEAP_HEADROOM;
+		for (int chunk = 0; chunk < this.finishedChunks[id].length; chunk++) {
+			if (this.finishedChunks[id][chunk] || this.inputReaders.get(id).get(chunk) == null)
+				continue;
+
+			boolean appendedRightAway = !this.orderedIngestion || chunk == this.currentChunks[id];
+			int pending = this.outstandingBatches[id][chunk] + this.readAheadBatches.get(id).get(chunk).size();
+			int credits = (appendedRightAway ? this.readerCredits : MAX_READ_AHEAD_BATCHES) - pending;
+			if (lowOnHeap)
+				credits = appendedRightAway && pending == 0 ? 1 : 0;
+			if (credits <= 0)
+				continue;
+
+			this.outstandingBatches[id][chunk] += credits;
+			this.inputReaders.get(id).get(chunk).tell(new InputReader.ReadBatchMessage(this.getContext().getSelf(), credits));
+		}
+	}
 
-			// follow-up ReadBatchMessage for current input reader
-			this.inputReaders.get(message.id).tell(new InputReader.ReadBatchMessage(this.getContext().getSelf()));
+	// Places a reader for every unassigned chunk on a worker, round-robin and preferably on remote workers, so that
+	// parsing happens outside of the master's JVM.
+	private void assignChunks() {
+		if (this.startTime == 0)
+			return; // the discovery has not started yet
+
+		List<ActorRef<DependencyWorker.Message>> hosts = new ArrayList<>();
+		for (ActorRef<DependencyWorker.Message> worker : this.dependencyWorkers)
+			if (!worker.path().address().hasLocalScope())
+				hosts.add(worker);
+		if (hosts.isEmpty())
+			hosts.addAll(this.dependencyWorkers);
+
+		while (!hosts.isEmpty() && !this.unassignedChunks.isEmpty()) {
+			int[] idAndChunk = this.unassignedChunks.poll();
+			int id = idAndChunk[0];
+			int chunk = idAndChunk[1];
+			ActorRef<DependencyWorker.Message> host = hosts.get(this.nextReaderHost++ % hosts.size());
+			this.readerHosts.get(id).set(chunk, host);
+			host.tell(new DependencyWorker.ReadChunkMessage(this.getContext().getSelf(), this.largeMessageProxy, id, chunk, this.readerAttempts[id][chunk],
+				this.inputFiles[id].getAbsolutePath(), this.chunkBoundaries[id][chunk], this.chunkBoundaries[id][chunk + 1],
+				this.receivedRecords[id][chunk], InputConfigurationSingleton.get(), this.distinctOnlyReading));
 		}
+	}
 
+	private Behavior<Message> handle(ReaderMessage message) {
+		if (message.attempt != this.readerAttempts[message.id][message.chunk])
+			return this;
+
+		this.inputReaders.get(message.id).set(message.chunk, message.reader);
+		this.requestBatches(message.id);
 		return this;
 	}
 
+	private static double freeHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		return (runtime.maxMemory() - runtime.totalMemory() + runtime.freeMemory()) / (double) runtime.maxMemory();
+	}
+
 	private Behavior<Message> handle(RegistrationMessage message) {
 		this.getContext().getLog().info("Registered dependency worker {}", message.dependencyWorker.path());
 
@@ -259,56 +790,286 @@ public class DependencyMiner extends AbstractBehavior<DependencyMiner.Message> {
 			this.dependencyWorkers.add(dependencyWorker);
 			this.getContext().watch(dependencyWorker);
 			this.dependencyWorkerLargeProxies.add(message.getDependencyWorkerLargeMessageProxy());
+			this.workerCaches.put(dependencyWorker, new WorkerColumnCache(this.columnCacheSize));
 
 			// new idle workers for unassigned tasks
 			delegateTasks();
+			delegateSindyPartitions();
+			this.assignChunks();
+
+			// the tasks that waited for a worker may all have been pruned
+			this.endIfFinished();
 		}
 		return this;
 	}
 
 	private Behavior<Message> handle(CompletionMessage message) {
 		ActorRef<DependencyWorker.Message> dependencyWorker = message.getDependencyWorker();
-		Task task = this.busyWorkers.get(message.getDependencyWorker());
+		Map<Integer, Task> workerTasks = this.busyWorkers.getOrDefault(dependencyWorker, Collections.emptyMap());
+		workerTasks.remove(message.getTaskId());
+
+		// first completion wins; the results of a slower copy of the same task are dropped, and so are the results
+		// under the id of a task that was re-queued under a new id, because its INDs would be reported twice
+		Task task = this.tasksById.remove(message.getTaskId());
+		if (task == null) {
+			this.getContext().getLog().info("Dropped completion of task #{}, which completed before or was re-queued", message.getTaskId());
+			this.delegateTasks();
+			return this;
+		}
+		this.completedTasks.add(message.getTaskId());
+		Long taskStartTime = this.taskStartTimes.remove(message.getTaskId());
+		if (taskStartTime != null)
+			this.taskRuntimes.add(System.currentTimeMillis() - taskStartTime);
 
-		this.getContext().getLog().info("Completed work for task {}", task);
+		this.getContext().getLog().info("Completed work for task {} as #{}", task, message.getTaskId());
 
 		List<InclusionDependency> inds = message.getInclusionDependencies();
+		if (task.isPartitioned())
+			inds = this.combinePartitions(task, inds);
+		if (inds != null && !task.isNary())
+			inds = this.candidateMatrix.record(task, inds); // validated and inferred INDs, each only once
+		if (inds != null)
+			this.report(inds);
+
+		// we have idle workers for unassigned tasks
+		delegateTasks();
+
+		this.endIfFinished();
+		return this;
+	}
+
+	private void report(List<InclusionDependency> inds) {
+		this.levelDependencies.addAll(inds);
 		if (!inds.isEmpty()) {
 			this.getContext().getLog().info("Forwarded {} INDs to ResultCollector", inds.size());
 			this.resultCollector.tell(new ResultCollector.ResultMessage(inds));
 		}
+	}
 
-		// Once I found all unary INDs, I could check if this.discoverNaryDependencies is set to true and try to detect n-ary INDs as well!
-
-		// TODO this will throw an error if duplicate CompletionMessages are sent?
-		this.busyWorkers.remove(dependencyWorker);
+	// the INDs that hold in all partitions of the given task once its last partition completed, null before
+	private List<InclusionDependency> combinePartitions(Task task, List<InclusionDependency> inds) {
+		PartitionedVerdict verdict = this.partitionedVerdicts.computeIfAbsent(task.getColumnsKey(), key -> new PartitionedVerdict(task.getNumPartitions()));
+		if (!verdict.add(task.getPartition(), inds))
+			return null;
 
-		// we have idle workers for unassigned tasks
-		delegateTasks();
+		this.partitionedVerdicts.remove(task.getColumnsKey());
+		this.getContext().getLog().info("Combined {} partitions of task {}", task.getNumPartitions(), task.getColumnsKey());
+		return verdict.getInclusionDependencies();
+	}
 
-		// system finish
-		boolean finishedAll = true; // FIXME Arrays.streamBoolean sadly doesnt exist...
-		for (boolean b: this.finishedReading){
-			if (!b) {
-				finishedAll = false;
-				break;
+	// duplicate stragglers onto idle workers once there is no regular work left to hand out
+	private Behavior<Message> handle(SpeculationMessage message) {
+		if (!this.unassignedTasks.isEmpty() || this.taskRuntimes.size() < SPECULATION_MIN_SAMPLES)
+			return this;
+
+		List<Long> runtimes = new ArrayList<>(this.taskRuntimes);
+		Collections.sort(runtimes);
+		long threshold = Math.max(SPECULATION_MIN_RUNTIME, (long) (runtimes.get(runtimes.size() / 2) * SPECULATION_FACTOR));
+		long now = System.currentTimeMillis();
+
+		for (Map.Entry<ActorRef<DependencyWorker.Message>, Map<Integer, Task>> entry : new ArrayList<>(this.busyWorkers.entrySet())) {
+			for (Map.Entry<Integer, Task> runningTask : new ArrayList<>(entry.getValue().entrySet())) {
+				int taskId = runningTask.getKey();
+				if (this.completedTasks.contains(taskId) || this.speculatedTasks.contains(taskId) || now - this.taskStartTimes.get(taskId) < threshold)
+					continue;
+
+				int idleWorkerIdx = this.findIdleWorker(entry.getKey());
+				if (idleWorkerIdx < 0)
+					return this; // no idle workers left
+
+				ActorRef<DependencyWorker.Message> idleWorker = this.dependencyWorkers.get(idleWorkerIdx);
+				this.getContext().getLog().info("Task {} as #{} runs for {} ms, speculatively copying it to worker {}",
+					runningTask.getValue(), taskId, now - this.taskStartTimes.get(taskId), idleWorker.path());
+
+				this.delegateTask(idleWorker, this.dependencyWorkerLargeProxies.get(idleWorkerIdx), taskId, runningTask.getValue());
+				this.busyWorkers.get(idleWorker).put(taskId, runningTask.getValue());
+				this.speculatedTasks.add(taskId);
 			}
 		}
-		if (finishedAll && this.unassignedTasks.isEmpty() && this.busyWorkers.isEmpty())
+		return this;
+	}
+
+	// index of a worker other than the given one without any uncompleted tasks, or -1
+	private int findIdleWorker(ActorRef<DependencyWorker.Message> busyWorker) {
+		for (int workerIdx = 0; workerIdx < this.dependencyWorkers.size(); ++workerIdx) {
+			ActorRef<DependencyWorker.Message> worker = this.dependencyWorkers.get(workerIdx);
+			Map<Integer, Task> workerTasks = this.busyWorkers.computeIfAbsent(worker, w -> new LinkedHashMap<>());
+			if (!worker.equals(busyWorker) && this.completedTasks.containsAll(workerTasks.keySet()))
+				return workerIdx;
+		}
+		return -1;
+	}
+
+	private boolean finishedReadingAll() {
+		for (boolean b: this.finishedReading)
+			if (!b)
+				return false;
+		return true;
+	}
+
+	private void endIfFinished() {
+		if (this.startTime == 0)
+			return; // the discovery has not started yet
+
+		// speculative copies of completed tasks may still be running, but they cannot contribute anything anymore
+		boolean allTasksCompleted = this.busyWorkers.values().stream().allMatch(workerTasks -> this.completedTasks.containsAll(workerTasks.keySet()));
+		boolean sindyCompleted = this.miningEngine != SystemConfiguration.MiningEngine.SINDY || (this.sindyCandidates != null && this.sindyCandidates.isComplete());
+		if (this.finishedReadingAll() && this.unassignedTasks.isEmpty() && allTasksCompleted && sindyCompleted && this.pendingSnapshots == 0 && !this.finished) {
+			if (this.discoverNaryDependencies && this.startNextNaryLevel())
+				return;
 			this.end();
+		}
+	}
+
+	// hands out the candidates of the next arity, generated from the INDs of the finished level; false if there are none
+	private boolean startNextNaryLevel() {
+		List<InclusionDependency> candidates = NaryCandidateGenerator.generate(this.levelDependencies);
+		this.getContext().getLog().info("Found {} INDs of arity {}, generated {} candidates of arity {}",
+			this.levelDependencies.size(), this.naryLevel, candidates.size(), this.naryLevel + 1);
+		this.levelDependencies.clear();
+		if (candidates.isEmpty())
+			return false;
+
+		this.naryLevel++;
+		this.distinctTuples = new DistinctTupleCache(this.dataStorage);
+		List<Task> tasks = TaskGenerator.runNary(this.dataStorage, this.taskCostModel, candidates);
+		this.getContext().getLog().info("Generated {} tasks for the candidates of arity {}", tasks.size(), this.naryLevel);
+		this.unassignedTasks.addAll(tasks);
+		this.delegateTasks();
+		return true;
+	}
+
+	// one partition per registered worker; partitions wait for the first worker if none registered yet
+	private void startSindy() {
+		List<ColumnId> columns = new ArrayList<>();
+		for (File inputFile : this.inputFiles)
+			for (String columnName : this.dataStorage.getHeader(inputFile.getName()))
+				columns.add(new ColumnId(inputFile.getName(), columnName));
 
+		int numPartitions = Math.max(1, this.dependencyWorkers.size());
+		this.sindyCandidates = new SindyCandidates(columns, numPartitions);
+		for (int partition = 0; partition < numPartitions; partition++)
+			this.unassignedPartitions.add(partition);
+
+		this.getContext().getLog().info("Started SINDY over {} columns in {} partitions", columns.size(), numPartitions);
+		this.delegateSindyPartitions();
+	}
+
+	// hand out one partition to every worker that does not invert a partition yet
+	private void delegateSindyPartitions() {
+		for (int workerIdx = 0; workerIdx < this.dependencyWorkers.size() && !this.unassignedPartitions.isEmpty(); ++workerIdx) {
+			ActorRef<DependencyWorker.Message> worker = this.dependencyWorkers.get(workerIdx);
+			if (this.sindyAssignments.containsKey(worker))
+				continue;
+
+			int partition = this.unassignedPartitions.poll();
+			this.sindyAssignments.put(worker, partition);
+
+			// every distinct value of a column is shipped once, to the worker that owns the value's partition
+			List<ColumnId> columns = this.sindyCandidates.getColumns();
+			long sentBytes = 0;
+			for (int column = 0; column < columns.size(); column++) {
+				ColumnId columnId = columns.get(column);
+				int[] values = this.dataStorage.getColumn(columnId.getTableName(), columnId.getColumnName())
+					.getDistinctIds(partition, this.sindyCandidates.getNumPartitions());
+				sentBytes += DependencyWorker.TaskMessage.getColumnMemorySize(values);
+
+				DependencyWorker.SindyColumnMessage columnMessage = new DependencyWorker.SindyColumnMessage(
+					this.largeMessageProxy, partition, column, columns.size(), values);
+				this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(columnMessage, this.dependencyWorkerLargeProxies.get(workerIdx)));
+			}
+			this.sentColumnBytes += sentBytes;
+
+			this.getContext().getLog().info("Delegated SINDY partition {} with {} bytes of column data to worker {}", partition, sentBytes, worker.path());
+		}
+	}
+
+	private Behavior<Message> handle(SindyResultMessage message) {
+		this.sindyAssignments.remove(message.getDependencyWorker());
+		if (this.sindyCandidates.isCompleted(message.getPartition()))
+			return this;
+
+		this.getContext().getLog().info("Completed SINDY partition {}", message.getPartition());
+		if (this.sindyCandidates.add(message.getPartition(), message.getCandidates()))
+			this.report(this.sindyCandidates.getInclusionDependencies());
+
+		this.delegateSindyPartitions();
+		this.endIfFinished();
 		return this;
 	}
 
 	private void end() {
+		this.finished = true;
+		this.timers.cancel("Speculation");
 		this.resultCollector.tell(new ResultCollector.FinalizeMessage());
 		long discoveryTime = System.currentTimeMillis() - this.startTime;
 		this.getContext().getLog().info("Finished mining within {} ms!", discoveryTime);
+		this.getContext().getLog().info("Mapped {} distinct values of all tables to global ids", this.valueDictionary.size());
+		this.getContext().getLog().info("Sent {} bytes of column data, worker caches saved another {} bytes ({}%)",
+			this.sentColumnBytes, this.cachedColumnBytes,
+			Math.round(100.0 * this.cachedColumnBytes / Math.max(1, this.sentColumnBytes + this.cachedColumnBytes)));
+		if (this.miningEngine == SystemConfiguration.MiningEngine.PAIRWISE)
+			this.getContext().getLog().info("Validated {} IND candidates, refuted {} with Bloom filters, inferred {} by transitivity and pruned {} decided candidates from tasks",
+				this.candidateMatrix.getValidatedPairs(), this.candidateMatrix.getRefutedPairs(), this.candidateMatrix.getInferredPairs(), this.candidateMatrix.getPrunedPairs());
 	}
 
 	private Behavior<Message> handle(Terminated signal) {
 		ActorRef<DependencyWorker.Message> dependencyWorker = signal.getRef().unsafeUpcast();
-		this.dependencyWorkers.remove(dependencyWorker);
+		int workerIdx = this.dependencyWorkers.indexOf(dependencyWorker);
+		if (workerIdx >= 0) {
+			this.dependencyWorkers.remove(workerIdx);
+			this.dependencyWorkerLargeProxies.remove(workerIdx);
+		}
+		this.workerCaches.remove(dependencyWorker);
+		this.nextSequenceNumbers.remove(dependencyWorker);
+
+		// put the lost tasks back in front of the queue, unless a speculative copy still runs elsewhere
+		Map<Integer, Task> lostTasks = this.busyWorkers.remove(dependencyWorker);
+		if (lostTasks != null) {
+			List<Integer> lostTaskIds = new ArrayList<>(lostTasks.keySet());
+			Collections.reverse(lostTaskIds);
+			for (int taskId : lostTaskIds) {
+				boolean runningElsewhere = this.busyWorkers.values().stream().anyMatch(workerTasks -> workerTasks.containsKey(taskId));
+				if (this.completedTasks.contains(taskId) || runningElsewhere)
+					continue;
+
+				this.getContext().getLog().info("Re-queued task {} as #{} of terminated worker {}", lostTasks.get(taskId), taskId, dependencyWorker.path());
+				this.tasksById.remove(taskId);
+				this.speculatedTasks.remove(taskId);
+				this.taskStartTimes.remove(taskId);
+				this.unassignedTasks.addFirst(lostTasks.get(taskId));
+			}
+		}
+
+		// The chunks that a lost worker read get a new reader, which skips the records that arrived in order already;
+		// these are appended or buffered for read-ahead, so only the batches that overtook a missing one are dropped.
+		for (int id = 0; id < this.inputFiles.length; id++) {
+			for (int chunk = 0; chunk < this.finishedChunks[id].length; chunk++) {
+				if (this.finishedChunks[id][chunk] || !dependencyWorker.equals(this.readerHosts.get(id).get(chunk)))
+					continue;
+
+				this.getContext().getLog().info("Re-queued chunk {} of table {} of terminated worker {}", chunk, this.inputFiles[id].getName(), dependencyWorker.path());
+				this.readerAttempts[id][chunk]++;
+				this.readerHosts.get(id).set(chunk, null);
+				this.inputReaders.get(id).set(chunk, null);
+				this.outstandingBatches[id][chunk] = 0;
+				this.nextBatchNumbers[id][chunk] = 0;
+				this.pendingBatches.get(id).get(chunk).clear();
+				this.unassignedChunks.add(new int[]{id, chunk});
+			}
+		}
+		this.assignChunks();
+
+		// the partition of a lost worker goes to the next idle worker
+		Integer lostPartition = this.sindyAssignments.remove(dependencyWorker);
+		if (lostPartition != null && !this.sindyCandidates.isCompleted(lostPartition)) {
+			this.getContext().getLog().info("Re-queued SINDY partition {} of terminated worker {}", lostPartition, dependencyWorker.path());
+			this.unassignedPartitions.addFirst(lostPartition);
+		}
+
+		this.delegateTasks();
+		this.delegateSindyPartitions();
+		this.endIfFinished();
 		return this;
 	}
 }
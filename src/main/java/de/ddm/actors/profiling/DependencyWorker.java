@@ -8,14 +8,22 @@ import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
 import akka.actor.typed.receptionist.Receptionist;
 import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.InputConfiguration;
 import de.ddm.serialization.AkkaSerializable;
-import de.ddm.structures.Column;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.ColumnId;
+import de.ddm.structures.HashValidator;
 import de.ddm.structures.InclusionDependency;
+import de.ddm.structures.IndValidator;
+import de.ddm.structures.NaryValidator;
+import de.ddm.structures.SindyPartition;
+import de.ddm.structures.SortMergeValidator;
 import de.ddm.structures.Task;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.io.File;
 import java.util.*;
 
 public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message> {
@@ -41,20 +49,60 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 	public static class TaskMessage implements Message {
 		private static final long serialVersionUID = -4667745204456518160L;
 		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int taskId;
+		// position of this task in the sequence of tasks sent to this worker
+		int sequenceNumber;
 
 		Task task;
-		Map<String, Set<String>> distinctValuesA;
-		Map<String, Set<String>> distinctValuesB;
+		// the ascending global ids of the distinct values, only of the columns that are not in the worker's column cache yet
+		Map<String, int[]> distinctValuesA;
+		Map<String, int[]> distinctValuesB;
+		// columns to drop from the worker's column cache
+		List<ColumnId> evictedColumns;
 
-		private int getSetMemorySize(Set<String> set) {
-			return set.stream().mapToInt(value -> value.length() * 2).sum();
+		public static long getColumnMemorySize(int[] ids) {
+			return ids.length * (long) Integer.BYTES;
 		}
 
-		public int getMemorySize() {
-			return distinctValuesA.values().stream().mapToInt(this::getSetMemorySize).sum() + distinctValuesB.values().stream().mapToInt(this::getSetMemorySize).sum();
+		public long getMemorySize() {
+			return distinctValuesA.values().stream().mapToLong(TaskMessage::getColumnMemorySize).sum() + distinctValuesB.values().stream().mapToLong(TaskMessage::getColumnMemorySize).sum();
 		}
 	}
 
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class SindyColumnMessage implements Message {
+		private static final long serialVersionUID = 2904735310487259914L;
+		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int partition;
+		int column;
+		int numColumns;
+		// the ascending global ids of the column's distinct values that fall into the partition
+		int[] values;
+	}
+
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class ReadChunkMessage implements Message {
+		private static final long serialVersionUID = -2380713526406317406L;
+		ActorRef<DependencyMiner.Message> dependencyMiner;
+		ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+		int id;
+		int chunk;
+		// the how-many-th reader of this chunk, see DependencyMiner.BatchMessage
+		int attempt;
+		// the input file as seen by the master, which must be the same path on this node
+		String inputPath;
+		long start;
+		long end;
+		// the records at the chunk's start that the miner received from an earlier reader
+		long skipRecords;
+		InputConfiguration inputConfiguration;
+		boolean distinctOnly;
+	}
+
 	////////////////////////
 	// Actor Construction //
 	////////////////////////
@@ -72,6 +120,17 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 		context.getSystem().receptionist().tell(Receptionist.subscribe(DependencyMiner.dependencyMinerService, listingResponseAdapter));
 
 		this.largeMessageProxy = this.getContext().spawn(LargeMessageProxy.create(this.getContext().getSelf().unsafeUpcast()), LargeMessageProxy.DEFAULT_NAME);
+
+		switch (SystemConfigurationSingleton.get().getValidationEngine()) {
+			case HASH:
+				this.validator = new HashValidator();
+				break;
+			case SORT_MERGE:
+				this.validator = new SortMergeValidator();
+				break;
+			default:
+				throw new AssertionError();
+		}
 	}
 
 	/////////////////
@@ -79,6 +138,20 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 	/////////////////
 
 	private final ActorRef<LargeMessageProxy.Message> largeMessageProxy;
+	private final IndValidator validator;
+	private final IndValidator naryValidator = new NaryValidator();
+
+	// Distinct value ids of the columns received so far. The DependencyMiner tracks the contents and decides on
+	// evictions (least recently used first, within its byte budget), so it only sends columns missing here.
+	private final Map<ColumnId, int[]> columnCache = new HashMap<>();
+
+	// Several tasks may be in flight and their transfers may overtake each other; tasks are validated in the order
+	// the miner sent them, because that is the order in which it planned the cache updates.
+	private final Map<Integer, TaskMessage> pendingTasks = new HashMap<>();
+	private int nextSequenceNumber = 0;
+
+	// SINDY partitions whose columns are still being received
+	private final Map<Integer, SindyPartition> sindyPartitions = new HashMap<>();
 
 	////////////////////
 	// Actor Behavior //
@@ -89,6 +162,8 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 		return newReceiveBuilder()
 				.onMessage(ReceptionistListingMessage.class, this::handle)
 				.onMessage(TaskMessage.class, this::handle)
+				.onMessage(SindyColumnMessage.class, this::handle)
+				.onMessage(ReadChunkMessage.class, this::handle)
 				.build();
 	}
 
@@ -101,45 +176,97 @@ public class DependencyWorker extends AbstractBehavior<DependencyWorker.Message>
 
 
 	private Behavior<Message> handle(TaskMessage message) {
+		this.pendingTasks.put(message.getSequenceNumber(), message);
+
+		TaskMessage nextTask;
+		while ((nextTask = this.pendingTasks.remove(this.nextSequenceNumber)) != null) {
+			this.validate(nextTask);
+			this.nextSequenceNumber++;
+		}
+		return this;
+	}
+
+	private void validate(TaskMessage message) {
 		this.getContext().getLog().info(
-			"Received task table {} with {} columns and {} distinct values, task table {} with {} columns and {} distinct values",
-			message.task.getTableNameA(), message.task.getColumnNamesA().size(), message.distinctValuesA.values().stream().mapToInt(set -> set.size()).sum(),
-			message.task.getTableNameB(), message.task.getColumnNamesB().size(), message.distinctValuesB.values().stream().mapToInt(set -> set.size()).sum(),
-			message.getMemorySize());
-
-		List<InclusionDependency> inclusionDeps = new ArrayList<>();
-		message.distinctValuesA.forEach((columnA, setA) -> {
-			message.distinctValuesB.forEach((columnB, setB) -> {
-			        if (columnA == columnB) {
-			            return; // skip trivial A c A dependencies
-				}
-				for (InclusionDependency dep : inclusionDeps) {
-				    if (dep.getDependentColumn() == columnA
-				    && dep.getReferencedColumn() == columnB){
-				       return; // already generated (otherwise, intra-table INDs get generated double)
-				    }
-				}
-				
-				int cardinalityA = setA.size();
-				int cardinalityB = setB.size();
-
-				// NOTE both or none of these branches may be executed
-				if (cardinalityA <= cardinalityB && setB.containsAll(setA)) {
-					inclusionDeps.add(new InclusionDependency(message.task.getTableNameA(), message.task.getTableNameB(), columnA, columnB));
-				}
-				if (cardinalityB <= cardinalityA && setA.containsAll(setB)) {
-					inclusionDeps.add(new InclusionDependency(message.task.getTableNameB(), message.task.getTableNameA(), columnB, columnA));
-				}
-			});
-		});
+			"Received task table {} with {} columns and {} new distinct values, task table {} with {} columns and {} new distinct values",
+			message.task.getTableNameA(), message.task.getColumnNamesA().size(), message.distinctValuesA.values().stream().mapToInt(values -> values.length).sum(),
+			message.task.getTableNameB(), message.task.getColumnNamesB().size(), message.distinctValuesB.values().stream().mapToInt(values -> values.length).sum());
+
+		for (ColumnId column : message.evictedColumns)
+			this.columnCache.remove(column);
+
+		// partitions and value combinations bypass the cache, so intra-table tasks find their shared columns on side A
+		boolean cached = message.task.usesColumnCache();
+		Map<String, int[]> receivedValuesB = message.distinctValuesB;
+		if (!cached && message.task.getTableNameA().equals(message.task.getTableNameB())) {
+			receivedValuesB = new HashMap<>(message.distinctValuesA);
+			receivedValuesB.putAll(message.distinctValuesB);
+		}
+		Map<String, int[]> distinctValuesA = this.resolveColumns(message, message.task.getTableNameA(), message.task.getColumnNamesA(), message.distinctValuesA, cached);
+		Map<String, int[]> distinctValuesB = this.resolveColumns(message, message.task.getTableNameB(), message.task.getColumnNamesB(), receivedValuesB, cached);
+
+		long validationStart = System.currentTimeMillis();
+		IndValidator validator = message.task.isNary() ? this.naryValidator : this.validator;
+		List<InclusionDependency> inclusionDeps = validator.validate(message.task, distinctValuesA, distinctValuesB);
+		long validationTime = System.currentTimeMillis() - validationStart;
 
 		this.getContext().getLog().info(
-			"Found {} INDs for table {} and table {}: {}",
-			inclusionDeps.size(), message.task.getTableNameA(), message.task.getTableNameB(), inclusionDeps);
+			"Found {} INDs for table {} and table {} within {} ms: {}",
+			inclusionDeps.size(), message.task.getTableNameA(), message.task.getTableNameB(), validationTime, inclusionDeps);
 
-		LargeMessageProxy.LargeMessage completionMessage = new DependencyMiner.CompletionMessage(this.getContext().getSelf(), inclusionDeps);
+		LargeMessageProxy.LargeMessage completionMessage = new DependencyMiner.CompletionMessage(this.getContext().getSelf(), message.getTaskId(), inclusionDeps);
 		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(completionMessage, message.getDependencyMinerLargeMessageProxy()));
+	}
+
+	// Reads a chunk of an input file on this node; the reader reports to the miner itself
+	private Behavior<Message> handle(ReadChunkMessage message) {
+		this.getContext().getLog().info("Reading chunk {} of input file {}", message.getChunk(), message.getInputPath());
 
+		ActorRef<InputReader.Message> reader = this.getContext().spawn(
+			InputReader.create(message.getId(), message.getChunk(), message.getAttempt(), new File(message.getInputPath()), message.getStart(), message.getEnd(), message.getSkipRecords(),
+				message.getInputConfiguration(), message.isDistinctOnly(), this.largeMessageProxy, message.getDependencyMinerLargeMessageProxy()),
+			InputReader.DEFAULT_NAME + "_" + message.getId() + "_" + message.getChunk() + "_" + message.getAttempt());
+		message.getDependencyMiner().tell(new DependencyMiner.ReaderMessage(message.getId(), message.getChunk(), message.getAttempt(), reader));
 		return this;
 	}
+
+	private Behavior<Message> handle(SindyColumnMessage message) {
+		SindyPartition partition = this.sindyPartitions.computeIfAbsent(message.getPartition(), p -> new SindyPartition(message.getNumColumns()));
+		partition.addColumn(message.getColumn(), message.getValues());
+		if (!partition.isComplete())
+			return this;
+
+		this.sindyPartitions.remove(message.getPartition());
+
+		long validationStart = System.currentTimeMillis();
+		int[][] candidates = partition.getCandidates();
+		long validationTime = System.currentTimeMillis() - validationStart;
+
+		this.getContext().getLog().info("Inverted SINDY partition {} with {} distinct values within {} ms",
+			message.getPartition(), partition.getNumValues(), validationTime);
+
+		LargeMessageProxy.LargeMessage resultMessage = new DependencyMiner.SindyResultMessage(this.getContext().getSelf(), message.getPartition(), candidates);
+		this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(resultMessage, message.getDependencyMinerLargeMessageProxy()));
+		return this;
+	}
+
+	// Completes the received columns with the cached ones and caches the received ones, unless the task bypasses the cache.
+	// A column that is neither sent nor cached means that the miner's mirror of this cache is out of sync.
+	private Map<String, int[]> resolveColumns(TaskMessage message, String tableName, List<String> columnNames, Map<String, int[]> receivedValues, boolean cached) {
+		Map<String, int[]> distinctValues = new HashMap<>();
+		for (String columnName : columnNames) {
+			ColumnId column = new ColumnId(tableName, columnName);
+			int[] values = receivedValues.get(columnName);
+			if (cached && values != null)
+				this.columnCache.put(column, values);
+			else if (cached)
+				values = this.columnCache.get(column);
+
+			if (values == null)
+				throw new IllegalStateException("Column " + column + " of task " + message.getTaskId() + " with sequence number "
+					+ message.getSequenceNumber() + " was neither sent nor cached");
+			distinctValues.put(columnName, values);
+		}
+		return distinctValues;
+	}
 }
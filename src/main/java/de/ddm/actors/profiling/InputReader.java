@@ -7,11 +7,13 @@ import akka.actor.typed.javadsl.AbstractBehavior;
 import akka.actor.typed.javadsl.ActorContext;
 import akka.actor.typed.javadsl.Behaviors;
 import akka.actor.typed.javadsl.Receive;
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
+import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.InputConfiguration;
 import de.ddm.serialization.AkkaSerializable;
 import de.ddm.singletons.DomainConfigurationSingleton;
 import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.structures.ColumnBatch;
+import de.ddm.structures.RecordReader;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -20,6 +22,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 public class InputReader extends AbstractBehavior<InputReader.Message> {
 
@@ -44,6 +47,12 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 	public static class ReadBatchMessage implements Message {
 		private static final long serialVersionUID = -7915854043207237318L;
 		ActorRef<DependencyMiner.Message> replyTo;
+		int credits; // the number of batches that the reader may send in addition to the ones it has credits for
+	}
+
+	@NoArgsConstructor
+	private static class ContinueReadingMessage implements Message {
+		private static final long serialVersionUID = 3329409237740263162L;
 	}
 
 	////////////////////////
@@ -52,16 +61,41 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 
 	public static final String DEFAULT_NAME = "inputReader";
 
-	public static Behavior<Message> create(final int id, final File inputFile) {
-		return Behaviors.setup(context -> new InputReader(context, id, inputFile));
+	// A reader for one chunk of the input file, see InputConfiguration::splitIntoChunks; only the first chunk has a header.
+	public static Behavior<Message> create(final int id, final int chunk, final File inputFile, final long start, final long end) {
+		return Behaviors.setup(context -> new InputReader(context, id, chunk, 0, inputFile, start, end, 0, InputConfigurationSingleton.get(), false, null, null));
+	}
+
+	// A reader on a worker node that sends its batches through the given LargeMessageProxy to the miner's proxy.
+	// Distinct-only readers send every value of a column only once, see ColumnBatch. A replacement reader skips the
+	// first skipRecords records of its chunk, which the miner received from an earlier reader already.
+	public static Behavior<Message> create(final int id, final int chunk, final int attempt, final File inputFile, final long start, final long end,
+										   final long skipRecords, final InputConfiguration inputConfiguration, final boolean distinctOnly,
+										   final ActorRef<LargeMessageProxy.Message> largeMessageProxy, final ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy) {
+		return Behaviors.setup(context -> new InputReader(context, id, chunk, attempt, inputFile, start, end, skipRecords, inputConfiguration, distinctOnly, largeMessageProxy, dependencyMinerLargeMessageProxy));
 	}
 
-	private InputReader(ActorContext<Message> context, final int id, final File inputFile) throws IOException, CsvValidationException {
+	private InputReader(ActorContext<Message> context, final int id, final int chunk, final int attempt, final File inputFile, final long start, final long end,
+						final long skipRecords, final InputConfiguration inputConfiguration, final boolean distinctOnly,
+						final ActorRef<LargeMessageProxy.Message> largeMessageProxy, final ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy) throws IOException {
 		super(context);
 		this.id = id;
-		this.reader = InputConfigurationSingleton.get().createCSVReader(inputFile);
-		this.header = reader.readNext(); // read header
-		assert this.header != null : "Failed to read header of input file " + inputFile.getName();
+		this.chunk = chunk;
+		this.attempt = attempt;
+		this.sentValues = distinctOnly ? new ArrayList<>() : null;
+		this.largeMessageProxy = largeMessageProxy;
+		this.dependencyMinerLargeMessageProxy = dependencyMinerLargeMessageProxy;
+		this.reader = inputConfiguration.createRecordReader(inputFile, start, end);
+		if (chunk == 0) {
+			this.header = reader.readNext(); // read header
+			assert this.header != null : "Failed to read header of input file " + inputFile.getName();
+		} else {
+			this.header = null;
+		}
+		// skip the records that an earlier reader of this chunk delivered
+		for (long record = 0; record < skipRecords; record++)
+			if (this.reader.readNext() == null)
+				break;
 	}
 
 	/////////////////
@@ -69,10 +103,29 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 	/////////////////
 
 	private final int id;
-	private final int batchSize = DomainConfigurationSingleton.get().getInputReaderBatchSize();
-	private final CSVReader reader;
+	private final int chunk;
+	private final int attempt;
+	private final RecordReader reader;
+
+	// for distinct-only readers, the values of each column that were sent before
+	private final List<Set<String>> sentValues;
+	// remote readers send their batches through the large message proxies; these may reorder them, see BatchMessage
+	private final ActorRef<LargeMessageProxy.Message> largeMessageProxy;
+	private final ActorRef<LargeMessageProxy.Message> dependencyMinerLargeMessageProxy;
+	private int sequenceNumber = 0;
 	private final String[] header;
 
+	// the rows of the next batch, which adapts to the time it takes to read a batch
+	private int batchSize = DomainConfigurationSingleton.get().getInputReaderBatchSize();
+	private final int minBatchSize = DomainConfigurationSingleton.get().getInputReaderMinBatchSize();
+	private final int maxBatchSize = DomainConfigurationSingleton.get().getInputReaderMaxBatchSize();
+	private final long batchNanos = DomainConfigurationSingleton.get().getInputReaderBatchMillis() * 1000000L;
+
+	// the batches that the miner granted but that have not been sent yet
+	private int credits = 0;
+	private ActorRef<DependencyMiner.Message> replyTo;
+	private boolean finished = false;
+
 	////////////////////
 	// Actor Behavior //
 	////////////////////
@@ -82,6 +135,7 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 		return newReceiveBuilder()
 				.onMessage(ReadHeaderMessage.class, this::handle)
 				.onMessage(ReadBatchMessage.class, this::handle)
+				.onMessage(ContinueReadingMessage.class, this::handle)
 				.onSignal(PostStop.class, this::handle)
 				.build();
 	}
@@ -91,19 +145,55 @@ public class InputReader extends AbstractBehavior<InputReader.Message> {
 		return this;
 	}
 
-	private Behavior<Message> handle(ReadBatchMessage message) throws IOException, CsvValidationException {
-		List<String[]> batch = new ArrayList<>(this.batchSize);
+	private Behavior<Message> handle(ReadBatchMessage message) {
+		this.replyTo = message.getReplyTo();
+		if (this.credits == 0 && !this.finished)
+			this.getContext().getSelf().tell(new ContinueReadingMessage());
+		this.credits += message.getCredits();
+		return this;
+	}
+
+	// Reads one batch per message, so that new credits are not stuck behind a long run of reads
+	private Behavior<Message> handle(ContinueReadingMessage message) throws IOException {
+		long start = System.nanoTime();
+		ColumnBatch.Builder batch = new ColumnBatch.Builder(this.batchSize, this.sentValues);
 		for (int i = 0; i < this.batchSize; i++) {
 			String[] line = this.reader.readNext();
 			if (line == null)
 				break;
 			batch.add(line);
 		}
-
-		message.getReplyTo().tell(new DependencyMiner.BatchMessage(this.id, batch));
+		this.finished = batch.getNumRows() < this.batchSize; // the next batch would be empty anyway, which marks the end
+		if (batch.getNumRows() == this.batchSize)
+			this.adaptBatchSize(System.nanoTime() - start);
+
+		this.send(batch.build());
+		if (this.finished && batch.getNumRows() > 0) // the end marker needs no credit
+			this.send(new ColumnBatch.Builder(0).build());
+		if (this.finished)
+			this.reader.close();
+
+		this.credits--;
+		if (this.credits > 0 && !this.finished)
+			this.getContext().getSelf().tell(new ContinueReadingMessage());
 		return this;
 	}
 
+	private void send(ColumnBatch batch) {
+		DependencyMiner.BatchMessage message = new DependencyMiner.BatchMessage(this.id, this.chunk, this.attempt, this.sequenceNumber++, batch);
+		if (this.largeMessageProxy == null)
+			this.replyTo.tell(message);
+		else
+			this.largeMessageProxy.tell(new LargeMessageProxy.SendMessage(message, this.dependencyMinerLargeMessageProxy));
+	}
+
+	// Moves the batch size halfway towards the size that would have taken batchNanos to read
+	private void adaptBatchSize(long nanos) {
+		long target = this.batchSize * this.batchNanos / Math.max(1, nanos);
+		long size = (this.batchSize + Math.max(this.minBatchSize, Math.min(this.maxBatchSize, target))) / 2;
+		this.batchSize = (int) size;
+	}
+
 	private Behavior<Message> handle(PostStop signal) throws IOException {
 		this.reader.close();
 		return this;
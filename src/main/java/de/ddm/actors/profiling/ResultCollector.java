@@ -114,9 +114,9 @@ public class ResultCollector extends AbstractBehavior<ResultCollector.Message> {
 
 			this.csv_writer.writeNext(new String[]{
 				ind.getDependentTable(),
-				ind.getDependentColumn(),
+				String.join(",", ind.getDependentColumns()),
 				ind.getReferencedTable(),
-				ind.getReferencedColumn()});
+				String.join(",", ind.getReferencedColumns())});
 		}
 		this.txt_writer.flush();
 		this.csv_writer.flush();
@@ -19,6 +19,12 @@ public abstract class Command {
 	@Parameter(names = {"-w", "--numWorkers"}, description = "The number of workers (indexers/validators) to start locally; should be at least one if the algorithm is started standalone (otherwise there are no workers to run the discovery)", required = false)
 	int numWorkers = SystemConfigurationSingleton.get().getNumWorkers();
 
+	@Parameter(names = {"-vm", "--validationEngine"}, description = "The algorithm that the local workers use to validate IND candidates; one of HASH, SORT_MERGE", required = false)
+	SystemConfiguration.ValidationEngine validationEngine = SystemConfigurationSingleton.get().getValidationEngine();
+
+	@Parameter(names = {"-co", "--compression"}, description = "How large messages to other nodes are compressed; one of NONE, DEFLATE, LZ4; only messages that compress well are compressed", required = false)
+	SystemConfiguration.Compression compression = SystemConfigurationSingleton.get().getCompression();
+
 	public static void applyOn(String[] args) {
 		CommandMaster commandMaster = new CommandMaster();
 		CommandWorker commandWorker = new CommandWorker();
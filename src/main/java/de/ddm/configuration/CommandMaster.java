@@ -21,6 +21,39 @@ public class CommandMaster extends Command {
 	@Parameter(names = {"-hm", "--hardMode"}, description = "Solve the hard version of the task", required = false, arity = 1)
 	boolean hardMode = SystemConfigurationSingleton.get().isHardMode();
 
+	@Parameter(names = {"-me", "--miningEngine"}, description = "How the discovery is split into work for the workers; one of PAIRWISE (validate generated table pair tasks), SINDY (invert value-hash partitions of all columns at once)", required = false)
+	SystemConfiguration.MiningEngine miningEngine = SystemConfigurationSingleton.get().getMiningEngine();
+
+	@Parameter(names = {"-cc", "--columnCacheSize"}, description = "The budget in MiB of each worker's column cache, which saves re-sending columns that a worker already holds, beyond the columns of its current task", required = false)
+	int columnCacheSize = SystemConfigurationSingleton.get().getColumnCacheSize();
+
+	@Parameter(names = {"-tb", "--taskBudget"}, description = "The estimated worker heap in MiB that the distinct values of one task may take; larger columns are split into value-hash partitions", required = false)
+	int taskBudget = SystemConfigurationSingleton.get().getTaskBudget();
+
+	@Parameter(names = {"-tv", "--taskValueBudget"}, description = "The number of distinct values that one task may validate, which bounds its validation time", required = false)
+	int taskValueBudget = SystemConfigurationSingleton.get().getTaskValueBudget();
+
+	@Parameter(names = {"-tw", "--tasksPerWorker"}, description = "The number of tasks in flight per worker; with 2 or more, the next task is transferred while the current one is validated", required = false)
+	int tasksPerWorker = SystemConfigurationSingleton.get().getTasksPerWorker();
+
+	@Parameter(names = {"-rf", "--readersPerFile"}, description = "The maximum number of readers that parse chunks of one input file in parallel; files are only split into chunks of at least 8 MiB", required = false)
+	int readersPerFile = InputConfigurationSingleton.get().getReadersPerFile();
+
+	@Parameter(names = {"-oi", "--orderedIngestion"}, description = "Append the rows of a file's chunks in file order; if false, the rows of all chunks are appended as they arrive, which IND discovery does not care about", required = false, arity = 1)
+	boolean orderedIngestion = InputConfigurationSingleton.get().isOrderedIngestion();
+
+	@Parameter(names = {"-rc", "--readerCredits"}, description = "The number of batches that each reader may have in flight to the miner, so that reading overlaps with appending the rows; fewer are granted when the heap runs full", required = false)
+	int readerCredits = InputConfigurationSingleton.get().getReaderCredits();
+
+	@Parameter(names = {"-dr", "--distributedReading"}, description = "Parse the input files on the workers, preferably on remote ones, which must all see the input files under the same path; without hard mode, the workers send each column's distinct values only", required = false, arity = 1)
+	boolean distributedReading = InputConfigurationSingleton.get().isDistributedReading();
+
+	@Parameter(names = {"-mt", "--mappedTokenizer"}, description = "Parse the input files on their memory-mapped bytes instead of with opencsv, if the charset and value options allow it", required = false, arity = 1)
+	boolean mappedTokenizer = InputConfigurationSingleton.get().isMappedTokenizer();
+
+	@Parameter(names = {"-sn", "--snapshotPath"}, description = "A directory for binary columnar snapshots of the parsed input files; later runs load the snapshot of every input file whose size, modification time and parsing options did not change instead of parsing it; empty disables snapshots", required = false)
+	String snapshotPath = InputConfigurationSingleton.get().getSnapshotPath();
+
 	@Parameter(names = {"-fh", "--fileHasHeader"}, description = "File has header as defined by the input data", required = false, arity = 1)
 	boolean fileHasHeader = InputConfigurationSingleton.get().isFileHasHeader();
 
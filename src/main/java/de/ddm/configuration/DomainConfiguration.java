@@ -5,7 +5,12 @@ import lombok.Data;
 @Data
 public class DomainConfiguration {
 
+	// The size of each reader's first batch; later batches adapt to the reader's throughput, so that reading one
+	// batch takes about inputReaderBatchMillis
 	private final int inputReaderBatchSize = 10000;
+	private final int inputReaderMinBatchSize = 1000;
+	private final int inputReaderMaxBatchSize = 100000;
+	private final int inputReaderBatchMillis = 100;
 
 	private final String resultCollectorOutputFileName = "results";
 
@@ -6,14 +6,24 @@ import com.opencsv.CSVReader;
 import com.opencsv.CSVReaderBuilder;
 import com.opencsv.enums.CSVReaderNullFieldIndicator;
 import com.opencsv.exceptions.CsvValidationException;
+import de.ddm.structures.CsvTokenizer;
+import de.ddm.structures.RecordReader;
 import lombok.Data;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.IOException;
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Data
 public class InputConfiguration {
@@ -26,6 +36,15 @@ public class InputConfiguration {
 	private char valueEscape = '\\';
 	private boolean valueStrictQuotes = false;
 	private boolean valueIgnoreLeadingWhitespace = false;
+	private int readersPerFile = Runtime.getRuntime().availableProcessors(); // Large files are split into up to this many chunks that are parsed in parallel
+	private boolean orderedIngestion = true;        // Append the rows of a file's chunks in file order; IND discovery does not depend on the row order
+	private int readerCredits = 4;                  // The number of batches that a reader may read ahead of the DependencyMiner's requests
+	private boolean distributedReading = false;     // Read the chunks of the input files on the worker nodes, which all see the input files under the same path
+	private boolean mappedTokenizer = true;         // Parse with the memory-mapped CsvTokenizer instead of opencsv where the charset and value options allow it
+	private String snapshotPath = "";               // Directory of binary columnar snapshots of the parsed input files; empty disables snapshots
+
+	// Files are only split into chunks of at least this size, because every reader costs an actor and a file handle
+	private static final long MIN_CHUNK_SIZE = 8 * 1024 * 1024;
 
 	public void update(CommandMaster commandMaster) {
 		this.fileHasHeader = commandMaster.fileHasHeader;
@@ -35,6 +54,36 @@ public class InputConfiguration {
 		this.valueEscape = commandMaster.attributeEscape;
 		this.valueStrictQuotes = commandMaster.attributeStrictQuotes;
 		this.valueIgnoreLeadingWhitespace = commandMaster.attributeIgnoreLeadingWhitespace;
+		this.readersPerFile = commandMaster.readersPerFile;
+		this.orderedIngestion = commandMaster.orderedIngestion;
+		this.readerCredits = commandMaster.readerCredits;
+		this.mappedTokenizer = commandMaster.mappedTokenizer;
+		this.distributedReading = commandMaster.distributedReading;
+		this.snapshotPath = commandMaster.snapshotPath;
+	}
+
+	public boolean hasSnapshots() {
+		return !this.snapshotPath.isEmpty();
+	}
+
+	public File getSnapshotFile(File inputFile) {
+		return new File(this.snapshotPath, inputFile.getName() + ".columns");
+	}
+
+	// Identifies the parsed content of the given file: its path, size and modification time, and all options that
+	// change how it is parsed. A snapshot is only valid for the fingerprint it was saved with.
+	public String getFingerprint(File inputFile) {
+		String key = inputFile.getAbsolutePath() + "|" + inputFile.length() + "|" + inputFile.lastModified() + "|"
+				+ this.fileHasHeader + "|" + this.charset.name() + "|" + this.valueSeparator + "|" + this.valueQuote + "|"
+				+ this.valueEscape + "|" + this.valueStrictQuotes + "|" + this.valueIgnoreLeadingWhitespace;
+		try {
+			StringBuilder fingerprint = new StringBuilder();
+			for (byte b : MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8)))
+				fingerprint.append(String.format("%02x", b));
+			return fingerprint.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e); // every JVM supports SHA-256
+		}
 	}
 
 	public File[] getInputFiles() {
@@ -55,6 +104,185 @@ public class InputConfiguration {
 		return new CSVReaderBuilder(buffer).withCSVParser(parser).build();
 	}
 
+	// A reader for the records in the given byte range, see splitIntoChunks.
+	public CSVReader createCSVReader(File inputFile, long start, long end) throws IOException {
+		CSVParser parser = new CSVParserBuilder()
+				.withSeparator(this.valueSeparator)
+				.withQuoteChar(this.valueQuote)
+				.withEscapeChar(this.valueEscape)
+				.withStrictQuotes(this.valueStrictQuotes)
+				.withIgnoreLeadingWhiteSpace(this.valueIgnoreLeadingWhitespace)
+				.withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
+				.build();
+
+		FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ).position(start);
+		InputStream range = new RangeInputStream(Channels.newInputStream(channel), end - start);
+		BufferedReader buffer = new BufferedReader(new InputStreamReader(range, this.charset), 1 << 16);
+		return new CSVReaderBuilder(buffer).withCSVParser(parser).build();
+	}
+
+	// A reader for the records in the given byte range: the CsvTokenizer if it is enabled and supports the
+	// configured charset and value options, opencsv otherwise.
+	public RecordReader createRecordReader(File inputFile, long start, long end) throws IOException {
+		if (this.mappedTokenizer && !this.valueIgnoreLeadingWhitespace
+				&& CsvTokenizer.supports(this.charset, this.valueSeparator, this.valueQuote, this.valueEscape))
+			return new CsvTokenizer(inputFile, start, end, this.charset, this.valueSeparator, this.valueQuote, this.valueEscape, this.valueStrictQuotes);
+
+		CSVReader reader = this.createCSVReader(inputFile, start, end);
+		return new RecordReader() {
+			@Override
+			public String[] readNext() throws IOException {
+				try {
+					return reader.readNext();
+				} catch (CsvValidationException e) {
+					throw new IOException(e);
+				}
+			}
+
+			@Override
+			public void close() throws IOException {
+				reader.close();
+			}
+		};
+	}
+
+	// Splits the given file into up to readersPerFile byte ranges that each start and end at a record boundary,
+	// i.e. at a line break outside of quotes. A line break inside of a quoted value looks like any other, so whether
+	// an offset lies inside of quotes depends on all bytes before it and a scan cannot resync after a seek. Instead,
+	// the segments between the targeted offsets are scanned in parallel on the given executor, once for each quote
+	// state that a segment may start in, and the states are chained afterwards. The scans only look at the raw bytes,
+	// which is much cheaper than parsing; charsets in which the separator bytes may occur inside of other characters
+	// are not split.
+	//
+	// Returns the boundaries of the chunks, i.e. chunk i spans the bytes [boundaries[i], boundaries[i + 1])
+	public CompletableFuture<long[]> splitIntoChunks(File inputFile, Executor executor) {
+		long size = inputFile.length();
+		int numChunks = (int) Math.max(1, Math.min(this.readersPerFile, size / MIN_CHUNK_SIZE));
+		if (numChunks == 1 || !(this.charset.equals(StandardCharsets.UTF_8) || this.charset.newEncoder().maxBytesPerChar() == 1))
+			return CompletableFuture.completedFuture(new long[]{0, size});
+
+		// segment i ends right before the line break of the earliest possible boundary i + 1
+		List<CompletableFuture<SegmentScan>> scans = new ArrayList<>(numChunks);
+		for (int segment = 0; segment < numChunks; segment++) {
+			long from = Math.max(0, segment * size / numChunks - 1);
+			long to = segment + 1 == numChunks ? size : (segment + 1) * size / numChunks - 1;
+			scans.add(CompletableFuture.supplyAsync(() -> this.scanSegment(inputFile, from, to), executor));
+		}
+
+		return CompletableFuture.allOf(scans.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+			long[] boundaries = new long[numChunks + 1];
+			int chunk = 1;
+			int state = scans.get(0).join().endStates[UNQUOTED];
+			for (int segment = 1; segment < numChunks; segment++) {
+				SegmentScan scan = scans.get(segment).join();
+				// segments without a record boundary, i.e. within a huge record, merge their chunk into the previous one
+				if (scan.boundaries[state] != -1 && scan.boundaries[state] < size)
+					boundaries[chunk++] = scan.boundaries[state];
+				state = scan.endStates[state];
+			}
+
+			long[] result = Arrays.copyOf(boundaries, chunk + 1);
+			result[chunk] = size;
+			return result;
+		});
+	}
+
+	// The quote states of the scan in splitIntoChunks, which follow CsvTokenizer and opencsv: an escape character
+	// escapes the next character inside of quotes, and a quote or escape character outside of quotes unless the quotes
+	// are strict. Other escaped characters are kept, but they do not change the quote state either.
+	private static final int UNQUOTED = 0;
+	private static final int QUOTED = 1;
+	private static final int ESCAPED = 2;
+	private static final int UNQUOTED_ESCAPED = 3;
+
+	// For each quote state at the start of a segment, the state at its end and the first record boundary in it, or -1
+	private static class SegmentScan {
+		final int[] endStates = {UNQUOTED, QUOTED, ESCAPED, UNQUOTED_ESCAPED};
+		final long[] boundaries = {-1, -1, -1, -1};
+	}
+
+	private SegmentScan scanSegment(File inputFile, long from, long to) {
+		SegmentScan scan = new SegmentScan();
+		int[] states = scan.endStates;
+		byte[] buffer = new byte[1 << 20];
+		try (RandomAccessFile file = new RandomAccessFile(inputFile, "r")) {
+			file.seek(from);
+			long position = from;
+			while (position < to) {
+				int read = file.read(buffer, 0, (int) Math.min(buffer.length, to - position));
+				if (read == -1)
+					break; // the file was truncated meanwhile; its reader will notice
+				for (int i = 0; i < read; i++) {
+					int b = buffer[i] & 0xFF;
+					for (int start = 0; start < states.length; start++) {
+						int state = states[start];
+						if (state == UNQUOTED_ESCAPED) {
+							state = states[start] = UNQUOTED;
+							if (b == this.valueQuote || b == this.valueEscape)
+								continue; // a line break after the escape character still ends the record
+						}
+						if (state == ESCAPED)
+							states[start] = QUOTED;
+						else if (b == this.valueEscape && this.valueEscape != this.valueQuote && state == QUOTED)
+							states[start] = ESCAPED;
+						else if (b == this.valueEscape && this.valueEscape != this.valueQuote && !this.valueStrictQuotes)
+							states[start] = UNQUOTED_ESCAPED;
+						else if (b == this.valueQuote)
+							states[start] = state == QUOTED ? UNQUOTED : QUOTED; // a doubled quote inside of quotes toggles twice
+						else if (b == '\n' && state == UNQUOTED && scan.boundaries[start] == -1)
+							scan.boundaries[start] = position + i + 1;
+					}
+				}
+				position += read;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return scan;
+	}
+
+	// The bytes of an underlying stream up to the given limit
+	private static class RangeInputStream extends FilterInputStream {
+		private long remaining;
+
+		RangeInputStream(InputStream input, long limit) {
+			super(input);
+			this.remaining = limit;
+		}
+
+		@Override
+		public int read() throws IOException {
+			if (this.remaining <= 0)
+				return -1;
+			int b = super.read();
+			if (b != -1)
+				this.remaining--;
+			return b;
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) throws IOException {
+			if (this.remaining <= 0)
+				return -1;
+			int read = super.read(buffer, offset, (int) Math.min(length, this.remaining));
+			if (read > 0)
+				this.remaining -= read;
+			return read;
+		}
+
+		@Override
+		public long skip(long n) throws IOException {
+			long skipped = super.skip(Math.min(n, this.remaining));
+			this.remaining -= skipped;
+			return skipped;
+		}
+
+		@Override
+		public int available() throws IOException {
+			return (int) Math.min(super.available(), this.remaining);
+		}
+	}
+
 	public String[] getHeader(File inputFile) throws IOException, CsvValidationException {
 		CSVReader reader = this.createCSVReader(inputFile);
 
@@ -16,6 +16,22 @@ public class SystemConfiguration {
 	public static final int DEFAULT_MASTER_PORT = 7877;
 	public static final int DEFAULT_WORKER_PORT = 7879;
 
+	public enum ValidationEngine {
+		HASH,                                          // HashSet::containsAll for every column pair
+		SORT_MERGE                                     // one SPIDER-style merge sweep over the sorted columns of a task
+	}
+
+	public enum MiningEngine {
+		PAIRWISE,                                      // validate the column pairs of generated Tasks on the workers
+		SINDY                                          // invert value-hash partitions into value -> attribute sets on the workers
+	}
+
+	public enum Compression {
+		NONE,                                          // send large messages as they are serialized
+		DEFLATE,                                       // the JDK's Deflater: better ratios, more CPU
+		LZ4                                            // a fast LZ-style codec for fast links
+	}
+
 	private String role = MASTER_ROLE;                 // This machine's role in the cluster.
 
 	private String host = getDefaultHost();            // This machine's host name or IP that we use to bind this application against
@@ -32,6 +48,20 @@ public class SystemConfiguration {
 
 	private boolean hardMode = false;					// Solve the hard version of the task
 
+	private ValidationEngine validationEngine = ValidationEngine.SORT_MERGE; // The algorithm that DependencyWorkers use to check their tasks
+
+	private MiningEngine miningEngine = MiningEngine.PAIRWISE; // How the DependencyMiner splits the discovery into work for the DependencyWorkers
+
+	private int columnCacheSize = 128;                 // The budget in MiB of each DependencyWorker's column cache
+
+	private int taskBudget = 60;                       // The estimated worker heap in MiB that the distinct values of one Task may take
+
+	private int taskValueBudget = 1000000;             // The number of distinct values that one Task may validate
+
+	private Compression compression = Compression.NONE; // How the LargeMessageProxies compress the large messages that they send to other nodes
+
+	private int tasksPerWorker = 2;                    // The number of tasks in flight per DependencyWorker, so that the next task transfers while the current one is validated
+
 	private static String getDefaultHost() {
 		try {
 			return InetAddress.getLocalHost().getHostAddress();
@@ -49,6 +79,13 @@ public class SystemConfiguration {
 		this.numWorkers = commandMaster.numWorkers;
 		this.startPaused = commandMaster.startPaused;
 		this.hardMode = commandMaster.hardMode;
+		this.validationEngine = commandMaster.validationEngine;
+		this.miningEngine = commandMaster.miningEngine;
+		this.columnCacheSize = commandMaster.columnCacheSize;
+		this.taskBudget = commandMaster.taskBudget;
+		this.taskValueBudget = commandMaster.taskValueBudget;
+		this.tasksPerWorker = commandMaster.tasksPerWorker;
+		this.compression = commandMaster.compression;
 	}
 
 	public void update(CommandWorker commandWorker) {
@@ -58,6 +95,8 @@ public class SystemConfiguration {
 		this.masterHost = commandWorker.masterhost;
 		this.masterPort = commandWorker.masterport;
 		this.numWorkers = commandWorker.numWorkers;
+		this.validationEngine = commandWorker.validationEngine;
+		this.compression = commandWorker.compression;
 	}
 
 	public Config toAkkaConfig() {
@@ -0,0 +1,188 @@
+package de.ddm.serialization;
+
+import de.ddm.configuration.SystemConfiguration.Compression;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Compresses serialized large messages in independent blocks, so that the receiver can decompress every block as
+// soon as it arrived and pass it on to a streaming decoder. A block is the varint length of its compressed bytes,
+// or 0 if it is stored uncompressed because it did not shrink, the varint length of its raw bytes, and its bytes.
+public final class BlockCompression {
+
+	public static final int BLOCK_SIZE = 1 << 20;
+
+	private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+	private BlockCompression() {
+	}
+
+	public static byte[] compress(Compression compression, byte[] bytes) {
+		return compress(compression, bytes, bytes.length);
+	}
+
+	// Returns the blocks of the first length bytes
+	public static byte[] compress(Compression compression, byte[] bytes, int length) {
+		int numBlocks = (length + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		byte[] compressed = new byte[length + 10 * numBlocks];
+		byte[] block = new byte[maxCompressedLength(compression, Math.min(length, BLOCK_SIZE))];
+		Deflater deflater = compression == Compression.DEFLATE ? new Deflater() : null;
+		LZ4Compressor lz4 = compression == Compression.LZ4 ? LZ4.fastCompressor() : null;
+
+		int position = 0;
+		for (int start = 0; start < length; start += BLOCK_SIZE) {
+			int rawLength = Math.min(BLOCK_SIZE, length - start);
+			int blockLength;
+			if (deflater != null) {
+				deflater.reset();
+				deflater.setInput(bytes, start, rawLength);
+				deflater.finish();
+				blockLength = deflater.deflate(block, 0, block.length);
+				if (!deflater.finished())
+					blockLength = rawLength;
+			} else if (lz4 != null) {
+				blockLength = lz4.compress(bytes, start, rawLength, block, 0, block.length);
+			} else {
+				blockLength = rawLength;
+			}
+
+			boolean stored = blockLength >= rawLength;
+			position = writeVarint(compressed, position, stored ? 0 : blockLength);
+			position = writeVarint(compressed, position, rawLength);
+			System.arraycopy(stored ? bytes : block, stored ? start : 0, compressed, position, stored ? rawLength : blockLength);
+			position += stored ? rawLength : blockLength;
+		}
+		if (deflater != null)
+			deflater.end();
+		return Arrays.copyOf(compressed, position);
+	}
+
+	// Returns the compressed size of the first length bytes relative to their raw size
+	public static double ratio(Compression compression, byte[] bytes, int length) {
+		return length == 0 ? 1 : compress(compression, bytes, length).length / (double) length;
+	}
+
+	private static int maxCompressedLength(Compression compression, int length) {
+		return compression == Compression.LZ4 ? LZ4.fastCompressor().maxCompressedLength(length) : length;
+	}
+
+	private static int writeVarint(byte[] bytes, int position, int value) {
+		while ((value & ~0x7F) != 0) {
+			bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[position++] = (byte) value;
+		return position;
+	}
+
+	// Decompresses the blocks as their bytes arrive and passes the decompressed bytes on to the given decoder.
+	public static class Decompressor implements StreamingDeserializer.Decoder {
+		private final Compression compression;
+		private final StreamingDeserializer.Decoder decoder;
+		private final LZ4FastDecompressor lz4 = LZ4.fastDecompressor();
+		private final Inflater inflater = new Inflater();
+
+		// the current block, as far as it arrived
+		private byte[] pending = new byte[1024];
+		private int pendingLength = 0;
+		private byte[] block = new byte[0];
+		private long nanos = 0;
+
+		public Decompressor(Compression compression, StreamingDeserializer.Decoder decoder) {
+			this.compression = compression;
+			this.decoder = decoder;
+		}
+
+		@Override
+		public void decode(byte[] bytes, int offset, int length) {
+			int end = offset + length;
+			while (offset < end) {
+				int blockEnd = this.blockEnd();
+				int take = blockEnd < 0 ? 1 : Math.min(blockEnd - this.pendingLength, end - offset);
+				if (this.pendingLength + take > this.pending.length)
+					this.pending = Arrays.copyOf(this.pending, Math.max(2 * this.pending.length, this.pendingLength + take));
+				System.arraycopy(bytes, offset, this.pending, this.pendingLength, take);
+				this.pendingLength += take;
+				offset += take;
+
+				if (blockEnd >= 0 && this.pendingLength == blockEnd) {
+					this.decompressBlock();
+					this.pendingLength = 0;
+				}
+			}
+		}
+
+		// The end of the pending block or -1 if its header is incomplete
+		private int blockEnd() {
+			int[] header = this.readHeader();
+			if (header == null)
+				return -1;
+			return header[2] + (header[0] == 0 ? header[1] : header[0]);
+		}
+
+		// The compressed length, raw length and start of the pending block's bytes
+		private int[] readHeader() {
+			int[] header = new int[3];
+			int position = 0;
+			for (int field = 0; field < 2; field++) {
+				int value = 0;
+				for (int shift = 0; ; shift += 7) {
+					if (position == this.pendingLength)
+						return null;
+					byte b = this.pending[position++];
+					value |= (b & 0x7F) << shift;
+					if (b >= 0)
+						break;
+				}
+				header[field] = value;
+			}
+			header[2] = position;
+			return header;
+		}
+
+		// Returns the time spent on decompression, without the time of the decoder
+		public long getNanos() {
+			return this.nanos;
+		}
+
+		private void decompressBlock() {
+			int[] header = this.readHeader();
+			int compressedLength = header[0];
+			int rawLength = header[1];
+			int start = header[2];
+			if (compressedLength == 0) {
+				this.decoder.decode(this.pending, start, rawLength);
+				return;
+			}
+
+			long startTime = System.nanoTime();
+			if (this.block.length < rawLength)
+				this.block = new byte[rawLength];
+			if (this.compression == Compression.LZ4) {
+				this.lz4.decompress(this.pending, start, this.block, 0, rawLength);
+			} else {
+				this.inflater.reset();
+				this.inflater.setInput(this.pending, start, compressedLength);
+				try {
+					if (this.inflater.inflate(this.block, 0, rawLength) != rawLength)
+						throw new IllegalStateException("Truncated deflate block");
+				} catch (DataFormatException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+			this.nanos += System.nanoTime() - startTime;
+			this.decoder.decode(this.block, 0, rawLength);
+		}
+
+		@Override
+		public Object result() {
+			this.inflater.end();
+			return this.decoder.result();
+		}
+	}
+}
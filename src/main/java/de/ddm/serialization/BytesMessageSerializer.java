@@ -0,0 +1,66 @@
+package de.ddm.serialization;
+
+import akka.serialization.ByteBufferSerializer;
+import akka.serialization.SerializerWithStringManifest;
+import de.ddm.actors.patterns.LargeMessageProxy;
+
+import java.nio.ByteBuffer;
+
+// Serializes the chunks of the LargeMessageProxy. A BytesMessage on the sender is a view on the whole serialized
+// large message, so only its chunk is written, and as a ByteBufferSerializer it is written directly into Artery's
+// send buffer instead of into an intermediate array.
+public class BytesMessageSerializer extends SerializerWithStringManifest implements ByteBufferSerializer {
+
+	private static final String BYTES_MESSAGE = "B";
+
+	// keys, offset, length and send time
+	private static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+	@Override
+	public int identifier() {
+		return 1947;
+	}
+
+	@Override
+	public String manifest(Object message) {
+		if (message instanceof LargeMessageProxy.BytesMessage)
+			return BYTES_MESSAGE;
+		throw new IllegalArgumentException("Cannot serialize " + message.getClass());
+	}
+
+	@Override
+	public byte[] toBinary(Object message) {
+		LargeMessageProxy.BytesMessage bytesMessage = (LargeMessageProxy.BytesMessage) message;
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + bytesMessage.getLength());
+		this.toBinary(message, buffer);
+		return buffer.array();
+	}
+
+	@Override
+	public void toBinary(Object message, ByteBuffer buffer) {
+		LargeMessageProxy.BytesMessage bytesMessage = (LargeMessageProxy.BytesMessage) message;
+		buffer.putInt(bytesMessage.getSenderTransmissionKey());
+		buffer.putInt(bytesMessage.getReceiverTransmissionKey());
+		buffer.putInt(bytesMessage.getOffset());
+		buffer.putInt(bytesMessage.getLength());
+		buffer.putLong(bytesMessage.getSendTime());
+		buffer.put(bytesMessage.getBytes(), bytesMessage.getStart(), bytesMessage.getLength());
+	}
+
+	@Override
+	public Object fromBinary(byte[] bytes, String manifest) {
+		return this.fromBinary(ByteBuffer.wrap(bytes), manifest);
+	}
+
+	@Override
+	public Object fromBinary(ByteBuffer buffer, String manifest) {
+		int senderTransmissionKey = buffer.getInt();
+		int receiverTransmissionKey = buffer.getInt();
+		int offset = buffer.getInt();
+		int length = buffer.getInt();
+		long sendTime = buffer.getLong();
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new LargeMessageProxy.BytesMessage(bytes, 0, senderTransmissionKey, receiverTransmissionKey, offset, length, sendTime);
+	}
+}
@@ -0,0 +1,595 @@
+package de.ddm.serialization;
+
+import akka.actor.ExtendedActorSystem;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.ActorRefResolver;
+import akka.actor.typed.javadsl.Adapter;
+import akka.serialization.SerializerWithStringManifest;
+import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.actors.profiling.DependencyMiner;
+import de.ddm.actors.profiling.DependencyWorker;
+import de.ddm.structures.ColumnBatch;
+import de.ddm.structures.ColumnId;
+import de.ddm.structures.InclusionDependency;
+import de.ddm.structures.Task;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.io.NotSerializableException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+// A hand-written binary serializer for the profiling messages that carry column data and results, see the
+// serialization-bindings in application.conf; all other messages stay with jackson-cbor. A serialized message
+// starts with a table of the names that it mentions, i.e. tables, columns and actor references, each a varint
+// length followed by its UTF-8 bytes, and the body refers to these names by varint ids. The values of batches are
+// written in place, because they hardly repeat within a message, and all numbers are varints.
+//
+// TaskMessages and SindyColumnMessages carry no values but the ascending global ids of the values, see IdDictionary,
+// and they are streamed: the names and the rest of the message form a header, which announces the lengths of the id
+// arrays and is prefixed by its length, and the ids of all arrays follow it, each as the varint difference to its
+// predecessor in the array. So the LargeMessageProxy can decode every id into its array as soon as its bytes
+// arrive, see decoder.
+public class ProfilingSerializer extends SerializerWithStringManifest implements StreamingDeserializer {
+
+	private static final String TASK_MESSAGE = "T";
+	private static final String COMPLETION_MESSAGE = "C";
+	private static final String BATCH_MESSAGE = "B";
+	private static final String SINDY_COLUMN_MESSAGE = "S";
+
+	private final ActorRefResolver actorRefResolver;
+
+	public ProfilingSerializer(ExtendedActorSystem system) {
+		this.actorRefResolver = ActorRefResolver.get(Adapter.toTyped(system));
+	}
+
+	@Override
+	public int identifier() {
+		return 1946;
+	}
+
+	@Override
+	public String manifest(Object message) {
+		if (message instanceof DependencyWorker.TaskMessage)
+			return TASK_MESSAGE;
+		if (message instanceof DependencyMiner.CompletionMessage)
+			return COMPLETION_MESSAGE;
+		if (message instanceof DependencyMiner.BatchMessage)
+			return BATCH_MESSAGE;
+		if (message instanceof DependencyWorker.SindyColumnMessage)
+			return SINDY_COLUMN_MESSAGE;
+		throw new IllegalArgumentException("Cannot serialize " + message.getClass());
+	}
+
+	@Override
+	public byte[] toBinary(Object message) {
+		Writer writer = new Writer(message instanceof DependencyWorker.TaskMessage || message instanceof DependencyWorker.SindyColumnMessage);
+		if (message instanceof DependencyWorker.TaskMessage)
+			this.writeTaskMessage(writer, (DependencyWorker.TaskMessage) message);
+		else if (message instanceof DependencyMiner.CompletionMessage)
+			this.writeCompletionMessage(writer, (DependencyMiner.CompletionMessage) message);
+		else if (message instanceof DependencyMiner.BatchMessage)
+			this.writeBatchMessage(writer, (DependencyMiner.BatchMessage) message);
+		else if (message instanceof DependencyWorker.SindyColumnMessage)
+			this.writeSindyColumnMessage(writer, (DependencyWorker.SindyColumnMessage) message);
+		else
+			throw new IllegalArgumentException("Cannot serialize " + message.getClass());
+		return writer.toByteArray();
+	}
+
+	@Override
+	public Object fromBinary(byte[] bytes, String manifest) throws NotSerializableException {
+		switch (manifest) {
+			case TASK_MESSAGE:
+			case SINDY_COLUMN_MESSAGE:
+				Decoder decoder = this.decoder(manifest);
+				decoder.decode(bytes, 0, bytes.length);
+				return decoder.result();
+			case COMPLETION_MESSAGE:
+				return this.readCompletionMessage(new Reader(bytes, 0));
+			case BATCH_MESSAGE:
+				return this.readBatchMessage(new Reader(bytes, 0));
+			default:
+				throw new NotSerializableException("Unknown manifest " + manifest);
+		}
+	}
+
+	@Override
+	public Decoder decoder(String manifest) {
+		switch (manifest) {
+			case TASK_MESSAGE:
+				return new ValueStreamDecoder(this::readTaskMessage);
+			case SINDY_COLUMN_MESSAGE:
+				return new ValueStreamDecoder(this::readSindyColumnMessage);
+			default:
+				return null;
+		}
+	}
+
+	////////////////////
+	// Message layout //
+	////////////////////
+
+	private void writeTaskMessage(Writer writer, DependencyWorker.TaskMessage message) {
+		this.writeActorRef(writer, message.getDependencyMinerLargeMessageProxy());
+		writer.writeInt(message.getTaskId());
+		writer.writeInt(message.getSequenceNumber());
+
+		Task task = message.getTask();
+		writer.writeString(task.getTableNameA());
+		writer.writeString(task.getTableNameB());
+		writer.writeStrings(task.getColumnNamesA());
+		writer.writeStrings(task.getColumnNamesB());
+		writer.writeInt(task.getPartition());
+		writer.writeInt(task.getNumPartitions());
+		writer.writeInt(task.getCandidates() == null ? 0 : task.getCandidates().size() + 1);
+		if (task.getCandidates() != null)
+			writeInclusionDependencies(writer, task.getCandidates());
+
+		writeColumns(writer, message.getDistinctValuesA());
+		writeColumns(writer, message.getDistinctValuesB());
+		writer.writeInt(message.getEvictedColumns().size());
+		for (ColumnId column : message.getEvictedColumns()) {
+			writer.writeString(column.getTableName());
+			writer.writeString(column.getColumnName());
+		}
+	}
+
+	private DependencyWorker.TaskMessage readTaskMessage(Reader reader) {
+		ActorRef<LargeMessageProxy.Message> proxy = this.readActorRef(reader);
+		int taskId = reader.readInt();
+		int sequenceNumber = reader.readInt();
+
+		String tableNameA = reader.readString();
+		String tableNameB = reader.readString();
+		List<String> columnNamesA = reader.readStringList();
+		List<String> columnNamesB = reader.readStringList();
+		int partition = reader.readInt();
+		int numPartitions = reader.readInt();
+		int numCandidates = reader.readInt() - 1;
+		List<InclusionDependency> candidates = numCandidates < 0 ? null : readInclusionDependencies(reader, numCandidates);
+		Task task = new Task(tableNameA, tableNameB, columnNamesA, columnNamesB, partition, numPartitions, candidates);
+
+		Map<String, int[]> distinctValuesA = readColumns(reader);
+		Map<String, int[]> distinctValuesB = readColumns(reader);
+		int numEvicted = reader.readInt();
+		List<ColumnId> evictedColumns = new ArrayList<>(numEvicted);
+		for (int i = 0; i < numEvicted; i++)
+			evictedColumns.add(new ColumnId(reader.readString(), reader.readString()));
+
+		return new DependencyWorker.TaskMessage(proxy, taskId, sequenceNumber, task, distinctValuesA, distinctValuesB, evictedColumns);
+	}
+
+	private void writeCompletionMessage(Writer writer, DependencyMiner.CompletionMessage message) {
+		this.writeActorRef(writer, message.getDependencyWorker());
+		writer.writeInt(message.getTaskId());
+		writer.writeInt(message.getInclusionDependencies().size());
+		writeInclusionDependencies(writer, message.getInclusionDependencies());
+	}
+
+	private DependencyMiner.CompletionMessage readCompletionMessage(Reader reader) {
+		ActorRef<DependencyWorker.Message> worker = this.readActorRef(reader);
+		int taskId = reader.readInt();
+		List<InclusionDependency> inclusionDependencies = readInclusionDependencies(reader, reader.readInt());
+		return new DependencyMiner.CompletionMessage(worker, taskId, inclusionDependencies);
+	}
+
+	private void writeBatchMessage(Writer writer, DependencyMiner.BatchMessage message) {
+		writer.writeInt(message.getId());
+		writer.writeInt(message.getChunk());
+		writer.writeInt(message.getAttempt());
+		writer.writeInt(message.getSequenceNumber());
+
+		ColumnBatch batch = message.getBatch();
+		writer.writeInt(batch.getNumRows());
+		writer.writeInt(batch.getNumColumns());
+		writer.writeInt(batch.isDistinctOnly() ? 1 : 0);
+		for (int column = 0; column < batch.getNumColumns(); column++) {
+			writer.writeValues(batch.getDictionaries()[column]);
+			if (!batch.isDistinctOnly())
+				for (int code : batch.getCodes()[column])
+					writer.writeInt(code);
+		}
+	}
+
+	private DependencyMiner.BatchMessage readBatchMessage(Reader reader) {
+		int id = reader.readInt();
+		int chunk = reader.readInt();
+		int attempt = reader.readInt();
+		int sequenceNumber = reader.readInt();
+
+		int numRows = reader.readInt();
+		int numColumns = reader.readInt();
+		boolean distinctOnly = reader.readInt() == 1;
+		String[][] dictionaries = new String[numColumns][];
+		int[][] codes = distinctOnly ? null : new int[numColumns][];
+		for (int column = 0; column < numColumns; column++) {
+			dictionaries[column] = reader.readValueArray();
+			if (distinctOnly)
+				continue;
+			codes[column] = new int[numRows];
+			for (int row = 0; row < numRows; row++)
+				codes[column][row] = reader.readInt();
+		}
+		return new DependencyMiner.BatchMessage(id, chunk, attempt, sequenceNumber, new ColumnBatch(numRows, dictionaries, codes));
+	}
+
+	private void writeSindyColumnMessage(Writer writer, DependencyWorker.SindyColumnMessage message) {
+		this.writeActorRef(writer, message.getDependencyMinerLargeMessageProxy());
+		writer.writeInt(message.getPartition());
+		writer.writeInt(message.getColumn());
+		writer.writeInt(message.getNumColumns());
+		writer.streamIds(message.getValues());
+	}
+
+	private DependencyWorker.SindyColumnMessage readSindyColumnMessage(Reader reader) {
+		ActorRef<LargeMessageProxy.Message> proxy = this.readActorRef(reader);
+		int partition = reader.readInt();
+		int column = reader.readInt();
+		int numColumns = reader.readInt();
+		return new DependencyWorker.SindyColumnMessage(proxy, partition, column, numColumns, reader.readStreamedIds());
+	}
+
+	private void writeActorRef(Writer writer, ActorRef<?> actorRef) {
+		writer.writeString(this.actorRefResolver.toSerializationFormat(actorRef));
+	}
+
+	private <T> ActorRef<T> readActorRef(Reader reader) {
+		return this.actorRefResolver.resolveActorRef(reader.readString());
+	}
+
+	private static void writeColumns(Writer writer, Map<String, int[]> columns) {
+		writer.writeInt(columns.size());
+		columns.forEach((column, ids) -> {
+			writer.writeString(column);
+			writer.streamIds(ids);
+		});
+	}
+
+	private static Map<String, int[]> readColumns(Reader reader) {
+		int numColumns = reader.readInt();
+		Map<String, int[]> columns = new HashMap<>();
+		for (int i = 0; i < numColumns; i++)
+			columns.put(reader.readString(), reader.readStreamedIds());
+		return columns;
+	}
+
+	private static void writeInclusionDependencies(Writer writer, List<InclusionDependency> inclusionDependencies) {
+		for (InclusionDependency ind : inclusionDependencies) {
+			writer.writeString(ind.getDependentTable());
+			writer.writeString(ind.getReferencedTable());
+			writer.writeStrings(ind.getDependentColumns());
+			writer.writeStrings(ind.getReferencedColumns());
+		}
+	}
+
+	private static List<InclusionDependency> readInclusionDependencies(Reader reader, int size) {
+		List<InclusionDependency> inclusionDependencies = new ArrayList<>(size);
+		for (int i = 0; i < size; i++)
+			inclusionDependencies.add(new InclusionDependency(reader.readString(), reader.readString(), reader.readStringList(), reader.readStringList()));
+		return inclusionDependencies;
+	}
+
+	///////////////////
+	// Binary format //
+	///////////////////
+
+	// Writes the body while collecting the string table of names, which goes in front of it; streamed ids go
+	// into a separate buffer behind the body
+	private static class Writer {
+		private final Object2IntOpenHashMap<String> stringIds = new Object2IntOpenHashMap<>();
+		private final List<String> strings = new ArrayList<>();
+		private final Buffer body = new Buffer();
+		private final Buffer values;
+
+		Writer(boolean streamed) {
+			this.values = streamed ? new Buffer() : null;
+		}
+
+		// Names repeat, so they are written as their ids in the string table: 0 is null, the table's strings are 1 to n
+		void writeString(String value) {
+			if (value == null) {
+				this.writeInt(0);
+				return;
+			}
+			int id = this.stringIds.getInt(value);
+			if (id == 0) {
+				this.strings.add(value);
+				id = this.strings.size();
+				this.stringIds.put(value, id);
+			}
+			this.writeInt(id);
+		}
+
+		void writeStrings(Collection<String> values) {
+			this.writeInt(values.size());
+			for (String value : values)
+				this.writeString(value);
+		}
+
+		void writeValues(String[] values) {
+			this.writeInt(values.length);
+			for (String value : values)
+				this.body.writeValue(value);
+		}
+
+		// The body only announces the number of ids; as the ids ascend, their differences are small varints
+		void streamIds(int[] ids) {
+			this.writeInt(ids.length);
+			int previous = 0;
+			for (int id : ids) {
+				this.values.writeInt(id - previous);
+				previous = id;
+			}
+		}
+
+		void writeInt(int value) {
+			this.body.writeInt(value);
+		}
+
+		byte[] toByteArray() {
+			byte[][] encoded = new byte[this.strings.size()][];
+			int headerSize = 5 + this.body.length;
+			for (int i = 0; i < encoded.length; i++) {
+				encoded[i] = this.strings.get(i).getBytes(StandardCharsets.UTF_8);
+				headerSize += 5 + encoded[i].length;
+			}
+
+			byte[] bytes = new byte[5 + headerSize + (this.values == null ? 0 : this.values.length)];
+			int position = this.values == null ? 0 : 5; // room for the header's length
+			int headerStart = position;
+			position = writeVarint(bytes, position, encoded.length);
+			for (byte[] string : encoded) {
+				position = writeVarint(bytes, position, string.length);
+				System.arraycopy(string, 0, bytes, position, string.length);
+				position += string.length;
+			}
+			System.arraycopy(this.body.bytes, 0, bytes, position, this.body.length);
+			position += this.body.length;
+			if (this.values == null)
+				return Arrays.copyOf(bytes, position);
+
+			// move the header's length right in front of the header
+			int headerLength = position - headerStart;
+			int lengthSize = writeVarint(new byte[5], 0, headerLength);
+			int start = headerStart - lengthSize;
+			writeVarint(bytes, start, headerLength);
+			System.arraycopy(this.values.bytes, 0, bytes, position, this.values.length);
+			return Arrays.copyOfRange(bytes, start, position + this.values.length);
+		}
+	}
+
+	private static class Buffer {
+		private byte[] bytes = new byte[256];
+		private int length = 0;
+
+		void writeInt(int value) {
+			this.ensureCapacity(5);
+			this.length = writeVarint(this.bytes, this.length, value);
+		}
+
+		// Column values are mostly distinct within a message, so they are written in place: their UTF-8 length + 1,
+		// 0 for null, and their bytes
+		void writeValue(String value) {
+			if (value == null) {
+				this.writeInt(0);
+				return;
+			}
+			int chars = value.length();
+			this.ensureCapacity(5 + chars);
+			int start = this.length;
+			this.length = writeVarint(this.bytes, this.length, chars + 1);
+			for (int i = 0; i < chars; i++) {
+				char c = value.charAt(i);
+				if (c >= 0x80) {
+					// not ASCII, so the UTF-8 length is different from the number of chars
+					this.length = start;
+					byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+					this.writeInt(encoded.length + 1);
+					this.ensureCapacity(encoded.length);
+					System.arraycopy(encoded, 0, this.bytes, this.length, encoded.length);
+					this.length += encoded.length;
+					return;
+				}
+				this.bytes[this.length++] = (byte) c;
+			}
+		}
+
+		private void ensureCapacity(int bytes) {
+			if (this.length + bytes > this.bytes.length)
+				this.bytes = Arrays.copyOf(this.bytes, Math.max(2 * this.bytes.length, this.length + bytes));
+		}
+	}
+
+	// 7 bits per byte, least significant group first; the high bit marks that more bytes follow
+	private static int writeVarint(byte[] bytes, int position, int value) {
+		while ((value & ~0x7F) != 0) {
+			bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[position++] = (byte) value;
+		return position;
+	}
+
+	private static class Reader {
+		private final byte[] bytes;
+		private int position;
+		private final String[] strings;
+		// the arrays that readStreamedIds announced, which the ids behind the header fill in this order
+		private final List<int[]> streamedArrays = new ArrayList<>();
+
+		Reader(byte[] bytes, int position) {
+			this.bytes = bytes;
+			this.position = position;
+			this.strings = new String[this.readInt() + 1];
+			for (int id = 1; id < this.strings.length; id++) {
+				int length = this.readInt();
+				this.strings[id] = new String(bytes, this.position, length, StandardCharsets.UTF_8);
+				this.position += length;
+			}
+		}
+
+		int readInt() {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = this.bytes[this.position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0)
+					return value;
+			}
+		}
+
+		String readString() {
+			return this.strings[this.readInt()];
+		}
+
+		List<String> readStringList() {
+			int size = this.readInt();
+			List<String> values = new ArrayList<>(size);
+			for (int i = 0; i < size; i++)
+				values.add(this.readString());
+			return values;
+		}
+
+		String readValue() {
+			int length = this.readInt() - 1;
+			if (length < 0)
+				return null;
+			String value = new String(this.bytes, this.position, length, StandardCharsets.UTF_8);
+			this.position += length;
+			return value;
+		}
+
+		String[] readValueArray() {
+			String[] values = new String[this.readInt()];
+			for (int i = 0; i < values.length; i++)
+				values[i] = this.readValue();
+			return values;
+		}
+
+		// Returns an array for the announced number of ids, which are decoded into it once they arrive
+		int[] readStreamedIds() {
+			int[] ids = new int[this.readInt()];
+			this.streamedArrays.add(ids);
+			return ids;
+		}
+	}
+
+	// Decodes the header as soon as all of its bytes arrived, and then every id as soon as its bytes arrived, into
+	// the arrays that the header announced. Only an item that is split between two calls is buffered.
+	private static class ValueStreamDecoder implements Decoder {
+		private final Function<Reader, Object> headerReader;
+
+		private Object message;
+		private List<int[]> arrays;
+		private int array = -1;
+		private int filled = 0;
+		private int remaining = 0;
+		private int previous = 0;
+
+		// the beginning of the header or of an id, whose remaining bytes are still to come
+		private byte[] pending = new byte[16];
+		private int pendingLength = 0;
+
+		ValueStreamDecoder(Function<Reader, Object> headerReader) {
+			this.headerReader = headerReader;
+		}
+
+		@Override
+		public void decode(byte[] bytes, int offset, int length) {
+			int end = offset + length;
+			while (offset < end) {
+				if (this.pendingLength == 0) {
+					int itemEnd = this.itemEnd(bytes, offset, end);
+					if (itemEnd < 0) {
+						this.append(bytes, offset, end - offset);
+						return;
+					}
+					this.consume(bytes, offset);
+					offset = itemEnd;
+					continue;
+				}
+
+				// complete the pending item with as few bytes as possible: its first varint, then the header's content
+				int itemEnd = this.itemEnd(this.pending, 0, Integer.MAX_VALUE);
+				int missing = itemEnd < 0 ? 1 : itemEnd - this.pendingLength;
+				int take = Math.min(missing, end - offset);
+				this.append(bytes, offset, take);
+				offset += take;
+				// the byte may have completed an id's varint, which might be the last byte of the message
+				itemEnd = this.itemEnd(this.pending, 0, Integer.MAX_VALUE);
+				if (itemEnd >= 0 && this.pendingLength == itemEnd) {
+					this.consume(this.pending, 0);
+					this.pendingLength = 0;
+				}
+			}
+		}
+
+		@Override
+		public Object result() {
+			if (this.message == null || this.remaining > 0 || this.pendingLength > 0)
+				throw new IllegalStateException("The message is incomplete.");
+			return this.message;
+		}
+
+		// The end of the header or id that starts at offset or -1 if it does not end before end; looks at the
+		// pending bytes only as far as they go
+		private int itemEnd(byte[] bytes, int offset, int end) {
+			if (bytes == this.pending)
+				end = this.pendingLength;
+			int value = 0;
+			int position = offset;
+			for (int shift = 0; ; shift += 7) {
+				if (position == end)
+					return -1;
+				byte b = bytes[position++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0)
+					break;
+			}
+			// the header's length, or an id that is complete with its varint
+			int itemEnd = this.message == null ? position + value : position;
+			return bytes == this.pending || itemEnd <= end ? itemEnd : -1;
+		}
+
+		private void consume(byte[] bytes, int offset) {
+			int value = 0;
+			for (int shift = 0; ; shift += 7) {
+				byte b = bytes[offset++];
+				value |= (b & 0x7F) << shift;
+				if (b >= 0)
+					break;
+			}
+
+			if (this.message == null) {
+				Reader reader = new Reader(bytes, offset);
+				this.message = this.headerReader.apply(reader);
+				this.arrays = reader.streamedArrays;
+				this.nextArray();
+				return;
+			}
+
+			if (this.remaining == 0)
+				throw new IllegalStateException("More ids than announced.");
+			this.previous += value;
+			this.arrays.get(this.array)[this.filled++] = this.previous;
+			if (--this.remaining == 0)
+				this.nextArray();
+		}
+
+		private void nextArray() {
+			while (this.remaining == 0 && this.array + 1 < this.arrays.size()) {
+				this.remaining = this.arrays.get(++this.array).length;
+				this.filled = 0;
+				this.previous = 0;
+			}
+		}
+
+		private void append(byte[] bytes, int offset, int length) {
+			if (this.pendingLength + length > this.pending.length)
+				this.pending = Arrays.copyOf(this.pending, Math.max(2 * this.pending.length, this.pendingLength + length));
+			System.arraycopy(bytes, offset, this.pending, this.pendingLength, length);
+			this.pendingLength += length;
+		}
+	}
+}
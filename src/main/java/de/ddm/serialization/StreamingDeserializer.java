@@ -0,0 +1,18 @@
+package de.ddm.serialization;
+
+// A serializer whose messages can be decoded piece by piece while their bytes arrive, so that the LargeMessageProxy
+// needs no buffer for the whole serialized message and decoding overlaps with the transfer.
+public interface StreamingDeserializer {
+
+	// Returns a decoder for a message with the given manifest or null if such messages are only decoded as a whole
+	Decoder decoder(String manifest);
+
+	interface Decoder {
+
+		// Decodes the next bytes of the message, which continue the bytes of the previous call.
+		void decode(byte[] bytes, int offset, int length);
+
+		// Returns the message, once all of its bytes were decoded
+		Object result();
+	}
+}
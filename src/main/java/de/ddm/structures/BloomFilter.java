@@ -0,0 +1,72 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+// A Bloom filter over the distinct values of a column. It never misses an added value, so a value that the filter
+// does not contain proves that the column does not contain it either. The filter keeps BITS_PER_VALUE bits per value
+// and doubles its bits, rebuilt from the given values, once it holds more values than it was sized for.
+public class BloomFilter {
+
+    private static final int BITS_PER_VALUE = 8;
+    private static final int NUM_HASHES = 4; // about 2.4 % false positives at 8 bits per value
+    private static final int MIN_BITS = 1024;
+
+    private long[] bits;
+    private int mask;
+    private int numValues = 0;
+
+    public BloomFilter() {
+        this.allocate(MIN_BITS);
+    }
+
+    public void add(String value) {
+        if (++this.numValues * BITS_PER_VALUE > this.bits.length * (long) Long.SIZE)
+            throw new IllegalStateException("Bloom filter is full; call grow() first");
+
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (h1 + i * h2) & this.mask;
+            this.bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (h1 + i * h2) & this.mask;
+            if ((this.bits[bit >>> 6] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    // Returns true if the filter is full and must be rebuilt with grow() before the next value is added
+    public boolean isFull() {
+        return (this.numValues + 1L) * BITS_PER_VALUE > this.bits.length * (long) Long.SIZE;
+    }
+
+    // Doubles the bits and adds the first numValues of the given values again, which must be all values added so far.
+    public void grow(String[] values, int numValues) {
+        this.allocate(2 * this.bits.length * Long.SIZE);
+        this.numValues = 0;
+        for (int i = 0; i < numValues; i++)
+            this.add(values[i]);
+    }
+
+    public long getMemorySize() {
+        return 16 + (long) this.bits.length * Long.BYTES;
+    }
+
+    private void allocate(int numBits) {
+        this.bits = new long[numBits / Long.SIZE];
+        this.mask = numBits - 1;
+    }
+
+    private static long hash(String value) {
+        return HashCommon.mix(value == null ? 0L : (long) value.hashCode() ^ 0x9E3779B97F4A7C15L);
+    }
+}
@@ -1,60 +1,227 @@
 package de.ddm.structures;
 
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrays;
+
 import java.util.*;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 public class Column {
 
+    // Rough object layout of a 64-bit JVM with compressed oops, used to estimate the heap footprint.
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int STRING_SIZE = 24; // header + value reference + hash + coder/hashIsZero
+
     // We store distinct values in two ways:
     // 1. in an array in order in which they occur
-    // 2. in a hashmap with above array position for fast insertion (Array::indexOf gets very slow for large workloads)
-    private List<String> valuesByPosition = new ArrayList<>();
-    private Map<Integer, Integer> positionByValueHash = new HashMap<>();
+    // 2. in a hashmap from the value itself to above array position for fast insertion (Array::indexOf gets very slow for large workloads)
+    // Keying the map on the value (not on its hash) ensures that distinct values with colliding hashes stay distinct.
+    private String[] valuesByPosition = new String[16];
+    private int distinctCount = 0;
+    private final Object2IntOpenHashMap<String> positionByValue = new Object2IntOpenHashMap<>();
 
-    // This is the column data saved as indicies into valuesByPosition instead of their actual values.
-    private List<Integer> data = new ArrayList<>();
+    // This is the column data saved as indices into valuesByPosition instead of their actual values.
+    private int[] data = new int[128];
+    private int length = 0;
+    // false once a distinct-only batch was appended, whose values are no rows, see addAll()
+    private boolean allRows = true;
 
-    // TODO: As further optimization, we may want to store the column data as plain-int arrays instead of Object arrays.
-    // private int[] data = new int[128];
-    // private int length = 0;
+    // Heap occupied by the distinct String instances themselves; the containers are added in getMemorySize().
+    private long valuesMemorySize = 0;
 
-    int memorySize = 0;
+    // Sketch of the distinct values, so that other columns can be tested for inclusion without their values.
+    private final BloomFilter bloomFilter = new BloomFilter();
 
-    public Column(){}
+    // Global ids of the distinct values, by position and in ascending order, once the column is complete, see freeze()
+    private int[] idsByPosition = null;
+    private int[] sortedIds = null;
+
+    public Column(){
+        this.positionByValue.defaultReturnValue(-1);
+    }
 
     public void add(String value){
-        int index = this.positionByValueHash.computeIfAbsent(value.hashCode(), _valueHash -> {
-            valuesByPosition.add(value);
-            this.memorySize += value.length() * 2; // java char takes up 2 bytes
-            return valuesByPosition.size() - 1;
-        });
-        data.add(index);
-        this.memorySize += 4; // int takes up 4 bytes (Integer ofc needs more... but for akka serialization, this shouldn't matter?)
+        this.checkNotFrozen();
+        int index = this.positionByValue.getInt(value);
+        if (index == -1) {
+            index = this.distinctCount++;
+            this.valuesByPosition = ObjectArrays.grow(this.valuesByPosition, this.distinctCount);
+            this.valuesByPosition[index] = value;
+            this.positionByValue.put(value, index);
+            this.valuesMemorySize += stringMemorySize(value);
+            this.addToBloomFilter(value);
+        }
+
+        this.data = IntArrays.grow(this.data, this.length + 1);
+        this.data[this.length++] = index;
+    }
+
+    // Appends the given rows of a ColumnBatch column: every distinct value of the batch is looked up once, and the
+    // row data is translated in one pass. Without codes, i.e. for distinct-only batches, every value is appended once.
+    public void addAll(String[] dictionary, int[] codes, int numRows) {
+        this.checkNotFrozen();
+        if (codes == null) {
+            this.allRows = false;
+            codes = IntStream.range(0, dictionary.length).toArray();
+            numRows = dictionary.length;
+        }
+
+        int[] positions = new int[dictionary.length];
+        for (int code = 0; code < dictionary.length; code++) {
+            String value = dictionary[code];
+            int index = this.positionByValue.getInt(value);
+            if (index == -1) {
+                index = this.distinctCount++;
+                this.valuesByPosition = ObjectArrays.grow(this.valuesByPosition, this.distinctCount);
+                this.valuesByPosition[index] = value;
+                this.positionByValue.put(value, index);
+                this.valuesMemorySize += stringMemorySize(value);
+                this.addToBloomFilter(value);
+            }
+            positions[code] = index;
+        }
+
+        this.data = IntArrays.grow(this.data, this.length + numRows);
+        for (int row = 0; row < numRows; row++)
+            this.data[this.length + row] = positions[codes[row]];
+        this.length += numRows;
+    }
+
+    public String get(int row) {
+        return this.valuesByPosition[this.data[row]];
     }
 
     public Stream<String> stream() {
-        return data.stream()
-            .map(index -> valuesByPosition.get(index));
+        return IntStream.range(0, this.length)
+            .mapToObj(this::get);
     }
 
+    // The number of rows, as long as hasAllRows(); otherwise, the number of appended values, which is no row count.
     public int size() {
-        return this.data.size();
+        return this.length;
+    }
+
+    // Returns false if the column received distinct-only batches, i.e. it holds the right distinct values but not the rows
+    public boolean hasAllRows() {
+        return this.allRows;
+    }
+
+    public int getDistinctCount() {
+        return this.distinctCount;
+    }
+
+    // The backing arrays for ColumnarSnapshot: only the first getDistinctCount() values and size() codes are valid.
+    String[] getValuesByPosition() {
+        return this.valuesByPosition;
+    }
+
+    int[] getCodes() {
+        return this.data;
+    }
+
+    // Estimated number of bytes this column occupies on the heap, including the dictionary, the row data and the value ids.
+    public long getMemorySize(){
+        long dictionarySlots = HashCommon.arraySize(this.positionByValue.size(), Object2IntOpenHashMap.DEFAULT_LOAD_FACTOR) + 1;
+        long dictionarySize = 2 * ARRAY_HEADER_SIZE + dictionarySlots * (REFERENCE_SIZE + Integer.BYTES);
+        long valuesListSize = ARRAY_HEADER_SIZE + (long) this.valuesByPosition.length * REFERENCE_SIZE;
+        long dataSize = ARRAY_HEADER_SIZE + (long) this.data.length * Integer.BYTES;
+        long idsSize = this.sortedIds == null ? 0 : 2 * (ARRAY_HEADER_SIZE + (long) this.distinctCount * Integer.BYTES);
+        return this.valuesMemorySize + dictionarySize + valuesListSize + dataSize + idsSize + this.bloomFilter.getMemorySize();
+    }
+
+    // Tests up to sampleSize distinct values of this column, spread over all of them, against the Bloom filter of the
+    // referenced column.
+    //
+    // Returns false if some value is certainly missing in the referenced column, i.e. this column is not included in it
+    public boolean mayBeIncludedIn(Column referenced, int sampleSize) {
+        int step = Math.max(1, this.distinctCount / Math.max(1, sampleSize));
+        for (int i = 0; i < this.distinctCount; i += step)
+            if (!referenced.bloomFilter.mightContain(this.valuesByPosition[i]))
+                return false;
+        return true;
+    }
+
+    private void addToBloomFilter(String value) {
+        if (this.bloomFilter.isFull())
+            this.bloomFilter.grow(this.valuesByPosition, this.distinctCount - 1);
+        this.bloomFilter.add(value);
+    }
+
+    // Looks up the global id of every distinct value in the given dictionary, once the column is complete. From then
+    // on the column rejects new rows, so the id arrays that tasks and local workers share never change.
+    public void freeze(IdDictionary<String> dictionary) {
+        if (this.sortedIds != null)
+            return;
+        this.idsByPosition = new int[this.distinctCount];
+        for (int i = 0; i < this.distinctCount; i++)
+            this.idsByPosition[i] = dictionary.getId(this.valuesByPosition[i]);
+        this.sortedIds = this.idsByPosition.clone();
+        Arrays.sort(this.sortedIds);
+    }
+
+    public boolean isFrozen() {
+        return this.sortedIds != null;
+    }
+
+    private void checkNotFrozen() {
+        if (this.sortedIds != null)
+            throw new IllegalStateException("The column is frozen and accepts no more rows.");
+    }
+
+    private void checkFrozen() {
+        if (this.sortedIds == null)
+            throw new IllegalStateException("The column has no value ids, because it is not frozen.");
+    }
+
+    // Returns the global id of the value in the given row
+    public int getId(int row) {
+        this.checkFrozen();
+        return this.idsByPosition[this.data[row]];
     }
 
-    public int getMemorySize(){
-        return this.memorySize;
+    // Returns the ascending global ids of the distinct values; shared by all callers, so it must not be modified
+    public int[] getDistinctIds() {
+        this.checkFrozen();
+        return this.sortedIds;
+    }
+
+    // The ascending global ids of the distinct values that fall into the given value-hash partition, see Task::partitionOf.
+    public int[] getDistinctIds(int partition, int numPartitions) {
+        this.checkFrozen();
+        IntArrayList ids = new IntArrayList();
+        for (int id : this.sortedIds)
+            if (Task.partitionOf(id, numPartitions) == partition)
+                ids.add(id);
+        return ids.toIntArray();
+    }
+
+    private static long stringMemorySize(String value) {
+        if (value == null)
+            return 0;
+
+        // Compact strings store latin-1 content with one byte per char, everything else with two.
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_SIZE + align(ARRAY_HEADER_SIZE + (long) value.length() * bytesPerChar);
     }
 
-    public Set<String> getDistinctValues() {
-        return new HashSet<>(this.valuesByPosition); // TODO can we do this in an more optimzied way?
+    private static long align(long size) {
+        return (size + 7) & ~7L;
     }
 
     @Override
     public String toString(){
         // NOTE this is probably quite costly for large columns... but it shouldn't be used for large columns, anyway.
-        return this.stream().toArray().toString();
+        return Arrays.toString(this.stream().toArray());
     }
 }
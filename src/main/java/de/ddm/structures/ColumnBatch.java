@@ -0,0 +1,122 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrays;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// A batch of rows in column-major order: every column has a batch-local dictionary of its distinct values and
+// the dictionary codes of its rows, so that Column::addAll looks up every distinct value only once per batch and
+// a serialized batch carries every distinct value only once. Distinct-only batches have no codes; they carry just
+// the values that the reader did not send before, which suffices for unary INDs.
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnBatch {
+    private int numRows;
+    private String[][] dictionaries;
+    private int[][] codes;
+
+    public int getNumColumns() {
+        return this.dictionaries.length;
+    }
+
+    public boolean isDistinctOnly() {
+        return this.codes == null;
+    }
+
+    // Encodes the rows of a batch one after the other.
+    public static class Builder {
+        private final int capacity;
+        private int numRows = 0;
+        private List<Object2IntOpenHashMap<String>> positions;
+        private String[][] dictionaries;
+        private int[][] codes;
+        // for distinct-only batches, the values of each column that the reader sent before
+        private final List<Set<String>> sentValues;
+
+        public Builder(int capacity) {
+            this(capacity, null);
+        }
+
+        // A builder for a distinct-only batch of the values that are not in sentValues yet; adds them to sentValues.
+        public Builder(int capacity, List<Set<String>> sentValues) {
+            this.capacity = capacity;
+            this.sentValues = sentValues;
+        }
+
+        public int getNumRows() {
+            return this.numRows;
+        }
+
+        public void add(String[] row) {
+            if (this.positions == null) {
+                this.positions = new ArrayList<>(row.length);
+                this.dictionaries = new String[row.length][];
+                this.codes = new int[row.length][];
+                for (int column = 0; column < row.length; column++) {
+                    Object2IntOpenHashMap<String> columnPositions = new Object2IntOpenHashMap<>();
+                    columnPositions.defaultReturnValue(-1);
+                    this.positions.add(columnPositions);
+                    this.dictionaries[column] = new String[16];
+                    if (this.sentValues == null)
+                        this.codes[column] = new int[Math.max(16, this.capacity)];
+                }
+                while (this.sentValues != null && this.sentValues.size() < row.length)
+                    this.sentValues.add(new HashSet<>());
+            }
+            assert row.length == this.positions.size()
+                : "row length " + row.length + " does not match batch width " + this.positions.size();
+
+            if (this.sentValues != null) {
+                for (int column = 0; column < row.length; column++) {
+                    if (!this.sentValues.get(column).add(row[column]))
+                        continue;
+                    int code = this.positions.get(column).size();
+                    this.positions.get(column).put(row[column], code);
+                    this.dictionaries[column] = ObjectArrays.grow(this.dictionaries[column], code + 1);
+                    this.dictionaries[column][code] = row[column];
+                }
+                this.numRows++;
+                return;
+            }
+
+            for (int column = 0; column < row.length; column++) {
+                Object2IntOpenHashMap<String> columnPositions = this.positions.get(column);
+                int code = columnPositions.getInt(row[column]);
+                if (code == -1) {
+                    code = columnPositions.size();
+                    columnPositions.put(row[column], code);
+                    this.dictionaries[column] = ObjectArrays.grow(this.dictionaries[column], code + 1);
+                    this.dictionaries[column][code] = row[column];
+                }
+                this.codes[column] = IntArrays.grow(this.codes[column], this.numRows + 1);
+                this.codes[column][this.numRows] = code;
+            }
+            this.numRows++;
+        }
+
+        public ColumnBatch build() {
+            if (this.positions == null)
+                return new ColumnBatch(0, new String[0][], new int[0][]);
+
+            int numColumns = this.positions.size();
+            String[][] dictionaries = new String[numColumns][];
+            int[][] codes = new int[numColumns][];
+            for (int column = 0; column < numColumns; column++) {
+                dictionaries[column] = Arrays.copyOf(this.dictionaries[column], this.positions.get(column).size());
+                if (this.sentValues == null)
+                    codes[column] = Arrays.copyOf(this.codes[column], this.numRows);
+            }
+            return new ColumnBatch(this.numRows, dictionaries, this.sentValues == null ? codes : null);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.ddm.structures;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Identifies a column across all tables.
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+public class ColumnId {
+    private String tableName;
+    private String columnName;
+
+    @Override
+    public String toString() {
+        return this.tableName + "." + this.columnName;
+    }
+}
@@ -0,0 +1,218 @@
+package de.ddm.structures;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// A binary columnar file with the dictionaries and codes of all columns of one table, so that a table does not
+// have to be parsed again as long as its input file does not change. The file starts with a magic number, the
+// format version and the length of the header, which holds the fingerprint of the input file and the column names.
+// Every column follows as the length of its section and the section: the number of distinct values and of rows,
+// the distinct values as their UTF-8 length (-1 for null) and bytes, and the code of every row. Sections are read
+// through memory-mapped buffers, so each of them must stay below 2 GiB.
+class ColumnarSnapshot {
+
+    private static final int MAGIC = 0x44444d53; // "DDMS"
+    private static final int VERSION = 1;
+    private static final int PREFIX_SIZE = 3 * Integer.BYTES;
+
+    // Writes the given columns with the given header; they must not change meanwhile, see LocalDataStorage::saveSnapshot
+    static void write(String tableName, List<String> header, List<Column> columns, String fingerprint, File file) throws IOException {
+        for (Column column : columns)
+            if (!column.hasAllRows())
+                throw new IllegalStateException("Table " + tableName + " holds distinct values only and cannot be saved as a snapshot.");
+        Path tempFile = new File(file.getPath() + ".tmp").toPath();
+        Files.createDirectories(tempFile.toAbsolutePath().getParent());
+
+        try (Output output = new Output(FileChannel.open(tempFile, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+            byte[][] names = new byte[header.size()][];
+            byte[] encodedFingerprint = fingerprint.getBytes(StandardCharsets.UTF_8);
+            int headerLength = 2 * Integer.BYTES + encodedFingerprint.length;
+            for (int i = 0; i < names.length; i++) {
+                names[i] = header.get(i).getBytes(StandardCharsets.UTF_8);
+                headerLength += Integer.BYTES + names[i].length;
+            }
+
+            output.putInt(MAGIC);
+            output.putInt(VERSION);
+            output.putInt(headerLength);
+            output.putBytes(encodedFingerprint);
+            output.putInt(names.length);
+            for (byte[] name : names)
+                output.putBytes(name);
+
+            for (Column column : columns) {
+                long lengthPosition = output.position();
+                output.putLong(0); // the section's length, once it is known
+                output.putInt(column.getDistinctCount());
+                output.putInt(column.size());
+                String[] values = column.getValuesByPosition();
+                for (int i = 0; i < column.getDistinctCount(); i++) {
+                    if (values[i] == null)
+                        output.putInt(-1);
+                    else
+                        output.putBytes(values[i].getBytes(StandardCharsets.UTF_8));
+                }
+                output.putInts(column.getCodes(), column.size());
+                output.patchLong(lengthPosition, output.position() - lengthPosition - Long.BYTES);
+            }
+        }
+        Files.move(tempFile, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Adds the table of the given snapshot file to the data storage, if the file exists and was saved for the given
+    // fingerprint. The table is only added once all of its columns were read; a truncated file fails with an IOException.
+    //
+    // Returns true if the table was loaded
+    static boolean read(LocalDataStorage dataStorage, String tableName, String fingerprint, File file) throws IOException {
+        if (!file.isFile())
+            return false;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer prefix = readFully(channel, 0, PREFIX_SIZE);
+            if (prefix.getInt() != MAGIC || prefix.getInt() != VERSION)
+                return false;
+            int headerLength = prefix.getInt();
+            long size = channel.size();
+            if (headerLength < 0 || PREFIX_SIZE + headerLength > size)
+                throw new IOException("Snapshot " + file + " is truncated");
+
+            ByteBuffer headerBuffer = readFully(channel, PREFIX_SIZE, headerLength);
+            if (!fingerprint.equals(readString(headerBuffer)))
+                return false;
+            List<String> header = new ArrayList<>();
+            int numColumns = headerBuffer.getInt();
+            for (int i = 0; i < numColumns; i++)
+                header.add(readString(headerBuffer));
+
+            String[][] dictionaries = new String[numColumns][];
+            int[][] codes = new int[numColumns][];
+            long position = PREFIX_SIZE + headerLength;
+            byte[] scratch = new byte[256];
+            for (int column = 0; column < numColumns; column++) {
+                long sectionLength = readFully(channel, position, Long.BYTES).getLong();
+                if (sectionLength > Integer.MAX_VALUE)
+                    throw new IOException("Column " + header.get(column) + " of snapshot " + file + " exceeds 2 GiB");
+                if (sectionLength < 0 || position + Long.BYTES + sectionLength > size)
+                    throw new IOException("Snapshot " + file + " is truncated");
+                ByteBuffer section = channel.map(FileChannel.MapMode.READ_ONLY, position + Long.BYTES, sectionLength);
+                position += Long.BYTES + sectionLength;
+
+                String[] dictionary = new String[section.getInt()];
+                int[] columnCodes = new int[section.getInt()];
+                for (int i = 0; i < dictionary.length; i++) {
+                    int length = section.getInt();
+                    if (length < 0)
+                        continue;
+                    if (length > scratch.length)
+                        scratch = new byte[Math.max(length, 2 * scratch.length)];
+                    section.get(scratch, 0, length);
+                    dictionary[i] = new String(scratch, 0, length, StandardCharsets.UTF_8);
+                }
+                IntBuffer codeBuffer = section.asIntBuffer();
+                codeBuffer.get(columnCodes);
+                dictionaries[column] = dictionary;
+                codes[column] = columnCodes;
+            }
+
+            dataStorage.addTable(tableName, header);
+            for (int column = 0; column < numColumns; column++)
+                dataStorage.getColumn(tableName, header.get(column)).addAll(dictionaries[column], codes[column], codes[column].length);
+            return true;
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Snapshot ends early");
+        buffer.flip();
+        return buffer;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Writes through one direct buffer, so that the codes go to the file in bulk
+    private static class Output implements AutoCloseable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            this.ensureRemaining(Integer.BYTES);
+            this.buffer.putInt(value);
+        }
+
+        void putLong(long value) throws IOException {
+            this.ensureRemaining(Long.BYTES);
+            this.buffer.putLong(value);
+        }
+
+        // the length and the bytes
+        void putBytes(byte[] bytes) throws IOException {
+            this.putInt(bytes.length);
+            for (int offset = 0; offset < bytes.length; ) {
+                this.ensureRemaining(1);
+                int length = Math.min(this.buffer.remaining(), bytes.length - offset);
+                this.buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void putInts(int[] values, int count) throws IOException {
+            for (int offset = 0; offset < count; ) {
+                this.ensureRemaining(Integer.BYTES);
+                int length = Math.min(this.buffer.remaining() / Integer.BYTES, count - offset);
+                this.buffer.asIntBuffer().put(values, offset, length);
+                this.buffer.position(this.buffer.position() + length * Integer.BYTES);
+                offset += length;
+            }
+        }
+
+        long position() throws IOException {
+            return this.channel.position() + this.buffer.position();
+        }
+
+        void patchLong(long position, long value) throws IOException {
+            this.flush();
+            ByteBuffer patch = ByteBuffer.allocate(Long.BYTES).putLong(0, value);
+            while (patch.hasRemaining())
+                this.channel.write(patch, position + patch.position());
+        }
+
+        private void ensureRemaining(int bytes) throws IOException {
+            if (this.buffer.remaining() < bytes)
+                this.flush();
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining())
+                this.channel.write(this.buffer);
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+            this.channel.close();
+        }
+    }
+}
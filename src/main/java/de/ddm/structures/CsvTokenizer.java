@@ -0,0 +1,328 @@
+package de.ddm.structures;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Tokenizes a byte range of a CSV file directly on its memory-mapped bytes. Every field is unescaped into one
+// reusable byte buffer and looked up in a small per-column dictionary of the fields seen before, so a repeated
+// value is handed out as the String instance that was decoded for its first occurrence: neither a StringBuilder
+// nor a new String is created for it, and its cached hash code makes the lookup in Column's dictionary cheap, too.
+//
+// Follows opencsv's CSVParser with empty unquoted fields as null, including its quirks around escapes and quotes
+// in the middle of fields, so that both readers produce the same records. Leading whitespace is not supported,
+// and neither are charsets in which the separator, quote or escape bytes may occur inside of other characters.
+public class CsvTokenizer implements RecordReader {
+
+    // Records are parsed from windows of the range, because a single mapping is limited to 2 GiB
+    private static final int WINDOW_SIZE = 1 << 28;
+
+    private static final int INCOMPLETE = -1;
+
+    private final File file;
+    private final FileChannel channel;
+    private final long end;
+    private final Charset charset;
+    private final int separator;
+    private final int quote;
+    private final int escape;
+    private final boolean strictQuotes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLimit;       // the window's records end at this offset, i.e. just after its last line break
+    private boolean lastWindow;
+    private int windowSize = WINDOW_SIZE;
+    private long position;
+
+    private byte[] field = new byte[256];
+    private int fieldLength = 0;
+    private final List<String> record = new ArrayList<>();
+    private final List<ValueDictionary> dictionaries = new ArrayList<>();
+
+    public CsvTokenizer(File file, long start, long end, Charset charset, char separator, char quote, char escape, boolean strictQuotes) throws IOException {
+        if (!supports(charset, separator, quote, escape))
+            throw new IllegalArgumentException("Cannot tokenize " + charset + " input on its bytes.");
+
+        this.file = file;
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.end = end;
+        this.charset = charset;
+        this.separator = toByte(charset, separator);
+        this.quote = toByte(charset, quote);
+        this.escape = toByte(charset, escape);
+        this.strictQuotes = strictQuotes;
+        this.position = start;
+    }
+
+    // Returns true if the given characters are single bytes that cannot occur inside of other characters
+    public static boolean supports(Charset charset, char separator, char quote, char escape) {
+        if (!(charset.equals(StandardCharsets.UTF_8) || charset.newEncoder().maxBytesPerChar() == 1))
+            return false;
+        return toByte(charset, separator) >= 0 && toByte(charset, quote) >= 0 && toByte(charset, escape) >= 0;
+    }
+
+    private static int toByte(Charset charset, char character) {
+        byte[] bytes = String.valueOf(character).getBytes(charset);
+        if (bytes.length != 1 || (charset.equals(StandardCharsets.UTF_8) && bytes[0] < 0) || bytes[0] == '\n' || bytes[0] == '\r')
+            return -1;
+        return bytes[0] & 0xFF;
+    }
+
+    @Override
+    public String[] readNext() throws IOException {
+        while (this.position < this.end) {
+            if (this.window == null || this.position >= this.windowStart + this.windowLimit)
+                this.map(this.position);
+
+            int offset = (int) (this.position - this.windowStart);
+            int next = this.parseRecord(offset);
+            if (next != INCOMPLETE) {
+                this.position = this.windowStart + next;
+                return this.record.toArray(new String[0]);
+            }
+
+            // The record continues beyond the window; map it from its start, and a larger window if it already started there
+            if (offset == 0)
+                this.windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * this.windowSize);
+            this.map(this.position);
+        }
+        return null;
+    }
+
+    private void map(long start) throws IOException {
+        while (true) {
+            long size = Math.min(this.end - start, this.windowSize);
+            this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+            this.windowStart = start;
+            this.lastWindow = start + size == this.end;
+            this.windowLimit = (int) size;
+            if (this.lastWindow)
+                return;
+
+            // Cut the window after its last line break, so that looking one byte ahead never leaves the window
+            while (this.windowLimit > 0 && this.window.get(this.windowLimit - 1) != '\n')
+                this.windowLimit--;
+            if (this.windowLimit > 0)
+                return;
+            if (this.windowSize == Integer.MAX_VALUE)
+                throw new IOException("Line of more than 2 GiB in " + this.file.getName());
+            this.windowSize = (int) Math.min(Integer.MAX_VALUE, 2L * this.windowSize);
+        }
+    }
+
+    // Mirrors CSVParser::parseLine, including its multi-line continuation of quoted fields; the line breaks that
+    // BufferedReader::readLine removes become '\n' inside of quotes.
+    private int parseRecord(int offset) throws IOException {
+        MappedByteBuffer buffer = this.window;
+        int limit = this.windowLimit;
+
+        this.record.clear();
+        this.fieldLength = 0;
+        boolean inQuotes = false;
+        boolean inField = false;
+        boolean fromQuotedField = false;
+        int lineStart = offset;
+
+        int i = offset;
+        while (true) {
+            if (i >= limit) {
+                if (!this.lastWindow)
+                    return INCOMPLETE;
+                if (inQuotes)
+                    throw new IOException("Unterminated quoted field at the end of " + this.file.getName());
+                this.addField(fromQuotedField);
+                return limit;
+            }
+
+            int c = buffer.get(i) & 0xFF;
+            if (c == '\n' || c == '\r') {
+                int next = i + 1;
+                if (c == '\r' && next < limit && buffer.get(next) == '\n')
+                    next++;
+                if (!inQuotes) {
+                    this.addField(fromQuotedField);
+                    return next;
+                }
+                this.append('\n');
+                fromQuotedField = false;
+                lineStart = i = next;
+                continue;
+            }
+
+            if (c == this.escape) {
+                if (!this.strictQuotes)
+                    inField = true;
+                int lookahead = this.peek(buffer, i + 1, limit);
+                if ((inQuotes || inField) && (lookahead == this.quote || lookahead == this.escape || lookahead == this.separator)) {
+                    this.append(lookahead);
+                    i++;
+                }
+            } else if (c == this.quote) {
+                int lookahead = this.peek(buffer, i + 1, limit);
+                if ((inQuotes || inField) && lookahead == this.quote) {
+                    this.append(this.quote);
+                    i++;
+                } else {
+                    inQuotes = !inQuotes;
+                    if (this.fieldLength == 0)
+                        fromQuotedField = true;
+                    // a quote in the middle of a field is kept
+                    if (!this.strictQuotes && this.charsBefore(buffer, lineStart, i) > 2
+                            && (buffer.get(i - 1) & 0xFF) != this.separator && lookahead != -1 && lookahead != this.separator)
+                        this.append(c);
+                }
+                inField = !inField;
+            } else if (c == this.separator && !inQuotes) {
+                this.addField(fromQuotedField);
+                fromQuotedField = false;
+                inField = false;
+            } else if (!this.strictQuotes || inQuotes) {
+                this.append(c);
+                inField = true;
+                fromQuotedField = true;
+            }
+            i++;
+        }
+    }
+
+    // The byte at the given offset if it belongs to the current line, -1 otherwise
+    private int peek(MappedByteBuffer buffer, int offset, int limit) {
+        if (offset >= limit)
+            return -1;
+        int c = buffer.get(offset) & 0xFF;
+        return c == '\n' || c == '\r' ? -1 : c;
+    }
+
+    // The number of UTF-16 chars that the bytes [from, to) decode to, counted only up to 3
+    private int charsBefore(MappedByteBuffer buffer, int from, int to) {
+        if (!this.charset.equals(StandardCharsets.UTF_8))
+            return to - from;
+        int chars = 0;
+        for (int i = from; i < to && chars <= 2; i++) {
+            int c = buffer.get(i) & 0xFF;
+            if ((c & 0xC0) != 0x80)
+                chars += c >= 0xF0 ? 2 : 1; // supplementary characters are surrogate pairs
+        }
+        return chars;
+    }
+
+    private void append(int c) {
+        if (this.fieldLength == this.field.length)
+            this.field = Arrays.copyOf(this.field, 2 * this.field.length);
+        this.field[this.fieldLength++] = (byte) c;
+    }
+
+    private void addField(boolean fromQuotedField) {
+        int column = this.record.size();
+        if (this.fieldLength == 0 && !fromQuotedField) {
+            this.record.add(null);
+        } else {
+            while (column >= this.dictionaries.size())
+                this.dictionaries.add(new ValueDictionary(this.charset));
+            this.record.add(this.dictionaries.get(column).get(this.field, this.fieldLength));
+        }
+        this.fieldLength = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.channel.close();
+    }
+
+    // Maps field bytes to the String that they were decoded to before. Starts over when it is full, which keeps
+    // the frequent values of low-cardinality columns and the locally repeated values of all other columns; columns
+    // that hardly repeat a value, such as keys, are decoded directly once the dictionary filled up without hits.
+    private static class ValueDictionary {
+        private static final int MAX_SIZE = 1 << 14;
+
+        private final Charset charset;
+        private byte[][] keys = new byte[16][];
+        private String[] values = new String[16];
+        private int size = 0;
+        private int hits = 0;
+        private boolean bypassed = false;
+
+        ValueDictionary(Charset charset) {
+            this.charset = charset;
+        }
+
+        String get(byte[] bytes, int length) {
+            if (this.bypassed)
+                return new String(bytes, 0, length, this.charset);
+
+            int hash = 1;
+            for (int i = 0; i < length; i++)
+                hash = 31 * hash + bytes[i];
+
+            int mask = this.keys.length - 1;
+            int slot = mix(hash) & mask;
+            for (byte[] key; (key = this.keys[slot]) != null; slot = (slot + 1) & mask)
+                if (equals(key, bytes, length)) {
+                    this.hits++;
+                    return this.values[slot];
+                }
+
+            String value = new String(bytes, 0, length, this.charset);
+            if (this.size == MAX_SIZE) {
+                Arrays.fill(this.keys, null);
+                Arrays.fill(this.values, null);
+                this.bypassed = this.hits < MAX_SIZE / 8;
+                this.size = 0;
+                this.hits = 0;
+                if (this.bypassed)
+                    return value;
+                slot = mix(hash) & mask;
+            }
+            this.keys[slot] = Arrays.copyOf(bytes, length);
+            this.values[slot] = value;
+            if (++this.size * 2 > this.keys.length)
+                this.grow();
+            return value;
+        }
+
+        private void grow() {
+            byte[][] oldKeys = this.keys;
+            String[] oldValues = this.values;
+            this.keys = new byte[2 * oldKeys.length][];
+            this.values = new String[2 * oldValues.length];
+
+            int mask = this.keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                byte[] key = oldKeys[i];
+                if (key == null)
+                    continue;
+                int hash = 1;
+                for (byte b : key)
+                    hash = 31 * hash + b;
+                int slot = mix(hash) & mask;
+                while (this.keys[slot] != null)
+                    slot = (slot + 1) & mask;
+                this.keys[slot] = key;
+                this.values[slot] = oldValues[i];
+            }
+        }
+
+        private static int mix(int hash) {
+            int h = hash * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        private static boolean equals(byte[] key, byte[] bytes, int length) {
+            if (key.length != length)
+                return false;
+            for (int i = 0; i < length; i++)
+                if (key[i] != bytes[i])
+                    return false;
+            return true;
+        }
+    }
+}
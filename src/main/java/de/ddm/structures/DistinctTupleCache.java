@@ -0,0 +1,33 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// The distinct value combinations of the n-ary tasks of one level. One dictionary numbers all combinations of the
+// level, so that the ids of any two column combinations compare and equal combinations fall into the same partition.
+// Each column combination is computed once and split into all partitions of a task in one pass, so that all tasks of
+// the level, their partitions and their speculative copies share the results; the next level starts a new cache.
+public class DistinctTupleCache {
+
+    private final LocalDataStorage dataStorage;
+    private final IdDictionary<IntArrayList> tupleDictionary = new IdDictionary<>();
+    private final Map<String, int[]> tuples = new HashMap<>();
+    private final Map<String, int[][]> partitions = new HashMap<>();
+
+    public DistinctTupleCache(LocalDataStorage dataStorage) {
+        this.dataStorage = dataStorage;
+    }
+
+    // Returns the ascending ids of the distinct value combinations of the given columns in the given value-hash
+    // partition, see Task::partitionOf; shared by all callers, so they must not be modified
+    public int[] get(String tableName, List<String> columnNames, int partition, int numPartitions) {
+        String key = tableName + "|" + Task.getCombinationKey(columnNames);
+        int[] ids = this.tuples.computeIfAbsent(key, k -> this.dataStorage.getDistinctTuples(tableName, columnNames, this.tupleDictionary));
+        if (numPartitions == 1)
+            return ids;
+        return this.partitions.computeIfAbsent(key + "#" + numPartitions, k -> Task.partition(ids, numPartitions))[partition];
+    }
+}
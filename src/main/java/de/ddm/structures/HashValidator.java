@@ -0,0 +1,46 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+import java.util.*;
+
+// Tests every column pair by looking up every dependent id in a hash set of the referenced ids, i.e. every
+// dependent id is hashed once per referenced column.
+public class HashValidator implements IndValidator {
+
+    @Override
+    public List<InclusionDependency> validate(Task task, Map<String, int[]> distinctValuesA, Map<String, int[]> distinctValuesB) {
+        boolean sameTable = task.getTableNameA().equals(task.getTableNameB());
+        Map<String, IntOpenHashSet> setsA = new HashMap<>();
+        Map<String, IntOpenHashSet> setsB = new HashMap<>();
+
+        // A set, because intra-table tasks visit every pair from both sides
+        Set<InclusionDependency> inclusionDeps = new LinkedHashSet<>();
+        distinctValuesA.forEach((columnA, idsA) -> {
+            distinctValuesB.forEach((columnB, idsB) -> {
+                if (sameTable && columnA.equals(columnB)) {
+                    return; // skip trivial A c A dependencies
+                }
+
+                int cardinalityA = idsA.length;
+                int cardinalityB = idsB.length;
+
+                // NOTE both or none of these branches may be executed
+                if (cardinalityA <= cardinalityB && containsAll(setsB.computeIfAbsent(columnB, c -> new IntOpenHashSet(idsB)), idsA)) {
+                    inclusionDeps.add(new InclusionDependency(task.getTableNameA(), task.getTableNameB(), columnA, columnB));
+                }
+                if (cardinalityB <= cardinalityA && containsAll(setsA.computeIfAbsent(columnA, c -> new IntOpenHashSet(idsA)), idsB)) {
+                    inclusionDeps.add(new InclusionDependency(task.getTableNameB(), task.getTableNameA(), columnB, columnA));
+                }
+            });
+        });
+        return new ArrayList<>(inclusionDeps);
+    }
+
+    private static boolean containsAll(IntOpenHashSet set, int[] ids) {
+        for (int id : ids)
+            if (!set.contains(id))
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.function.UnaryOperator;
+
+// Assigns consecutive int ids, starting with 0, to distinct keys, so that equal keys have equal ids. The
+// DependencyMiner keeps one dictionary for the values of all tables, so that the workers compare columns of any
+// tables by their ids and never see the values themselves; n-ary tasks number their value combinations likewise.
+public class IdDictionary<T> {
+
+    private final Object2IntOpenHashMap<T> ids = new Object2IntOpenHashMap<>();
+
+    public IdDictionary() {
+        this.ids.defaultReturnValue(-1);
+    }
+
+    // Returns the id of the given key, which may be null; a new key gets the next id
+    public int getId(T key) {
+        int id = this.ids.getInt(key);
+        if (id == -1) {
+            id = this.ids.size();
+            this.ids.put(key, id);
+        }
+        return id;
+    }
+
+    // Like getId, but stores a copy of a new key, so that the caller may reuse one mutable key for all lookups
+    public int getId(T key, UnaryOperator<T> copier) {
+        int id = this.ids.getInt(key);
+        if (id == -1) {
+            id = this.ids.size();
+            this.ids.put(copier.apply(key), id);
+        }
+        return id;
+    }
+
+    public int size() {
+        return this.ids.size();
+    }
+}
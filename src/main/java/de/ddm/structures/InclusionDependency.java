@@ -3,23 +3,36 @@ package de.ddm.structures;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.util.Collections;
+import java.util.List;
 
 @Getter
 @AllArgsConstructor
+@NoArgsConstructor
 @EqualsAndHashCode
 public class InclusionDependency {
     private String dependentTable;
     private String referencedTable;
 
-    /// This is X in X c Y
-    private String dependentColumn;
+    // This is X in X c Y; n-ary INDs list their columns in the order of their pairs with the referenced columns
+    private List<String> dependentColumns;
+
+    // This is Y in X c Y
+    private List<String> referencedColumns;
+
+    public InclusionDependency(String dependentTable, String referencedTable, String dependentColumn, String referencedColumn) {
+        this(dependentTable, referencedTable, Collections.singletonList(dependentColumn), Collections.singletonList(referencedColumn));
+    }
 
-    /// This is Y in X c Y
-    private String referencedColumn;
+    public int arity() {
+        return this.dependentColumns.size();
+    }
 
 	@Override
 	public String toString() {
 		return this.dependentTable + " → " + this.referencedTable + ": " +
-				this.dependentColumn + " ⊆ " + this.referencedColumn;
+				String.join(", ", this.dependentColumns) + " ⊆ " + String.join(", ", this.referencedColumns);
 	}
 }
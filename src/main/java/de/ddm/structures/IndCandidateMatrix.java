@@ -0,0 +1,204 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// The status of every unary IND candidate X c Y between all known columns. Every validated result is propagated
+// along the known INDs, so that candidates that earlier results already decide are never handed to a worker:
+//
+// * X c Y and Y c Z imply X c Z
+// * X c Y and not X c Z imply not Y c Z
+// * X c Y and not Z c Y imply not Z c X
+public class IndCandidateMatrix {
+    private static final byte UNKNOWN = 0;
+    private static final byte HOLDS = 1;
+    private static final byte FAILS = 2;
+
+    private final List<ColumnId> columns = new ArrayList<>();
+    private final Map<ColumnId, Integer> columnIndices = new HashMap<>();
+    // status[dependent][referenced]
+    private byte[][] status = new byte[0][];
+
+    private long validatedPairs = 0;
+    private long inferredPairs = 0;
+    private long prunedPairs = 0;
+    private long refutedPairs = 0;
+
+    public void addColumns(String tableName, List<String> columnNames) {
+        for (String columnName : columnNames) {
+            ColumnId column = new ColumnId(tableName, columnName);
+            if (this.columnIndices.putIfAbsent(column, this.columns.size()) == null)
+                this.columns.add(column);
+        }
+
+        int numColumns = this.columns.size();
+        byte[][] status = new byte[numColumns][];
+        for (int i = 0; i < numColumns; i++)
+            status[i] = i < this.status.length ? Arrays.copyOf(this.status[i], numColumns) : new byte[numColumns];
+        this.status = status;
+    }
+
+    // The given task reduced to the columns that still have undecided candidates, or null if all of its candidates
+    // are decided. Partitioned tasks are never reduced, because all of their partitions must cover the same columns,
+    // and n-ary tasks are not tracked here.
+    public Task prune(Task task) {
+        if (task.isPartitioned() || task.isNary())
+            return task;
+
+        int[] columnsA = this.indicesOf(task.getTableNameA(), task.getColumnNamesA());
+        int[] columnsB = this.indicesOf(task.getTableNameB(), task.getColumnNamesB());
+
+        List<String> columnNamesA = new ArrayList<>();
+        List<Integer> keptA = new ArrayList<>();
+        for (int i = 0; i < columnsA.length; i++) {
+            if (this.hasUndecided(columnsA[i], columnsB)) {
+                columnNamesA.add(task.getColumnNamesA().get(i));
+                keptA.add(columnsA[i]);
+            }
+        }
+        int[] prunedA = keptA.stream().mapToInt(Integer::intValue).toArray();
+
+        List<String> columnNamesB = new ArrayList<>();
+        List<Integer> keptB = new ArrayList<>();
+        for (int i = 0; i < columnsB.length; i++) {
+            if (this.hasUndecided(columnsB[i], prunedA)) {
+                columnNamesB.add(task.getColumnNamesB().get(i));
+                keptB.add(columnsB[i]);
+            }
+        }
+        int[] prunedB = keptB.stream().mapToInt(Integer::intValue).toArray();
+
+        this.prunedPairs += this.countPairs(columnsA, columnsB) - this.countPairs(prunedA, prunedB);
+        if (prunedA.length == 0)
+            return null;
+        if (columnNamesA.size() == columnsA.length && columnNamesB.size() == columnsB.length)
+            return task;
+        return new Task(task.getTableNameA(), task.getTableNameB(), columnNamesA, columnNamesB);
+    }
+
+    // Records the validated candidates of the given task, i.e. the given INDs hold and all other candidates of the
+    // task fail, and propagates these results.
+    //
+    // Returns all INDs that became known by this, validated and inferred ones, each reported only once
+    public List<InclusionDependency> record(Task task, Collection<InclusionDependency> inclusionDeps) {
+        Set<Long> holding = new HashSet<>();
+        for (InclusionDependency ind : inclusionDeps)
+            holding.add(this.pair(
+                this.columnIndices.get(new ColumnId(ind.getDependentTable(), ind.getDependentColumns().get(0))),
+                this.columnIndices.get(new ColumnId(ind.getReferencedTable(), ind.getReferencedColumns().get(0)))));
+
+        List<InclusionDependency> newlyHolding = new ArrayList<>();
+        int[] columnsA = this.indicesOf(task.getTableNameA(), task.getColumnNamesA());
+        int[] columnsB = this.indicesOf(task.getTableNameB(), task.getColumnNamesB());
+        for (int a : columnsA) {
+            for (int b : columnsB) {
+                this.decide(a, b, holding.contains(this.pair(a, b)) ? HOLDS : FAILS, false, newlyHolding);
+                this.decide(b, a, holding.contains(this.pair(b, a)) ? HOLDS : FAILS, false, newlyHolding);
+            }
+        }
+        return newlyHolding;
+    }
+
+    // Records that the given candidate fails without validating it, e.g. because a Bloom filter proves that a value
+    // of the dependent column is missing in the referenced column, and propagates this result.
+    public void refute(ColumnId dependent, ColumnId referenced) {
+        this.decide(this.columnIndices.get(dependent), this.columnIndices.get(referenced), FAILS, true, new ArrayList<>());
+    }
+
+    // Returns true if the given candidate is not decided yet
+    public boolean isUndecided(ColumnId dependent, ColumnId referenced) {
+        return this.status[this.columnIndices.get(dependent)][this.columnIndices.get(referenced)] == UNKNOWN;
+    }
+
+    public long getValidatedPairs() {
+        return this.validatedPairs;
+    }
+
+    public long getInferredPairs() {
+        return this.inferredPairs;
+    }
+
+    public long getPrunedPairs() {
+        return this.prunedPairs;
+    }
+
+    public long getRefutedPairs() {
+        return this.refutedPairs;
+    }
+
+    private void decide(int dependent, int referenced, byte decision, boolean refuted, List<InclusionDependency> newlyHolding) {
+        if (dependent == referenced || this.status[dependent][referenced] != UNKNOWN)
+            return;
+
+        Deque<long[]> decisions = new ArrayDeque<>();
+        decisions.push(new long[]{dependent, referenced, decision});
+        boolean first = true;
+        while (!decisions.isEmpty()) {
+            long[] next = decisions.pop();
+            int d = (int) next[0];
+            int r = (int) next[1];
+            byte s = (byte) next[2];
+            if (d == r || this.status[d][r] != UNKNOWN)
+                continue;
+
+            this.status[d][r] = s;
+            if (first && refuted)
+                this.refutedPairs++;
+            else if (first)
+                this.validatedPairs++;
+            else
+                this.inferredPairs++;
+            first = false;
+
+            for (int x = 0; x < this.columns.size(); x++) {
+                if (s == HOLDS) {
+                    if (this.status[x][d] == HOLDS)
+                        decisions.push(new long[]{x, r, HOLDS});
+                    if (this.status[r][x] == HOLDS)
+                        decisions.push(new long[]{d, x, HOLDS});
+                    if (this.status[d][x] == FAILS)
+                        decisions.push(new long[]{r, x, FAILS});
+                    if (this.status[x][r] == FAILS)
+                        decisions.push(new long[]{x, d, FAILS});
+                } else {
+                    if (this.status[d][x] == HOLDS)
+                        decisions.push(new long[]{x, r, FAILS});
+                    if (this.status[x][r] == HOLDS)
+                        decisions.push(new long[]{d, x, FAILS});
+                }
+            }
+
+            if (s == HOLDS) {
+                ColumnId dependentColumn = this.columns.get(d);
+                ColumnId referencedColumn = this.columns.get(r);
+                newlyHolding.add(new InclusionDependency(
+                    dependentColumn.getTableName(), referencedColumn.getTableName(),
+                    dependentColumn.getColumnName(), referencedColumn.getColumnName()));
+            }
+        }
+    }
+
+    private int[] indicesOf(String tableName, List<String> columnNames) {
+        return columnNames.stream().mapToInt(columnName -> this.columnIndices.get(new ColumnId(tableName, columnName))).toArray();
+    }
+
+    private boolean hasUndecided(int column, int[] others) {
+        for (int other : others)
+            if (other != column && (this.status[column][other] == UNKNOWN || this.status[other][column] == UNKNOWN))
+                return true;
+        return false;
+    }
+
+    // the candidates of a task in both directions; intra-table tasks may count a pair twice, like their validation does
+    private long countPairs(int[] columnsA, int[] columnsB) {
+        long pairs = 0;
+        for (int a : columnsA)
+            for (int b : columnsB)
+                if (a != b)
+                    pairs += 2;
+        return pairs;
+    }
+
+    private long pair(int dependent, int referenced) {
+        return ((long) dependent << 32) | referenced;
+    }
+}
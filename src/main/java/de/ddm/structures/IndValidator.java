@@ -0,0 +1,12 @@
+package de.ddm.structures;
+
+import java.util.List;
+import java.util.Map;
+
+// Checks the IND candidates of a Task; for unary tasks, every column of table A against every column of table B in both directions.
+// The columns arrive as the ascending global ids of their distinct values (or value combinations), see IdDictionary.
+public interface IndValidator {
+
+    List<InclusionDependency> validate(Task task, Map<String, int[]> distinctValuesA, Map<String, int[]> distinctValuesB);
+
+}
@@ -1,6 +1,14 @@
 package de.ddm.structures;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 public class LocalDataStorage {
@@ -52,19 +60,92 @@ public class LocalDataStorage {
         });
     }
 
+    public void addBatch(String tableName, ColumnBatch batch) {
+        List<Column> content = this.contentList.get(tableName);
+        if (batch.getNumRows() == 0)
+            return;
+        assert batch.getNumColumns() == content.size()
+            : "row length " + batch.getNumColumns() + " does not match header length " + content.size();
+
+        for (int i = 0; i < content.size(); ++i) {
+            content.get(i).addAll(batch.getDictionaries()[i], batch.isDistinctOnly() ? null : batch.getCodes()[i], batch.getNumRows());
+        }
+    }
+
+    // Saves the dictionaries and codes of all columns of the given table in a binary columnar file on the given
+    // executor, see ColumnarSnapshot. The table must be frozen, see freeze(), so that its columns do not change meanwhile.
+    public CompletableFuture<Void> saveSnapshot(String tableName, String fingerprint, File file, Executor executor) {
+        List<String> header = new ArrayList<>(this.headerList.get(tableName));
+        List<Column> columns = new ArrayList<>(this.contentList.get(tableName));
+        for (Column column : columns)
+            if (!column.isFrozen())
+                throw new IllegalStateException("Table " + tableName + " must be frozen before it is saved as a snapshot.");
+        return CompletableFuture.runAsync(() -> {
+            try {
+                ColumnarSnapshot.write(tableName, header, columns, fingerprint, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    // Adds the given table from its snapshot file, if the file was saved for the given fingerprint.
+    //
+    // Returns true if the table was loaded
+    public boolean loadSnapshot(String tableName, String fingerprint, File file) throws IOException {
+        return ColumnarSnapshot.read(this, tableName, fingerprint, file);
+    }
+
+    // Freezes all columns of the given table, once it is read completely, see Column::freeze.
+    public void freeze(String tableName, IdDictionary<String> dictionary) {
+        for (Column column : this.contentList.get(tableName))
+            column.freeze(dictionary);
+    }
+
+    // Estimated number of bytes that the columns of the given table occupy on the heap, see Column::getMemorySize.
+    public long getMemorySize(String tableName) {
+        long memorySize = 0;
+        for (Column column : this.contentList.get(tableName))
+            memorySize += column.getMemorySize();
+        return memorySize;
+    }
+
+    // The number of rows of the given table; tables of distinct-only batches have no row count, see Column::hasAllRows.
+    public int getNumRows(String tableName) {
+        List<Column> content = this.contentList.get(tableName);
+        if (content.isEmpty())
+            return 0;
+        if (!content.get(0).hasAllRows())
+            throw new IllegalStateException("Table " + tableName + " holds the distinct values of its columns only, not its rows.");
+        return content.get(0).size();
+    }
+
     public Column getColumn(String tableName, String columnName) {
         int index = headerList.get(tableName).indexOf(columnName);
         return this.contentList.get(tableName).get(index);
     }
 
-    public static void main(String args[]) {
-        LocalDataStorage store = new LocalDataStorage();
-        
-        store.addTable("1", Arrays.asList("A","B", "C", "D"));
-        store.addRow("1", Arrays.asList("e","f", "g", "h"));
-        store.addRow("1", Arrays.asList("i","j", "k", "l"));
-        store.addRow("1", Arrays.asList("x","y", "z", "w"));
+    // The ascending ids of the distinct value combinations of the given columns. Each combination is the list of its
+    // values' global ids, and the given dictionary numbers these lists, so all combinations that are compared with each
+    // other must share it, see DistinctTupleCache.
+    public int[] getDistinctTuples(String tableName, List<String> columnNames, IdDictionary<IntArrayList> tupleDictionary) {
+        Column[] columns = new Column[columnNames.size()];
+        for (int i = 0; i < columns.length; i++)
+            columns[i] = this.getColumn(tableName, columnNames.get(i));
+
+        // one key for all rows; the dictionary copies only the combinations that it has not seen yet
+        int[] tuple = new int[columns.length];
+        IntArrayList key = IntArrayList.wrap(tuple);
+        IntOpenHashSet tuples = new IntOpenHashSet();
+        int numRows = this.getNumRows(tableName);
+        for (int row = 0; row < numRows; row++) {
+            for (int i = 0; i < tuple.length; i++)
+                tuple[i] = columns[i].getId(row);
+            tuples.add(tupleDictionary.getId(key, IntArrayList::clone));
+        }
 
-        System.out.println(store.getColumn("1", "B").toString());
+        int[] ids = tuples.toIntArray();
+        Arrays.sort(ids);
+        return ids;
     }
 }
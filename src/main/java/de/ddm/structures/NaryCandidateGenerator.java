@@ -0,0 +1,68 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// Apriori-style generation of n-ary IND candidates: two valid INDs of the same tables that agree on all but their
+// last column pair are joined into a candidate with one more pair, and a candidate is only kept if all of its
+// sub-INDs with one pair less are valid. Dependent columns are kept in lexicographic order, so every column
+// combination is generated once.
+public class NaryCandidateGenerator {
+
+    private NaryCandidateGenerator() {}
+
+    // The candidates of arity n+1 from all valid INDs of arity n.
+    public static List<InclusionDependency> generate(Collection<InclusionDependency> valid) {
+        Set<InclusionDependency> validSet = new HashSet<>(valid);
+
+        Map<List<Object>, List<InclusionDependency>> byPrefix = new LinkedHashMap<>();
+        for (InclusionDependency ind : valid) {
+            int prefixLength = ind.arity() - 1;
+            List<Object> prefix = Arrays.asList(
+                ind.getDependentTable(), ind.getReferencedTable(),
+                ind.getDependentColumns().subList(0, prefixLength), ind.getReferencedColumns().subList(0, prefixLength));
+            byPrefix.computeIfAbsent(prefix, p -> new ArrayList<>()).add(ind);
+        }
+
+        List<InclusionDependency> candidates = new ArrayList<>();
+        for (List<InclusionDependency> group : byPrefix.values()) {
+            for (InclusionDependency p : group) {
+                for (InclusionDependency q : group) {
+                    String dependentQ = last(q.getDependentColumns());
+                    String referencedQ = last(q.getReferencedColumns());
+                    if (last(p.getDependentColumns()).compareTo(dependentQ) >= 0 || p.getReferencedColumns().contains(referencedQ))
+                        continue;
+
+                    InclusionDependency candidate = new InclusionDependency(
+                        p.getDependentTable(), p.getReferencedTable(),
+                        append(p.getDependentColumns(), dependentQ), append(p.getReferencedColumns(), referencedQ));
+                    if (allSubDependenciesValid(candidate, validSet))
+                        candidates.add(candidate);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean allSubDependenciesValid(InclusionDependency candidate, Set<InclusionDependency> valid) {
+        // dropping one of the last two pairs yields the joined INDs themselves
+        for (int i = 0; i < candidate.arity() - 2; i++) {
+            List<String> dependentColumns = new ArrayList<>(candidate.getDependentColumns());
+            List<String> referencedColumns = new ArrayList<>(candidate.getReferencedColumns());
+            dependentColumns.remove(i);
+            referencedColumns.remove(i);
+            if (!valid.contains(new InclusionDependency(candidate.getDependentTable(), candidate.getReferencedTable(), dependentColumns, referencedColumns)))
+                return false;
+        }
+        return true;
+    }
+
+    private static String last(List<String> columns) {
+        return columns.get(columns.size() - 1);
+    }
+
+    private static List<String> append(List<String> columns, String column) {
+        List<String> appended = new ArrayList<>(columns);
+        appended.add(column);
+        return appended;
+    }
+}
@@ -0,0 +1,31 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// Checks the n-ary candidates of a Task with one merge over the ascending ids of the distinct value combinations of their columns.
+public class NaryValidator implements IndValidator {
+
+    @Override
+    public List<InclusionDependency> validate(Task task, Map<String, int[]> distinctValuesA, Map<String, int[]> distinctValuesB) {
+        List<InclusionDependency> inclusionDeps = new ArrayList<>();
+        for (InclusionDependency candidate : task.getCandidates()) {
+            int[] tuplesA = distinctValuesA.get(Task.getCombinationKey(candidate.getDependentColumns()));
+            int[] tuplesB = distinctValuesB.get(Task.getCombinationKey(candidate.getReferencedColumns()));
+            if (tuplesA.length <= tuplesB.length && containsAll(tuplesB, tuplesA))
+                inclusionDeps.add(candidate);
+        }
+        return inclusionDeps;
+    }
+
+    // both arrays are ascending and free of duplicates
+    private static boolean containsAll(int[] referenced, int[] dependent) {
+        int position = 0;
+        for (int id : dependent) {
+            while (position < referenced.length && referenced[position] < id)
+                position++;
+            if (position == referenced.length || referenced[position] != id)
+                return false;
+        }
+        return true;
+    }
+}
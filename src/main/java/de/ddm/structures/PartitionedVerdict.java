@@ -0,0 +1,37 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// Combines the results of all value-hash partitions of a partitioned Task: an IND holds only if it holds in every partition.
+public class PartitionedVerdict {
+    private final BitSet completedPartitions;
+    private final int numPartitions;
+    private Set<InclusionDependency> inclusionDependencies = null;
+
+    public PartitionedVerdict(int numPartitions) {
+        this.numPartitions = numPartitions;
+        this.completedPartitions = new BitSet(numPartitions);
+    }
+
+    // Adds the INDs that hold in one partition; repeated results of the same partition are ignored.
+    //
+    // Returns true, once all partitions have been added
+    public boolean add(int partition, Collection<InclusionDependency> partitionDependencies) {
+        if (!this.completedPartitions.get(partition)) {
+            this.completedPartitions.set(partition);
+            if (this.inclusionDependencies == null)
+                this.inclusionDependencies = new HashSet<>(partitionDependencies);
+            else
+                this.inclusionDependencies.retainAll(partitionDependencies);
+        }
+        return this.isComplete();
+    }
+
+    public boolean isComplete() {
+        return this.completedPartitions.cardinality() == this.numPartitions;
+    }
+
+    public List<InclusionDependency> getInclusionDependencies() {
+        return new ArrayList<>(this.inclusionDependencies);
+    }
+}
@@ -0,0 +1,12 @@
+package de.ddm.structures;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+// Reads the records of an input file one after the other, see InputConfiguration::createRecordReader.
+public interface RecordReader extends Closeable {
+
+    // Returns the fields of the next record or null if there are no more records
+    String[] readNext() throws IOException;
+
+}
@@ -0,0 +1,76 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// Combines the candidates of all SINDY partitions: a column is included in another one only if it is in all partitions.
+public class SindyCandidates {
+    private final List<ColumnId> columns;
+    private final int numPartitions;
+    private final BitSet completedPartitions;
+    // null while no partition constrained the column yet
+    private final BitSet[] candidates;
+
+    public SindyCandidates(List<ColumnId> columns, int numPartitions) {
+        this.columns = columns;
+        this.numPartitions = numPartitions;
+        this.completedPartitions = new BitSet(numPartitions);
+        this.candidates = new BitSet[columns.size()];
+    }
+
+    public List<ColumnId> getColumns() {
+        return this.columns;
+    }
+
+    public int getNumPartitions() {
+        return this.numPartitions;
+    }
+
+    public boolean isCompleted(int partition) {
+        return this.completedPartitions.get(partition);
+    }
+
+    // Adds the candidates of one partition, see SindyPartition::getCandidates; repeated results of the same partition are ignored.
+    //
+    // Returns true, once all partitions have been added
+    public boolean add(int partition, int[][] partitionCandidates) {
+        if (!this.completedPartitions.get(partition)) {
+            this.completedPartitions.set(partition);
+            for (int column = 0; column < partitionCandidates.length; column++) {
+                if (partitionCandidates[column] == null)
+                    continue;
+
+                BitSet referenced = new BitSet(this.columns.size());
+                for (int reference : partitionCandidates[column])
+                    referenced.set(reference);
+                if (this.candidates[column] == null)
+                    this.candidates[column] = referenced;
+                else
+                    this.candidates[column].and(referenced);
+            }
+        }
+        return this.isComplete();
+    }
+
+    public boolean isComplete() {
+        return this.completedPartitions.cardinality() == this.numPartitions;
+    }
+
+    public List<InclusionDependency> getInclusionDependencies() {
+        List<InclusionDependency> inclusionDeps = new ArrayList<>();
+        for (int dependent = 0; dependent < this.columns.size(); dependent++) {
+            for (int referenced = 0; referenced < this.columns.size(); referenced++) {
+                // columns without any values are included in every other column
+                boolean included = this.candidates[dependent] == null ? referenced != dependent : this.candidates[dependent].get(referenced);
+                if (!included)
+                    continue;
+
+                ColumnId dependentColumn = this.columns.get(dependent);
+                ColumnId referencedColumn = this.columns.get(referenced);
+                inclusionDeps.add(new InclusionDependency(
+                    dependentColumn.getTableName(), referencedColumn.getTableName(),
+                    dependentColumn.getColumnName(), referencedColumn.getColumnName()));
+            }
+        }
+        return inclusionDeps;
+    }
+}
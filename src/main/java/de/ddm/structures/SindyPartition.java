@@ -0,0 +1,66 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.*;
+
+// One value-hash partition of the SINDY engine: inverts the partition's column value ids into value -> attribute set
+// and intersects, for every column, the attribute sets of its values into the columns that may include it.
+public class SindyPartition {
+    private final int numColumns;
+    private final BitSet receivedColumns;
+    // the indices of all columns that contain a value; every column sends each of its values once
+    private final Int2ObjectOpenHashMap<IntArrayList> columnsByValue = new Int2ObjectOpenHashMap<>();
+
+    public SindyPartition(int numColumns) {
+        this.numColumns = numColumns;
+        this.receivedColumns = new BitSet(numColumns);
+    }
+
+    public void addColumn(int column, int[] values) {
+        if (this.receivedColumns.get(column))
+            return; // re-sent after a lost transfer
+        this.receivedColumns.set(column);
+
+        for (int value : values)
+            this.columnsByValue.computeIfAbsent(value, v -> new IntArrayList(2)).add(column);
+    }
+
+    public boolean isComplete() {
+        return this.receivedColumns.cardinality() == this.numColumns;
+    }
+
+    public int getNumValues() {
+        return this.columnsByValue.size();
+    }
+
+    // The referenced candidates of each column, i.e. the columns that contain all of its values in this partition.
+    // Columns without any value in this partition are null, because every column includes them here.
+    public int[][] getCandidates() {
+        BitSet[] candidates = new BitSet[this.numColumns];
+        BitSet attributeSet = new BitSet(this.numColumns);
+        for (IntArrayList columns : this.columnsByValue.values()) {
+            attributeSet.clear();
+            for (int i = 0; i < columns.size(); i++)
+                attributeSet.set(columns.getInt(i));
+
+            for (int i = 0; i < columns.size(); i++) {
+                int column = columns.getInt(i);
+                if (candidates[column] == null)
+                    candidates[column] = (BitSet) attributeSet.clone();
+                else
+                    candidates[column].and(attributeSet);
+            }
+        }
+
+        int[][] result = new int[this.numColumns][];
+        for (int column = 0; column < this.numColumns; column++) {
+            if (candidates[column] == null)
+                continue;
+            candidates[column].clear(column); // no trivial A c A
+            result[column] = candidates[column].stream().toArray();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// SPIDER-style validation: every column arrives as the ascending ids of its distinct values, so a single merge sweep
+// over all columns of the task intersects, for each dependent column, its remaining referenced candidates with the
+// set of columns that contain the current id.
+public class SortMergeValidator implements IndValidator {
+
+    private static class Cursor {
+        final int column;
+        final int[] values;
+        int position = 0;
+
+        Cursor(int column, int[] values) {
+            this.column = column;
+            this.values = values;
+        }
+
+        int current() {
+            return this.values[this.position];
+        }
+    }
+
+    @Override
+    public List<InclusionDependency> validate(Task task, Map<String, int[]> distinctValuesA, Map<String, int[]> distinctValuesB) {
+        boolean sameTable = task.getTableNameA().equals(task.getTableNameB());
+
+        // Index all distinct columns of the task; intra-table tasks may list a column on both sides.
+        List<String> tableNames = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+        List<int[]> sortedValues = new ArrayList<>();
+        Map<String, Integer> indicesA = new HashMap<>();
+        Map<String, Integer> indicesB = new HashMap<>();
+        distinctValuesA.forEach((column, values) ->
+            indicesA.put(column, addColumn(tableNames, columnNames, sortedValues, task.getTableNameA(), column, values)));
+        distinctValuesB.forEach((column, values) -> {
+            Integer index = sameTable ? indicesA.get(column) : null;
+            indicesB.put(column, index != null ? index : addColumn(tableNames, columnNames, sortedValues, task.getTableNameB(), column, values));
+        });
+
+        // Referenced candidates per dependent column: the other side of the task, no trivial A c A,
+        // and a dependent column can never be included in a column with fewer distinct values.
+        int numColumns = sortedValues.size();
+        BitSet[] candidates = new BitSet[numColumns];
+        for (int i = 0; i < numColumns; i++)
+            candidates[i] = new BitSet(numColumns);
+        addCandidates(candidates, sortedValues, indicesA.values(), indicesB.values());
+        addCandidates(candidates, sortedValues, indicesB.values(), indicesA.values());
+
+        this.sweep(candidates, sortedValues);
+
+        List<InclusionDependency> inclusionDeps = new ArrayList<>();
+        for (int dependent = 0; dependent < numColumns; dependent++)
+            for (int referenced = candidates[dependent].nextSetBit(0); referenced >= 0; referenced = candidates[dependent].nextSetBit(referenced + 1))
+                inclusionDeps.add(new InclusionDependency(
+                    tableNames.get(dependent), tableNames.get(referenced),
+                    columnNames.get(dependent), columnNames.get(referenced)));
+        return inclusionDeps;
+    }
+
+    private static int addColumn(List<String> tableNames, List<String> columnNames, List<int[]> sortedValues, String tableName, String columnName, int[] values) {
+        tableNames.add(tableName);
+        columnNames.add(columnName);
+        sortedValues.add(values);
+        return sortedValues.size() - 1;
+    }
+
+    private static void addCandidates(BitSet[] candidates, List<int[]> sortedValues, Collection<Integer> dependents, Collection<Integer> referenced) {
+        for (int dependent : dependents)
+            for (int reference : referenced)
+                if (dependent != reference && sortedValues.get(dependent).length <= sortedValues.get(reference).length)
+                    candidates[dependent].set(reference);
+    }
+
+    private void sweep(BitSet[] candidates, List<int[]> sortedValues) {
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>(Math.max(1, sortedValues.size()), Comparator.comparingInt(Cursor::current));
+        for (int column = 0; column < sortedValues.size(); column++)
+            if (sortedValues.get(column).length > 0)
+                cursors.add(new Cursor(column, sortedValues.get(column)));
+
+        int openDependents = 0;
+        for (BitSet candidate : candidates)
+            if (!candidate.isEmpty())
+                openDependents++;
+
+        BitSet containing = new BitSet(sortedValues.size());
+        List<Cursor> advanced = new ArrayList<>();
+        while (!cursors.isEmpty() && openDependents > 0) {
+            // Collect all columns that contain the smallest remaining value
+            int value = cursors.peek().current();
+            containing.clear();
+            advanced.clear();
+            while (!cursors.isEmpty() && cursors.peek().current() == value) {
+                Cursor cursor = cursors.poll();
+                containing.set(cursor.column);
+                advanced.add(cursor);
+            }
+
+            // Every dependent column with this value can only be included in columns that also contain it
+            for (int dependent = containing.nextSetBit(0); dependent >= 0; dependent = containing.nextSetBit(dependent + 1)) {
+                BitSet candidate = candidates[dependent];
+                if (candidate.isEmpty())
+                    continue;
+                candidate.and(containing);
+                if (candidate.isEmpty())
+                    openDependents--;
+            }
+
+            for (Cursor cursor : advanced)
+                if (++cursor.position < cursor.values.length)
+                    cursors.add(cursor);
+        }
+    }
+}
@@ -1,19 +1,98 @@
 package de.ddm.structures;
 
+import it.unimi.dsi.fastutil.HashCommon;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
+import java.util.Arrays;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 @AllArgsConstructor
+@NoArgsConstructor
 @Getter
 public class Task {
-    private final String tableNameA;
-    private final String tableNameB;
-    private final List<String> columnNamesA;
-    private final List<String> columnNamesB;
+    private String tableNameA;
+    private String tableNameB;
+    private List<String> columnNamesA;
+    private List<String> columnNamesB;
+
+    // Columns that are too large for one task are split by value hash: this task only covers the values of the given
+    // partition, and an IND holds only if it holds in all numPartitions partitions.
+    private int partition;
+    private int numPartitions;
+
+    // N-ary tasks check only these candidates, on the distinct value combinations of their columns; their column
+    // names are the keys of these combinations, see getCombinationKey. Null for unary tasks.
+    private List<InclusionDependency> candidates;
+
+    public Task(String tableNameA, String tableNameB, List<String> columnNamesA, List<String> columnNamesB) {
+        this(tableNameA, tableNameB, columnNamesA, columnNamesB, 0, 1);
+    }
+
+    public Task(String tableNameA, String tableNameB, List<String> columnNamesA, List<String> columnNamesB, int partition, int numPartitions) {
+        this(tableNameA, tableNameB, columnNamesA, columnNamesB, partition, numPartitions, null);
+    }
+
+    public boolean isPartitioned() {
+        return this.numPartitions > 1;
+    }
+
+    public boolean isNary() {
+        return this.candidates != null;
+    }
+
+    // Partitions and value combinations are only used by a single task, so they bypass the workers' column caches.
+    public boolean usesColumnCache() {
+        return !this.isPartitioned() && !this.isNary();
+    }
+
+    public static String getCombinationKey(List<String> columnNames) {
+        return String.join(",", columnNames);
+    }
+
+    // The columns of the given combination key of an n-ary task.
+    public List<String> getCombination(String combinationKey) {
+        for (InclusionDependency candidate : this.candidates) {
+            if (getCombinationKey(candidate.getDependentColumns()).equals(combinationKey))
+                return candidate.getDependentColumns();
+            if (getCombinationKey(candidate.getReferencedColumns()).equals(combinationKey))
+                return candidate.getReferencedColumns();
+        }
+        throw new NoSuchElementException(combinationKey);
+    }
+
+    // Identifies the columns of this task, i.e. it is the same for all partitions of a partitioned task.
+    public String getColumnsKey() {
+        return String.format("(%s%s,%s%s)", this.tableNameA, this.columnNamesA, this.tableNameB, this.columnNamesB);
+    }
+
+    // The value-hash partition of the given global value id, or of the hash of a value combination's ids.
+    public static int partitionOf(int id, int numPartitions) {
+        return Math.floorMod(HashCommon.mix(id), numPartitions);
+    }
+
+    // Splits the given ascending ids into all value-hash partitions in one pass; every partition stays ascending.
+    public static int[][] partition(int[] ids, int numPartitions) {
+        int[] sizes = new int[numPartitions];
+        for (int id : ids)
+            sizes[partitionOf(id, numPartitions)]++;
+
+        int[][] partitions = new int[numPartitions][];
+        for (int partition = 0; partition < numPartitions; partition++)
+            partitions[partition] = new int[sizes[partition]];
+        Arrays.fill(sizes, 0);
+        for (int id : ids) {
+            int partition = partitionOf(id, numPartitions);
+            partitions[partition][sizes[partition]++] = id;
+        }
+        return partitions;
+    }
 
     @Override
     public String toString(){
-        return String.format("(%s%s,%s%s)", this.tableNameA, this.columnNamesA, this.tableNameB, this.columnNamesB);
+        if (this.isPartitioned())
+            return String.format("%s#%d/%d", this.getColumnsKey(), this.partition, this.numPartitions);
+        return this.getColumnsKey();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package de.ddm.structures;
+
+import java.util.List;
+
+// Estimates what the distinct values of a column, or the distinct value combinations of some columns, cost the
+// worker that validates them, as a fraction of a task budget. A task side holds their ids on the worker's heap, and
+// the validation touches each of them, so the cost is the larger of both shares: the ids' bytes of the byte budget
+// and their number of the value budget. The estimates rest on the exact distinct count of every Column.
+//
+// Cardinality sketches such as HyperLogLog would only approximate these counts: the dictionary of every Column knows
+// them exactly and for free, and the columns are complete before their tasks are generated. The size of the values
+// does not matter either, because tasks carry 4-byte global ids and the strings never leave the master, see
+// IdDictionary; Column::getMemorySize accounts for the values on the master's heap instead.
+public class TaskCostModel {
+
+    // The sorted id array plus the hash set that the HASH engine builds of it at the default load factor.
+    private static final int BYTES_PER_ID = Integer.BYTES + 6;
+
+    private final long byteBudget;
+    private final long valueBudget;
+
+    public TaskCostModel(long byteBudget, long valueBudget) {
+        this.byteBudget = Math.max(1, byteBudget);
+        this.valueBudget = Math.max(1, valueBudget);
+    }
+
+    public double cost(Column column) {
+        return this.cost(column.getDistinctCount());
+    }
+
+    // The cost of the distinct value combinations of the given columns. Their number is bounded by the number of
+    // rows and by the product of the columns' distinct counts, and every combination gets one id.
+    public double cost(LocalDataStorage dataStorage, String tableName, List<String> columnNames) {
+        if (columnNames.size() == 1)
+            return this.cost(dataStorage.getColumn(tableName, columnNames.get(0)));
+
+        long combinations = 1;
+        long numRows = 0;
+        for (String columnName : columnNames) {
+            Column column = dataStorage.getColumn(tableName, columnName);
+            long distinctCount = Math.max(1, column.getDistinctCount());
+            combinations = combinations > Long.MAX_VALUE / distinctCount ? Long.MAX_VALUE : combinations * distinctCount;
+            numRows = column.size();
+        }
+        return this.cost(Math.min(combinations, numRows));
+    }
+
+    private double cost(long ids) {
+        return Math.max(ids * BYTES_PER_ID / (double) this.byteBudget, ids / (double) this.valueBudget);
+    }
+}
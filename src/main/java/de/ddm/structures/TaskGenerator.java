@@ -3,8 +3,11 @@ package de.ddm.structures;
 import java.util.*;
 
 public class TaskGenerator {
+    // each side of a task may take half of the task budget, see TaskCostModel
+    private static final double SIDE_BUDGET = 0.5;
+
     private LocalDataStorage dataStorage;
-    private final int memoryBudget;
+    private final TaskCostModel costModel;
 
     private String tableNameA;
     private String tableNameB;
@@ -13,11 +16,14 @@ public class TaskGenerator {
 
     private List<String> taskHeaderA = new ArrayList<>();
     private List<String> taskHeaderB = new ArrayList<>();
+    // the costs of the current task's sides, as fractions of the task budget
+    private double costA = 0;
+    private double costB = 0;
     private List<Task> generatedTasks = new ArrayList<>();
 
-    private TaskGenerator(LocalDataStorage dataStorage, int memoryBudget, String tableNameA, String tableNameB){
+    private TaskGenerator(LocalDataStorage dataStorage, TaskCostModel costModel, String tableNameA, String tableNameB){
         this.dataStorage = dataStorage;
-        this.memoryBudget = memoryBudget;
+        this.costModel = costModel;
         this.tableNameA = tableNameA;
         this.tableNameB = tableNameB;
         this.headerA = this.dataStorage.getHeader(tableNameA);
@@ -25,52 +31,117 @@ public class TaskGenerator {
     }
 
     private void generateTask(){
-        this.generatedTasks.add(new Task(
-            this.tableNameA, this.tableNameB,
-            this.taskHeaderA, this.taskHeaderB));
+        // A single column may exceed the budget on its own; then the task is split into value-hash partitions
+        // that each fit the budget.
+        int numPartitions = numPartitions(Math.max(this.costA, this.costB));
+
+        for (int partition = 0; partition < numPartitions; partition++)
+            this.generatedTasks.add(new Task(
+                this.tableNameA, this.tableNameB,
+                this.taskHeaderA, this.taskHeaderB,
+                partition, numPartitions));
     }
 
     private void runTableBGeneration(){
-        int memoryUsed = 0;
+        this.taskHeaderB = new ArrayList<>();
+        double cost = 0;
         for (String columnNameB: this.headerB) {
-            Column columnB = this.dataStorage.getColumn(tableNameB, columnNameB);
+            double columnCost = this.costModel.cost(this.dataStorage.getColumn(tableNameB, columnNameB));
 
-            // If we exceed memory budget, we want to create partial-table tasks
-            // The `memoryUsed != 0` condition ensures that we always use at least 1 column.
-            if (memoryUsed != 0 && memoryUsed + columnB.getMemorySize() > this.memoryBudget / 2) {
+            // If we exceed the budget, we want to create partial-table tasks
+            // The `!this.taskHeaderB.isEmpty()` condition ensures that we always use at least 1 column.
+            if (!this.taskHeaderB.isEmpty() && cost + columnCost > SIDE_BUDGET) {
                 this.generateTask();
                 this.taskHeaderB = new ArrayList<>();
-                memoryUsed = 0;
+                cost = 0;
             }
 
             this.taskHeaderB.add(columnNameB);
-            memoryUsed += columnB.getMemorySize();
+            cost += columnCost;
+            this.costB = cost;
         }
         this.generateTask();
     }
 
     private void runTableAGeneration(){
-        int memoryUsed = 0;
+        double cost = 0;
         for (String columnNameA: this.headerA) {
-            Column columnA = this.dataStorage.getColumn(tableNameA, columnNameA);
+            double columnCost = this.costModel.cost(this.dataStorage.getColumn(tableNameA, columnNameA));
 
-            // If we exceed memory budget, we want to create partial-table tasks.
-            // The `memoryUsed != 0` condition ensures that we always use at least 1 column.
-            if (memoryUsed != 0 && memoryUsed + columnA.getMemorySize() > this.memoryBudget / 2) {
+            // If we exceed the budget, we want to create partial-table tasks.
+            // The `!this.taskHeaderA.isEmpty()` condition ensures that we always use at least 1 column.
+            if (!this.taskHeaderA.isEmpty() && cost + columnCost > SIDE_BUDGET) {
                 this.runTableBGeneration();
                 this.taskHeaderA = new ArrayList<>();
-                memoryUsed = 0;
+                cost = 0;
             }
 
             this.taskHeaderA.add(columnNameA);
-            memoryUsed += columnA.getMemorySize();
+            cost += columnCost;
+            this.costA = cost;
         }
         this.runTableBGeneration();
     }
 
-    public static List<Task> run(LocalDataStorage dataStorage, int memoryBudget, String tableNameA, String tableNameB){
-        TaskGenerator gen = new TaskGenerator(dataStorage, memoryBudget, tableNameA, tableNameB);
+    public static List<Task> run(LocalDataStorage dataStorage, TaskCostModel costModel, String tableNameA, String tableNameB){
+        TaskGenerator gen = new TaskGenerator(dataStorage, costModel, tableNameA, tableNameB);
         gen.runTableAGeneration();
         return gen.generatedTasks;
     }
+
+    // Groups n-ary candidates into tasks per pair of dependent and referenced table. Like unary tasks, each task
+    // targets the task budget with its value combinations, estimated by the cost model.
+    public static List<Task> runNary(LocalDataStorage dataStorage, TaskCostModel costModel, List<InclusionDependency> candidates){
+        Map<List<String>, List<InclusionDependency>> candidatesByTables = new LinkedHashMap<>();
+        for (InclusionDependency candidate : candidates)
+            candidatesByTables.computeIfAbsent(Arrays.asList(candidate.getDependentTable(), candidate.getReferencedTable()), tables -> new ArrayList<>()).add(candidate);
+
+        List<Task> tasks = new ArrayList<>();
+        candidatesByTables.forEach((tables, tableCandidates) -> {
+            List<InclusionDependency> taskCandidates = new ArrayList<>();
+            Set<String> combinationsA = new LinkedHashSet<>();
+            Set<String> combinationsB = new LinkedHashSet<>();
+            double costA = 0;
+            double costB = 0;
+            for (InclusionDependency candidate : tableCandidates) {
+                String combinationA = Task.getCombinationKey(candidate.getDependentColumns());
+                String combinationB = Task.getCombinationKey(candidate.getReferencedColumns());
+                double combinationCostA = combinationsA.contains(combinationA) ? 0 : costModel.cost(dataStorage, tables.get(0), candidate.getDependentColumns());
+                double combinationCostB = combinationsB.contains(combinationB) ? 0 : costModel.cost(dataStorage, tables.get(1), candidate.getReferencedColumns());
+
+                // The `!taskCandidates.isEmpty()` condition ensures that we always use at least 1 candidate.
+                if (!taskCandidates.isEmpty() && (costA + combinationCostA > SIDE_BUDGET || costB + combinationCostB > SIDE_BUDGET)) {
+                    addNaryTasks(tasks, tables, combinationsA, combinationsB, Math.max(costA, costB), taskCandidates);
+                    taskCandidates = new ArrayList<>();
+                    combinationsA = new LinkedHashSet<>();
+                    combinationsB = new LinkedHashSet<>();
+                    costA = 0;
+                    costB = 0;
+                    combinationCostA = costModel.cost(dataStorage, tables.get(0), candidate.getDependentColumns());
+                    combinationCostB = costModel.cost(dataStorage, tables.get(1), candidate.getReferencedColumns());
+                }
+
+                taskCandidates.add(candidate);
+                combinationsA.add(combinationA);
+                combinationsB.add(combinationB);
+                costA += combinationCostA;
+                costB += combinationCostB;
+            }
+            addNaryTasks(tasks, tables, combinationsA, combinationsB, Math.max(costA, costB), taskCandidates);
+        });
+        return tasks;
+    }
+
+    private static void addNaryTasks(List<Task> tasks, List<String> tables, Set<String> combinationsA, Set<String> combinationsB, double largestSide, List<InclusionDependency> candidates) {
+        int numPartitions = numPartitions(largestSide);
+        for (int partition = 0; partition < numPartitions; partition++)
+            tasks.add(new Task(
+                tables.get(0), tables.get(1),
+                new ArrayList<>(combinationsA), new ArrayList<>(combinationsB),
+                partition, numPartitions, candidates));
+    }
+
+    private static int numPartitions(double largestSide) {
+        return (int) Math.max(1, Math.ceil(largestSide / SIDE_BUDGET));
+    }
 }
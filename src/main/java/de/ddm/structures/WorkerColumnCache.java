@@ -0,0 +1,59 @@
+package de.ddm.structures;
+
+import java.util.*;
+
+// The DependencyMiner's view of the columns that one DependencyWorker keeps in its LRU column cache.
+// The miner decides which columns enter and leave the cache and tells the worker in each TaskMessage,
+// so this view and the worker's actual cache never diverge.
+public class WorkerColumnCache {
+    private final long budget;
+
+    // access-ordered, i.e. the least recently used column comes first
+    private final LinkedHashMap<ColumnId, Long> columnSizes = new LinkedHashMap<>(16, 0.75f, true);
+    private long size = 0;
+
+    public WorkerColumnCache(long budget) {
+        this.budget = budget;
+    }
+
+    public boolean contains(ColumnId column) {
+        return this.columnSizes.containsKey(column);
+    }
+
+    public Set<ColumnId> getColumns() {
+        return Collections.unmodifiableSet(this.columnSizes.keySet());
+    }
+
+    public long getSize() {
+        return this.size;
+    }
+
+    // Records that a task over `taskColumns` is sent to the worker together with the data of `addedColumns`.
+    // Cached task columns become most recently used, the added columns are cached, and least recently used
+    // columns that the task does not need are evicted until the budget is met. A single task may exceed the
+    // budget on its own; its columns are then evicted by the following tasks.
+    //
+    // Returns the columns that the worker has to drop from its cache
+    public List<ColumnId> admit(Set<ColumnId> taskColumns, Map<ColumnId, Long> addedColumns) {
+        for (ColumnId column : taskColumns)
+            this.columnSizes.get(column); // touch
+
+        addedColumns.forEach((column, columnSize) -> {
+            Long previous = this.columnSizes.put(column, columnSize);
+            this.size += columnSize - (previous == null ? 0 : previous);
+        });
+
+        List<ColumnId> evicted = new ArrayList<>();
+        Iterator<Map.Entry<ColumnId, Long>> iterator = this.columnSizes.entrySet().iterator();
+        while (this.size > this.budget && iterator.hasNext()) {
+            Map.Entry<ColumnId, Long> entry = iterator.next();
+            if (taskColumns.contains(entry.getKey()))
+                continue;
+
+            iterator.remove();
+            this.size -= entry.getValue();
+            evicted.add(entry.getKey());
+        }
+        return evicted;
+    }
+}
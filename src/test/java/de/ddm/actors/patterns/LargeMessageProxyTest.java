@@ -0,0 +1,139 @@
+package de.ddm.actors.patterns;
+
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.testkit.typed.javadsl.TestProbe;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.ActorRefResolver;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Behaviors;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.profiling.DependencyMiner;
+import de.ddm.actors.profiling.DependencyWorker;
+import de.ddm.configuration.SystemConfiguration;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.ColumnBatch;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LargeMessageProxyTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	private static ActorTestKit senderKit;
+	private static ActorTestKit receiverKit;
+	private static TestProbe<LargeMessageProxy.LargeMessage> senderParent;
+	private static TestProbe<LargeMessageProxy.LargeMessage> receiverParent;
+	private static ActorRef<LargeMessageProxy.Message> senderProxy;
+	// sends one chunk at a time, i.e. waits for the ack of every chunk
+	private static ActorRef<LargeMessageProxy.Message> stopAndWaitSenderProxy;
+	// the receiver's proxy as the sender system sees it, i.e. as a remote actor
+	private static ActorRef<LargeMessageProxy.Message> remoteReceiverProxy;
+
+	private static Config config() {
+		return ConfigFactory.parseString("" +
+				"akka.actor.provider = remote\n" +
+				"akka.remote.artery.canonical.hostname = \"127.0.0.1\"\n" +
+				"akka.remote.artery.canonical.port = 0\n" +
+				"akka.serialization.jackson.allowed-class-prefix = [\"de.ddm\"]")
+				.withFallback(ConfigFactory.load("application"));
+	}
+
+	// An actor with a large message proxy child at a path of Artery's large-message-destinations
+	private static ActorRef<LargeMessageProxy.Message> spawnProxy(ActorTestKit testKit, TestProbe<LargeMessageProxy.LargeMessage> parent, String name, int windowSize) {
+		TestProbe<ActorRef<LargeMessageProxy.Message>> proxy = testKit.createTestProbe();
+		Behavior<Void> endpoint = Behaviors.setup(context -> {
+			proxy.ref().tell(context.spawn(LargeMessageProxy.create(parent.ref(), windowSize), LargeMessageProxy.DEFAULT_NAME));
+			return Behaviors.empty();
+		});
+		testKit.spawn(endpoint, name);
+		return proxy.receiveMessage(TIMEOUT);
+	}
+
+	@BeforeClass
+	public static void setUp() {
+		senderKit = ActorTestKit.create("test", config());
+		receiverKit = ActorTestKit.create("test", config());
+		senderParent = senderKit.createTestProbe();
+		receiverParent = receiverKit.createTestProbe();
+		senderProxy = spawnProxy(senderKit, senderParent, "endpoint", LargeMessageProxy.DEFAULT_WINDOW_SIZE);
+		stopAndWaitSenderProxy = spawnProxy(senderKit, senderParent, "stopAndWaitEndpoint", 1);
+		ActorRef<LargeMessageProxy.Message> receiverProxy = spawnProxy(receiverKit, receiverParent, "endpoint", LargeMessageProxy.DEFAULT_WINDOW_SIZE);
+		remoteReceiverProxy = ActorRefResolver.get(senderKit.system()).resolveActorRef(
+				ActorRefResolver.get(receiverKit.system()).toSerializationFormat(receiverProxy));
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		senderKit.shutdownTestKit();
+		receiverKit.shutdownTestKit();
+	}
+
+	@After
+	public void resetSettings() {
+		SystemConfigurationSingleton.get().setCompression(SystemConfiguration.Compression.NONE);
+	}
+
+	// Ascending ids over several MB, so that the transfer takes many chunks of growing size; random gaps hardly compress
+	private static int[] ids(int count, boolean randomGaps) {
+		Random random = new Random(count);
+		int[] ids = new int[count];
+		for (int i = 1; i < count; i++)
+			ids[i] = ids[i - 1] + 1 + (randomGaps ? random.nextInt(1000) : i % 500);
+		return ids;
+	}
+
+	private DependencyWorker.SindyColumnMessage transfer(ActorRef<LargeMessageProxy.Message> senderProxy, DependencyWorker.SindyColumnMessage message) {
+		senderProxy.tell(new LargeMessageProxy.SendMessage(message, remoteReceiverProxy));
+		return (DependencyWorker.SindyColumnMessage) receiverParent.receiveMessage(TIMEOUT);
+	}
+
+	@Test
+	public void transfersStreamedMessagesWithEveryCompression() {
+		for (SystemConfiguration.Compression compression : SystemConfiguration.Compression.values()) {
+			SystemConfigurationSingleton.get().setCompression(compression);
+			for (boolean randomGaps : new boolean[]{false, true}) {
+				DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(senderProxy, 1, 2, 3, ids(3000000, randomGaps));
+
+				DependencyWorker.SindyColumnMessage received = this.transfer(senderProxy, message);
+				assertArrayEquals(compression + (randomGaps ? " with random gaps" : ""), message.getValues(), received.getValues());
+				assertEquals(2, received.getColumn());
+			}
+		}
+	}
+
+	@Test
+	public void transfersChunkByChunkWithAWindowOfOne() {
+		DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(stopAndWaitSenderProxy, 0, 0, 1, ids(1000000, true));
+		assertArrayEquals(message.getValues(), this.transfer(stopAndWaitSenderProxy, message).getValues());
+	}
+
+	@Test
+	public void transfersMessagesThatAreDeserializedAsAWhole() {
+		// batches have no streaming decoder, so the receiver stages their bytes
+		ColumnBatch.Builder builder = new ColumnBatch.Builder(200000);
+		for (int row = 0; row < 200000; row++)
+			builder.add(new String[]{"value " + row, Integer.toString(row % 7)});
+		DependencyMiner.BatchMessage message = new DependencyMiner.BatchMessage(1, 2, 0, 3, builder.build());
+
+		senderProxy.tell(new LargeMessageProxy.SendMessage(message, remoteReceiverProxy));
+		DependencyMiner.BatchMessage received = (DependencyMiner.BatchMessage) receiverParent.receiveMessage(TIMEOUT);
+		assertEquals(200000, received.getBatch().getNumRows());
+		assertArrayEquals(message.getBatch().getDictionaries(), received.getBatch().getDictionaries());
+		assertArrayEquals(message.getBatch().getCodes(), received.getBatch().getCodes());
+	}
+
+	@Test
+	public void passesMessagesToLocalProxiesWithoutSerialization() {
+		DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(senderProxy, 0, 0, 1, ids(10, true));
+		senderProxy.tell(new LargeMessageProxy.SendMessage(message, senderProxy));
+		assertSame(message, senderParent.receiveMessage(TIMEOUT));
+	}
+}
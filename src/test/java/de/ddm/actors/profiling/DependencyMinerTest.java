@@ -0,0 +1,176 @@
+package de.ddm.actors.profiling;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Behaviors;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.Guardian;
+import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.DomainConfiguration;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.singletons.DomainConfigurationSingleton;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.structures.InclusionDependency;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class DependencyMinerTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final long TIMEOUT_SECONDS = 30;
+
+	private InputConfiguration inputConfiguration;
+	private DomainConfiguration domainConfiguration;
+	private File inputDirectory;
+	private File resultFile;
+
+	private static Config config() {
+		return ConfigFactory.parseString("akka.actor.provider = local")
+				.withFallback(ConfigFactory.load("application"));
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		this.inputConfiguration = InputConfigurationSingleton.get();
+		this.domainConfiguration = DomainConfigurationSingleton.get();
+		this.inputDirectory = this.folder.newFolder("input");
+		this.resultFile = new File(this.folder.getRoot(), "results");
+		File resultFile = this.resultFile;
+
+		InputConfiguration inputConfiguration = new InputConfiguration();
+		inputConfiguration.setInputPath(this.inputDirectory.getPath());
+		InputConfigurationSingleton.set(inputConfiguration);
+		DomainConfigurationSingleton.set(new DomainConfiguration() {
+			@Override
+			public String getResultCollectorOutputFileName() {
+				return resultFile.getPath();
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		InputConfigurationSingleton.set(this.inputConfiguration);
+		DomainConfigurationSingleton.set(this.domainConfiguration);
+	}
+
+	private void write(String fileName, String content) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(new File(this.inputDirectory, fileName).toPath(), StandardCharsets.UTF_8)) {
+			writer.write(content);
+		}
+	}
+
+	// A worker that hands the tasks it receives to the test, and stops on its first task if it is to fail
+	private static Behavior<DependencyWorker.Message> worker(BlockingQueue<DependencyWorker.TaskMessage> tasks, boolean fails) {
+		return Behaviors.receiveMessage(message -> {
+			if (!(message instanceof DependencyWorker.TaskMessage))
+				return Behaviors.same();
+			tasks.add((DependencyWorker.TaskMessage) message);
+			return fails ? Behaviors.stopped() : Behaviors.same();
+		});
+	}
+
+	// A miner with the given workers, each behind its own large message proxy; the result collector's shutdown
+	// request to the guardian completes the future
+	private static Behavior<Guardian.Message> guardian(CompletableFuture<ActorRef<DependencyMiner.Message>> miner, CompletableFuture<Void> finished, List<Behavior<DependencyWorker.Message>> workers) {
+		return Behaviors.setup(context -> {
+			ActorRef<DependencyMiner.Message> dependencyMiner = context.spawn(DependencyMiner.create(), DependencyMiner.DEFAULT_NAME);
+			for (int i = 0; i < workers.size(); i++) {
+				ActorRef<DependencyWorker.Message> worker = context.spawn(workers.get(i), "worker" + i);
+				ActorRef<LargeMessageProxy.Message> workerProxy = context.spawn(LargeMessageProxy.create(worker.unsafeUpcast()), "workerProxy" + i);
+				dependencyMiner.tell(new DependencyMiner.RegistrationMessage(worker, workerProxy));
+			}
+			dependencyMiner.tell(new DependencyMiner.StartMessage());
+			miner.complete(dependencyMiner);
+
+			return Behaviors.receiveMessage(message -> {
+				if (message instanceof Guardian.ShutdownMessage)
+					finished.complete(null);
+				return Behaviors.same();
+			});
+		});
+	}
+
+	private static ActorSystem<Guardian.Message> start(CompletableFuture<ActorRef<DependencyMiner.Message>> miner, CompletableFuture<Void> finished, List<Behavior<DependencyWorker.Message>> workers) {
+		return ActorSystem.create(guardian(miner, finished, workers), "test", config());
+	}
+
+	private static void stop(ActorSystem<Guardian.Message> system) throws Exception {
+		system.terminate();
+		system.getWhenTerminated().toCompletableFuture().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	// Runs a miner with one worker that never answers, so that the run can only end if no task reaches the worker
+	private static void assertFinishes() throws Exception {
+		CompletableFuture<Void> finished = new CompletableFuture<>();
+		ActorSystem<Guardian.Message> system = start(new CompletableFuture<>(), finished, Collections.singletonList(Behaviors.ignore()));
+		try {
+			finished.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} finally {
+			stop(system);
+		}
+	}
+
+	@Test
+	public void finishesWhenEveryTaskIsPruned() throws Exception {
+		// the only task compares the column with itself, which is no candidate
+		this.write("single.csv", "A\n1\n2\n3\n");
+		assertFinishes();
+	}
+
+	@Test
+	public void finishesWhenTheBloomFiltersRefuteEveryCandidate() throws Exception {
+		// no value of either column is in the other one, within the table and across both tables
+		this.write("letters.csv", "X;Y\n1;a\n2;b\n3;c\n");
+		this.write("numbers.csv", "Z\n4\n5\n");
+		assertFinishes();
+	}
+
+	@Test
+	public void dropsResultsUnderTheIdOfARequeuedTask() throws Exception {
+		// A ⊆ B is the only candidate that the Bloom filters leave
+		this.write("R.csv", "A;B\n1;1\n2;2\n1;3\n");
+		BlockingQueue<DependencyWorker.TaskMessage> tasks = new LinkedBlockingQueue<>();
+		CompletableFuture<ActorRef<DependencyMiner.Message>> miner = new CompletableFuture<>();
+		CompletableFuture<Void> finished = new CompletableFuture<>();
+		ActorSystem<Guardian.Message> system = start(miner, finished, Arrays.asList(worker(tasks, true), worker(tasks, false)));
+		try {
+			// the first worker stops on its task, so the task is re-queued to the second worker under a new id
+			DependencyWorker.TaskMessage lostTask = tasks.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			DependencyWorker.TaskMessage requeuedTask = tasks.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+			assertNotNull(requeuedTask);
+			assertNotEquals(lostTask.getTaskId(), requeuedTask.getTaskId());
+
+			// a late result under the old id must not count, only the result of the re-queued task does
+			InclusionDependency ind = new InclusionDependency("R.csv", "R.csv", "A", "B");
+			miner.get().tell(new DependencyMiner.CompletionMessage(null, lostTask.getTaskId(), Collections.singletonList(ind)));
+			miner.get().tell(new DependencyMiner.CompletionMessage(null, requeuedTask.getTaskId(), Collections.emptyList()));
+			finished.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+		} finally {
+			stop(system);
+		}
+		assertEquals(Collections.emptyList(), Files.readAllLines(new File(this.resultFile.getPath() + ".txt").toPath(), StandardCharsets.UTF_8));
+	}
+}
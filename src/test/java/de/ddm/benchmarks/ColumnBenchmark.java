@@ -0,0 +1,108 @@
+package de.ddm.benchmarks;
+
+import com.opencsv.CSVReader;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.structures.Column;
+
+import java.io.File;
+import java.util.*;
+import java.util.function.*;
+
+// Compares ingest rate and retained heap of Column against the previous boxed, hash-keyed layout.
+//
+// Usage: MAVEN_OPTS=-Xmx3g mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.ddm.benchmarks.ColumnBenchmark -Dexec.args="[inputPath]"
+public class ColumnBenchmark {
+
+    // The former Column layout: boxed row data and a dictionary keyed on value.hashCode().
+    private static class BoxedColumn {
+        private final List<String> valuesByPosition = new ArrayList<>();
+        private final Map<Integer, Integer> positionByValueHash = new HashMap<>();
+        private final List<Integer> data = new ArrayList<>();
+
+        void add(String value) {
+            int index = this.positionByValueHash.computeIfAbsent(value.hashCode(), _valueHash -> {
+                this.valuesByPosition.add(value);
+                return this.valuesByPosition.size() - 1;
+            });
+            this.data.add(index);
+        }
+
+        int getDistinctCount() {
+            return this.valuesByPosition.size();
+        }
+    }
+
+    private static List<String[]> readRows(InputConfiguration config, File file) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        try (CSVReader reader = config.createCSVReader(file)) {
+            if (config.isFileHasHeader())
+                reader.readNext();
+            String[] row;
+            while ((row = reader.readNext()) != null)
+                rows.add(row);
+        }
+        return rows;
+    }
+
+    private static class Result {
+        long nanos;
+        long heap;
+        long estimate;
+        long distinct;
+    }
+
+    // Ingests all rows column by column and measures the heap retained by the resulting columns.
+    private static <C> Result measure(List<String[]> rows, int width, Supplier<C> factory, BiConsumer<C, String> add,
+                                      ToLongFunction<C> estimate, ToIntFunction<C> distinct) {
+        Result result = new Result();
+        long before = usedHeap();
+        long start = System.nanoTime();
+
+        List<C> columns = new ArrayList<>(width);
+        for (int i = 0; i < width; i++)
+            columns.add(factory.get());
+        for (String[] row : rows)
+            for (int i = 0; i < width; i++)
+                add.accept(columns.get(i), row[i]);
+
+        result.nanos = System.nanoTime() - start;
+        result.heap = usedHeap() - before;
+        result.estimate = columns.stream().mapToLong(estimate).sum();
+        result.distinct = columns.stream().mapToInt(distinct).sum();
+        return result;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static void main(String[] args) throws Exception {
+        InputConfiguration config = InputConfigurationSingleton.get();
+        if (args.length > 0)
+            config.setInputPath(args[0]);
+
+        System.out.printf("%-24s %10s | %12s %12s %12s | %12s %12s %8s%n",
+            "table", "cells", "boxed MB", "column MB", "estimate MB", "boxed c/s", "column c/s", "lost");
+
+        for (File file : config.getInputFiles()) {
+            List<String[]> rows = readRows(config, file);
+            if (rows.isEmpty())
+                continue;
+            int width = rows.get(0).length;
+            long cells = (long) rows.size() * width;
+
+            Result boxed = measure(rows, width, BoxedColumn::new, BoxedColumn::add, column -> 0L, BoxedColumn::getDistinctCount);
+            Result column = measure(rows, width, Column::new, Column::add, Column::getMemorySize, Column::getDistinctCount);
+
+            System.out.printf("%-24s %10d | %12.1f %12.1f %12.1f | %12.0f %12.0f %8d%n",
+                file.getName(), cells,
+                boxed.heap / 1048576.0, column.heap / 1048576.0, column.estimate / 1048576.0,
+                cells / (boxed.nanos / 1e9), cells / (column.nanos / 1e9),
+                column.distinct - boxed.distinct); // distinct values the hash-keyed dictionary merged away
+        }
+    }
+}
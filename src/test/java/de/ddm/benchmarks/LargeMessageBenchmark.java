@@ -0,0 +1,124 @@
+package de.ddm.benchmarks;
+
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.ActorRefResolver;
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.Behavior;
+import akka.actor.typed.javadsl.Behaviors;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.configuration.SystemConfiguration;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+// Measures the throughput of the LargeMessageProxy between two actor systems over the loopback interface, for
+// stop-and-wait transfers (a window of one chunk) and for the default window, with every compression. The payload
+// resembles column values: numeric keys, dates and names with repeated prefixes.
+//
+// Usage: MAVEN_OPTS=-Xmx4g mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.ddm.benchmarks.LargeMessageBenchmark -Dexec.args="[megabytes] [messages]"
+public class LargeMessageBenchmark {
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Payload implements LargeMessageProxy.LargeMessage {
+        private static final long serialVersionUID = 3409147830163489236L;
+        private byte[] bytes;
+    }
+
+    // An actor with a large message proxy child at a path of Artery's large-message-destinations
+    private static Behavior<LargeMessageProxy.LargeMessage> endpoint(CompletableFuture<ActorRef<LargeMessageProxy.Message>> proxy, int windowSize, Runnable onReceive) {
+        return Behaviors.setup(context -> {
+            proxy.complete(context.spawn(LargeMessageProxy.create(context.getSelf(), windowSize), LargeMessageProxy.DEFAULT_NAME));
+            return Behaviors.receiveMessage(message -> {
+                onReceive.run();
+                return Behaviors.same();
+            });
+        });
+    }
+
+    private static Config config(int port) {
+        return ConfigFactory.parseString("" +
+                "akka.actor.provider = remote\n" +
+                "akka.remote.artery.canonical.hostname = \"127.0.0.1\"\n" +
+                "akka.remote.artery.canonical.port = " + port + "\n" +
+                "akka.loglevel = INFO\n" +
+                "akka.serialization.jackson.allowed-class-prefix = [\"de.ddm\"]")
+                .withFallback(ConfigFactory.load("application"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int messages = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        StringBuilder values = new StringBuilder();
+        Random random = new Random(42);
+        while (values.length() < megabytes * 1000 * 1000)
+            values.append(random.nextInt(10000000)).append(String.format("|1995-%02d-%02d|Customer#%09d|", 1 + random.nextInt(12), 1 + random.nextInt(28), random.nextInt(1500000)));
+        byte[] bytes = values.toString().getBytes(StandardCharsets.UTF_8);
+        Payload payload = new Payload(bytes);
+
+        // one sender proxy for stop-and-wait transfers and one with the default window
+        CompletableFuture<ActorRef<LargeMessageProxy.Message>> stopAndWaitSenderProxy = new CompletableFuture<>();
+        CompletableFuture<ActorRef<LargeMessageProxy.Message>> senderProxy = new CompletableFuture<>();
+        CompletableFuture<ActorRef<LargeMessageProxy.Message>> receiverProxy = new CompletableFuture<>();
+        Object lock = new Object();
+        int[] received = {0};
+        Runnable onReceive = () -> {
+            synchronized (lock) {
+                received[0]++;
+                lock.notifyAll();
+            }
+        };
+
+        ActorSystem<Void> senderSystem = ActorSystem.create(Behaviors.setup(context -> {
+            context.spawn(endpoint(stopAndWaitSenderProxy, 1, () -> {}), "stopAndWaitSender");
+            context.spawn(endpoint(senderProxy, LargeMessageProxy.DEFAULT_WINDOW_SIZE, () -> {}), "sender");
+            return Behaviors.empty();
+        }), "benchmark", config(7901));
+        ActorSystem<Void> receiverSystem = ActorSystem.create(Behaviors.setup(context -> {
+            context.spawn(endpoint(receiverProxy, LargeMessageProxy.DEFAULT_WINDOW_SIZE, onReceive), "receiver");
+            return Behaviors.empty();
+        }), "benchmark", config(7902));
+
+        try {
+            // the receiver's proxy as the sender system sees it, i.e. as a remote actor
+            ActorRefResolver resolver = ActorRefResolver.get(senderSystem);
+            ActorRef<LargeMessageProxy.Message> remoteReceiverProxy = resolver.resolveActorRef(
+                    ActorRefResolver.get(receiverSystem).toSerializationFormat(receiverProxy.get(10, TimeUnit.SECONDS)));
+
+            System.out.printf("%-8s %-8s | %10s | %10s%n", "codec", "window", "MB/s", "ms/msg");
+            for (int run = 0; run < 2 * 2 * SystemConfiguration.Compression.values().length; run++) {
+                // the first round warms up
+                SystemConfiguration.Compression compression = SystemConfiguration.Compression.values()[(run / 2) % SystemConfiguration.Compression.values().length];
+                boolean stopAndWait = run % 2 == 0;
+                ActorRef<LargeMessageProxy.Message> sender = (stopAndWait ? stopAndWaitSenderProxy : senderProxy).get();
+                SystemConfigurationSingleton.get().setCompression(compression);
+                synchronized (lock) {
+                    received[0] = 0;
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < messages; i++)
+                    sender.tell(new LargeMessageProxy.SendMessage(payload, remoteReceiverProxy));
+                synchronized (lock) {
+                    while (received[0] < messages)
+                        lock.wait();
+                }
+                long nanos = System.nanoTime() - start;
+                if (run >= 2 * SystemConfiguration.Compression.values().length)
+                    System.out.printf("%-8s %-8d | %10.1f | %10.0f%n", compression, stopAndWait ? 1 : LargeMessageProxy.DEFAULT_WINDOW_SIZE, (double) bytes.length * messages * 1e3 / nanos, nanos / 1e6 / messages);
+            }
+        } finally {
+            senderSystem.terminate();
+            receiverSystem.terminate();
+        }
+    }
+}
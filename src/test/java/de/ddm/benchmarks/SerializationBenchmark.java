@@ -0,0 +1,174 @@
+package de.ddm.benchmarks;
+
+import akka.actor.ExtendedActorSystem;
+import akka.actor.typed.ActorSystem;
+import akka.actor.typed.javadsl.Adapter;
+import akka.actor.typed.javadsl.Behaviors;
+import akka.serialization.Serialization$;
+import akka.serialization.SerializationExtension;
+import akka.serialization.SerializerWithStringManifest;
+import akka.serialization.jackson.JacksonCborSerializer;
+import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.profiling.DependencyMiner;
+import de.ddm.actors.profiling.DependencyWorker;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.serialization.ProfilingSerializer;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.structures.*;
+
+import java.io.File;
+import java.util.*;
+
+// Compares payload size, serialization and deserialization time of the ProfilingSerializer against jackson-cbor
+// on messages built from the first input files, and checks that the ProfilingSerializer restores them.
+//
+// Usage: mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.ddm.benchmarks.SerializationBenchmark -Dexec.args="[inputPath] [rounds]"
+public class SerializationBenchmark {
+
+    private static final int BATCH_SIZE = 10000;
+
+    private static class Result {
+        long bytes;
+        long serializeNanos = Long.MAX_VALUE;
+        long deserializeNanos = Long.MAX_VALUE;
+        Object restored;
+    }
+
+    // Keeps the best time of all rounds, each of which serializes and deserializes the message 10 times
+    private static Result measure(SerializerWithStringManifest serializer, Object message, int rounds) throws Exception {
+        Result result = new Result();
+        String manifest = serializer.manifest(message);
+        for (int round = 0; round < rounds; round++) {
+            byte[] bytes = null;
+            long start = System.nanoTime();
+            for (int i = 0; i < 10; i++)
+                bytes = serializer.toBinary(message);
+            result.serializeNanos = Math.min(result.serializeNanos, (System.nanoTime() - start) / 10);
+
+            start = System.nanoTime();
+            for (int i = 0; i < 10; i++)
+                result.restored = serializer.fromBinary(bytes, manifest);
+            result.deserializeNanos = Math.min(result.deserializeNanos, (System.nanoTime() - start) / 10);
+            result.bytes = bytes.length;
+        }
+        return result;
+    }
+
+    private static List<String[]> readRows(InputConfiguration config, File file) throws Exception {
+        List<String[]> rows = new ArrayList<>();
+        try (RecordReader reader = config.createRecordReader(file, 0, file.length())) {
+            String[] row = config.isFileHasHeader() ? reader.readNext() : null;
+            while ((row = reader.readNext()) != null)
+                rows.add(row);
+        }
+        return rows;
+    }
+
+    // the ascending global ids of each column's distinct values, like the DependencyMiner sends them
+    private static Map<String, int[]> distinctValues(List<String[]> rows, String tableName, IdDictionary<String> dictionary) {
+        Map<String, Set<Integer>> ids = new HashMap<>();
+        for (String[] row : rows)
+            for (int column = 0; column < row.length; column++)
+                ids.computeIfAbsent(tableName + "_" + column, key -> new HashSet<>()).add(dictionary.getId(row[column]));
+
+        Map<String, int[]> columns = new HashMap<>();
+        ids.forEach((column, set) -> columns.put(column, set.stream().mapToInt(Integer::intValue).sorted().toArray()));
+        return columns;
+    }
+
+    private static boolean equals(Map<String, int[]> a, Map<String, int[]> b) {
+        return a.keySet().equals(b.keySet()) && a.keySet().stream().allMatch(column -> Arrays.equals(a.get(column), b.get(column)));
+    }
+
+    private static boolean restores(Object message, Object restored) {
+        if (message instanceof DependencyMiner.BatchMessage) {
+            ColumnBatch a = ((DependencyMiner.BatchMessage) message).getBatch();
+            ColumnBatch b = ((DependencyMiner.BatchMessage) restored).getBatch();
+            return a.getNumRows() == b.getNumRows() && Arrays.deepEquals(a.getDictionaries(), b.getDictionaries())
+                && Arrays.deepEquals(a.getCodes(), b.getCodes());
+        }
+        if (message instanceof DependencyWorker.TaskMessage) {
+            DependencyWorker.TaskMessage a = (DependencyWorker.TaskMessage) message;
+            DependencyWorker.TaskMessage b = (DependencyWorker.TaskMessage) restored;
+            return a.getTaskId() == b.getTaskId() && a.getTask().toString().equals(b.getTask().toString())
+                && Objects.equals(a.getTask().getCandidates(), b.getTask().getCandidates())
+                && equals(a.getDistinctValuesA(), b.getDistinctValuesA()) && equals(a.getDistinctValuesB(), b.getDistinctValuesB())
+                && a.getEvictedColumns().equals(b.getEvictedColumns())
+                && a.getDependencyMinerLargeMessageProxy().equals(b.getDependencyMinerLargeMessageProxy());
+        }
+        if (message instanceof DependencyMiner.CompletionMessage)
+            return ((DependencyMiner.CompletionMessage) message).getInclusionDependencies()
+                .equals(((DependencyMiner.CompletionMessage) restored).getInclusionDependencies());
+        if (message instanceof DependencyWorker.SindyColumnMessage)
+            return Arrays.equals(((DependencyWorker.SindyColumnMessage) message).getValues(),
+                ((DependencyWorker.SindyColumnMessage) restored).getValues());
+        return false;
+    }
+
+    public static void main(String[] args) throws Exception {
+        InputConfiguration config = InputConfigurationSingleton.get();
+        if (args.length > 0)
+            config.setInputPath(args[0]);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        ActorSystem<Void> system = ActorSystem.create(Behaviors.empty(), "benchmark", ConfigFactory
+            .parseString("akka.actor.provider = local\nakka.remote.artery.enabled = off\nakka.loglevel = WARNING\n"
+                + "akka.serialization.jackson.allowed-class-prefix = [\"de.ddm\"]")
+            .withFallback(ConfigFactory.load()));
+        ExtendedActorSystem classicSystem = (ExtendedActorSystem) Adapter.toClassic(system);
+        SerializerWithStringManifest profiling = new ProfilingSerializer(classicSystem);
+        SerializerWithStringManifest cbor = new JacksonCborSerializer(classicSystem, "jackson-cbor");
+        // jackson-cbor resolves actor references with the system that Serialization::serialize usually sets
+        Serialization$.MODULE$.currentTransportInformation().value_$eq(SerializationExtension.get(classicSystem).serializationInformation());
+
+        try {
+            File[] files = config.getInputFiles();
+            Arrays.sort(files, Comparator.comparingLong(File::length).reversed());
+            List<String[]> rowsA = readRows(config, files[0]);
+            List<String[]> rowsB = readRows(config, files[Math.min(1, files.length - 1)]);
+            String tableA = files[0].getName();
+            String tableB = files[Math.min(1, files.length - 1)].getName();
+
+            Map<String, Object> messages = new LinkedHashMap<>();
+
+            ColumnBatch.Builder builder = new ColumnBatch.Builder(BATCH_SIZE);
+            ColumnBatch.Builder distinctBuilder = new ColumnBatch.Builder(BATCH_SIZE, new ArrayList<>());
+            for (String[] row : rowsA.subList(0, Math.min(BATCH_SIZE, rowsA.size()))) {
+                builder.add(row);
+                distinctBuilder.add(row);
+            }
+            messages.put("BatchMessage", new DependencyMiner.BatchMessage(0, 0, 0, 0, builder.build()));
+            messages.put("BatchMessage (distinct)", new DependencyMiner.BatchMessage(0, 0, 0, 0, distinctBuilder.build()));
+
+            IdDictionary<String> dictionary = new IdDictionary<>();
+            Map<String, int[]> distinctValuesA = distinctValues(rowsA, tableA, dictionary);
+            Map<String, int[]> distinctValuesB = distinctValues(rowsB, tableB, dictionary);
+            Task task = new Task(tableA, tableB, new ArrayList<>(distinctValuesA.keySet()), new ArrayList<>(distinctValuesB.keySet()));
+            messages.put("TaskMessage", new DependencyWorker.TaskMessage(system.unsafeUpcast(), 1, 1, task,
+                distinctValuesA, distinctValuesB, Collections.singletonList(new ColumnId(tableB, tableB + "_0"))));
+
+            List<InclusionDependency> inclusionDependencies = new ArrayList<>();
+            for (String dependent : task.getColumnNamesA())
+                for (String referenced : task.getColumnNamesB())
+                    inclusionDependencies.add(new InclusionDependency(tableA, tableB, dependent, referenced));
+            messages.put("CompletionMessage", new DependencyMiner.CompletionMessage(system.unsafeUpcast(), 1, inclusionDependencies));
+
+            int[] largestColumn = Collections.max(distinctValuesA.values(), Comparator.comparingInt(ids -> ids.length));
+            messages.put("SindyColumnMessage", new DependencyWorker.SindyColumnMessage(system.unsafeUpcast(), 0, 0, 1, largestColumn));
+
+            System.out.printf("%-24s | %10s %10s | %10s %10s | %10s %10s | %6s%n",
+                "message", "cbor B", "binary B", "cbor ser", "binary ser", "cbor de", "binary de", "same");
+            for (Map.Entry<String, Object> message : messages.entrySet()) {
+                Result cborResult = measure(cbor, message.getValue(), rounds);
+                Result profilingResult = measure(profiling, message.getValue(), rounds);
+                System.out.printf("%-24s | %10d %10d | %8.0fus %8.0fus | %8.0fus %8.0fus | %6s%n",
+                    message.getKey(), cborResult.bytes, profilingResult.bytes,
+                    cborResult.serializeNanos / 1e3, profilingResult.serializeNanos / 1e3,
+                    cborResult.deserializeNanos / 1e3, profilingResult.deserializeNanos / 1e3,
+                    restores(message.getValue(), profilingResult.restored));
+            }
+        } finally {
+            system.terminate();
+        }
+    }
+}
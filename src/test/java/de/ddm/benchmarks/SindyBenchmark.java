@@ -0,0 +1,139 @@
+package de.ddm.benchmarks;
+
+import com.opencsv.CSVReader;
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.singletons.SystemConfigurationSingleton;
+import de.ddm.structures.*;
+
+import java.io.File;
+import java.util.*;
+
+// Compares the PAIRWISE engine (TaskGenerator tasks, validated with the SORT_MERGE engine) against the SINDY engine
+// on one machine: discovery time, the number of distinct values shipped to workers, and the discovered INDs.
+//
+// Usage: MAVEN_OPTS=-Xmx3g mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.ddm.benchmarks.SindyBenchmark -Dexec.args="[inputPath] [numPartitions]"
+public class SindyBenchmark {
+
+    private static final int RUNS = 5;
+
+    private static void load(InputConfiguration config, File file, LocalDataStorage dataStorage) throws Exception {
+        try (CSVReader reader = config.createCSVReader(file)) {
+            String[] header = reader.readNext();
+            if (header == null)
+                return;
+            if (!config.isFileHasHeader()) {
+                String[] row = header;
+                header = new String[row.length];
+                for (int i = 0; i < row.length; i++)
+                    header[i] = file.getName() + "_" + i;
+                dataStorage.addTable(file.getName(), Arrays.asList(header));
+                dataStorage.addRow(file.getName(), Arrays.asList(row));
+            } else {
+                dataStorage.addTable(file.getName(), Arrays.asList(header));
+            }
+
+            String[] row;
+            while ((row = reader.readNext()) != null)
+                dataStorage.addRow(file.getName(), Arrays.asList(row));
+        }
+    }
+
+    private static class Result {
+        long nanos;
+        long shippedValues;
+        Set<InclusionDependency> inclusionDeps = new HashSet<>();
+    }
+
+    // the tasks that the DependencyMiner generates once all tables are read, i.e. every table against itself and all others
+    private static Result runPairwise(LocalDataStorage dataStorage, List<String> tableNames) {
+        Result result = new Result();
+        long start = System.nanoTime();
+
+        IndValidator validator = new SortMergeValidator();
+        TaskCostModel costModel = new TaskCostModel(
+            SystemConfigurationSingleton.get().getTaskBudget() * 1024L * 1024L, SystemConfigurationSingleton.get().getTaskValueBudget());
+        for (int a = 0; a < tableNames.size(); a++) {
+            for (int b = a; b < tableNames.size(); b++) {
+                for (Task task : TaskGenerator.run(dataStorage, costModel, tableNames.get(a), tableNames.get(b))) {
+                    Map<String, int[]> distinctValuesA = distinctValues(dataStorage, task, task.getTableNameA(), task.getColumnNamesA());
+                    Map<String, int[]> distinctValuesB = distinctValues(dataStorage, task, task.getTableNameB(), task.getColumnNamesB());
+                    result.shippedValues += distinctValuesA.values().stream().mapToLong(ids -> ids.length).sum();
+                    result.shippedValues += distinctValuesB.values().stream().mapToLong(ids -> ids.length).sum();
+                    result.inclusionDeps.addAll(validator.validate(task, distinctValuesA, distinctValuesB));
+                }
+            }
+        }
+
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static Map<String, int[]> distinctValues(LocalDataStorage dataStorage, Task task, String tableName, List<String> columnNames) {
+        Map<String, int[]> distinctValues = new HashMap<>();
+        for (String columnName : columnNames) {
+            Column column = dataStorage.getColumn(tableName, columnName);
+            distinctValues.put(columnName, task.isPartitioned()
+                ? column.getDistinctIds(task.getPartition(), task.getNumPartitions())
+                : column.getDistinctIds());
+        }
+        return distinctValues;
+    }
+
+    // the partitions that the DependencyMiner hands out to the workers, inverted one after the other
+    private static Result runSindy(LocalDataStorage dataStorage, List<String> tableNames, int numPartitions) {
+        Result result = new Result();
+        long start = System.nanoTime();
+
+        List<ColumnId> columns = new ArrayList<>();
+        for (String tableName : tableNames)
+            for (String columnName : dataStorage.getHeader(tableName))
+                columns.add(new ColumnId(tableName, columnName));
+
+        SindyCandidates candidates = new SindyCandidates(columns, numPartitions);
+        for (int partition = 0; partition < numPartitions; partition++) {
+            SindyPartition sindyPartition = new SindyPartition(columns.size());
+            for (int column = 0; column < columns.size(); column++) {
+                int[] values = dataStorage.getColumn(columns.get(column).getTableName(), columns.get(column).getColumnName())
+                    .getDistinctIds(partition, numPartitions);
+                result.shippedValues += values.length;
+                sindyPartition.addColumn(column, values);
+            }
+            candidates.add(partition, sindyPartition.getCandidates());
+        }
+        result.inclusionDeps.addAll(candidates.getInclusionDependencies());
+
+        result.nanos = System.nanoTime() - start;
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        InputConfiguration config = InputConfigurationSingleton.get();
+        if (args.length > 0)
+            config.setInputPath(args[0]);
+        int numPartitions = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        List<String> tableNames = new ArrayList<>();
+        for (File file : config.getInputFiles()) {
+            load(config, file, dataStorage);
+            if (dataStorage.getHeader(file.getName()) != null) {
+                dataStorage.freeze(file.getName(), dictionary);
+                tableNames.add(file.getName());
+            }
+        }
+
+        System.out.printf("%-8s %4s | %12s %16s %8s%n", "engine", "run", "ms", "shipped values", "INDs");
+        Result pairwise = null;
+        Result sindy = null;
+        for (int run = 0; run < RUNS; run++) { // the first runs warm up the JIT
+            pairwise = runPairwise(dataStorage, tableNames);
+            sindy = runSindy(dataStorage, tableNames, numPartitions);
+            System.out.printf("%-8s %4d | %12.1f %16d %8d%n", "PAIRWISE", run, pairwise.nanos / 1e6, pairwise.shippedValues, pairwise.inclusionDeps.size());
+            System.out.printf("%-8s %4d | %12.1f %16d %8d%n", "SINDY", run, sindy.nanos / 1e6, sindy.shippedValues, sindy.inclusionDeps.size());
+        }
+
+        System.out.println(pairwise.inclusionDeps.equals(sindy.inclusionDeps) ? "Both engines found the same INDs." : "The engines found different INDs!");
+    }
+}
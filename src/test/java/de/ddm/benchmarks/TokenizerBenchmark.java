@@ -0,0 +1,76 @@
+package de.ddm.benchmarks;
+
+import de.ddm.configuration.InputConfiguration;
+import de.ddm.singletons.InputConfigurationSingleton;
+import de.ddm.structures.RecordReader;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Compares parse rate and allocation of the memory-mapped CsvTokenizer against opencsv on every input file and
+// checks that both produce the same records.
+//
+// Usage: mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=de.ddm.benchmarks.TokenizerBenchmark -Dexec.args="[inputPath] [rounds]"
+public class TokenizerBenchmark {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static class Result {
+        long nanos = Long.MAX_VALUE;
+        long allocated;
+        long records;
+        long checksum;
+    }
+
+    // Parses the whole file and keeps the best of all rounds; the checksum covers every field's content and nullness
+    private static Result measure(InputConfiguration config, File file, boolean mapped, int rounds) throws Exception {
+        config.setMappedTokenizer(mapped);
+        Result result = new Result();
+        for (int round = 0; round < rounds; round++) {
+            long records = 0;
+            long checksum = 0;
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+
+            try (RecordReader reader = config.createRecordReader(file, 0, file.length())) {
+                String[] record;
+                while ((record = reader.readNext()) != null) {
+                    records++;
+                    checksum = 31 * checksum + Arrays.hashCode(record);
+                }
+            }
+
+            long nanos = System.nanoTime() - start;
+            if (nanos < result.nanos) {
+                result.nanos = nanos;
+                result.allocated = THREADS.getCurrentThreadAllocatedBytes() - allocated;
+            }
+            result.records = records;
+            result.checksum = checksum;
+        }
+        return result;
+    }
+
+    public static void main(String[] args) throws Exception {
+        InputConfiguration config = InputConfigurationSingleton.get();
+        if (args.length > 0)
+            config.setInputPath(args[0]);
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        System.out.printf("%-24s %10s | %12s %12s | %12s %12s | %6s%n",
+            "file", "records", "opencsv MB/s", "mapped MB/s", "opencsv B/r", "mapped B/r", "same");
+
+        for (File file : config.getInputFiles()) {
+            Result opencsv = measure(config, file, false, rounds);
+            Result mapped = measure(config, file, true, rounds);
+            double megabytes = file.length() / 1048576.0;
+
+            System.out.printf("%-24s %10d | %12.1f %12.1f | %12.0f %12.0f | %6s%n",
+                file.getName(), mapped.records,
+                megabytes / (opencsv.nanos / 1e9), megabytes / (mapped.nanos / 1e9),
+                opencsv.allocated / (double) Math.max(1, opencsv.records), mapped.allocated / (double) Math.max(1, mapped.records),
+                opencsv.records == mapped.records && opencsv.checksum == mapped.checksum);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package de.ddm.configuration;
+
+import de.ddm.structures.RecordReader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class InputConfigurationTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private static final int MIB = 1024 * 1024;
+
+	private static String row(int i) {
+		// escaped and doubled quotes as well as quoted separators and line breaks
+		return "\"" + i + "\";\"a \\\"quoted\\\" \"\"value\"\"; with\nline break\";\"b\\\\\";" + (i % 7) + "\n";
+	}
+
+	private File write(String... parts) throws IOException {
+		File file = this.folder.newFile();
+		try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+			for (String part : parts)
+				writer.write(part);
+		}
+		return file;
+	}
+
+	private static String rows(int from, long bytes) {
+		StringBuilder rows = new StringBuilder();
+		for (int i = from; rows.length() < bytes; i++)
+			rows.append(row(i));
+		return rows.toString();
+	}
+
+	private static InputConfiguration configuration(int readersPerFile) {
+		InputConfiguration configuration = new InputConfiguration();
+		configuration.setReadersPerFile(readersPerFile);
+		return configuration;
+	}
+
+	private static List<String[]> read(InputConfiguration configuration, File file, long start, long end) throws IOException {
+		List<String[]> records = new ArrayList<>();
+		try (RecordReader reader = configuration.createRecordReader(file, start, end)) {
+			String[] record;
+			while ((record = reader.readNext()) != null)
+				records.add(record);
+		}
+		return records;
+	}
+
+	private static void assertChunksHoldAllRecords(InputConfiguration configuration, File file, long[] boundaries) throws IOException {
+		assertEquals(0, boundaries[0]);
+		assertEquals(file.length(), boundaries[boundaries.length - 1]);
+
+		List<String[]> chunked = new ArrayList<>();
+		for (int chunk = 0; chunk + 1 < boundaries.length; chunk++) {
+			assertTrue(boundaries[chunk] < boundaries[chunk + 1]);
+			chunked.addAll(read(configuration, file, boundaries[chunk], boundaries[chunk + 1]));
+		}
+		List<String[]> whole = read(configuration, file, 0, file.length());
+		assertEquals(whole.size(), chunked.size());
+		for (int i = 0; i < whole.size(); i++)
+			assertArrayEquals(whole.get(i), chunked.get(i));
+	}
+
+	@Test
+	public void smallFilesAreNotSplit() throws Exception {
+		File file = this.write(rows(0, MIB));
+		long[] boundaries = configuration(4).splitIntoChunks(file, ForkJoinPool.commonPool()).get();
+		assertArrayEquals(new long[]{0, file.length()}, boundaries);
+	}
+
+	@Test
+	public void chunksStartAtRecordBoundaries() throws Exception {
+		InputConfiguration configuration = configuration(3);
+		File file = this.write("\"key\";\"text\";\"escaped\";\"number\"\n", rows(0, 30 * MIB));
+		long[] boundaries = configuration.splitIntoChunks(file, ForkJoinPool.commonPool()).get();
+		assertEquals(4, boundaries.length);
+		assertChunksHoldAllRecords(configuration, file, boundaries);
+	}
+
+	@Test
+	public void quotedLineBreaksAtTheTargetedOffsetAreNoBoundary() throws Exception {
+		// a value of 2 MiB line breaks and escaped quotes around the middle of the file, where the split aims at
+		char[] breaks = new char[2 * MIB];
+		Arrays.fill(breaks, '\n');
+		for (int i = 0; i < breaks.length; i += 1000) {
+			breaks[i] = '\\';
+			breaks[i + 1] = '"';
+		}
+		String before = rows(0, 9 * MIB);
+		String value = "\"huge\";\"" + new String(breaks) + "\";\"\";0\n";
+		String after = rows(1000000, before.length());
+		InputConfiguration configuration = configuration(2);
+		File file = this.write(before, value, after);
+
+		long[] boundaries = configuration.splitIntoChunks(file, ForkJoinPool.commonPool()).get();
+		assertEquals(3, boundaries.length);
+		assertEquals(before.length() + value.length(), boundaries[1]);
+		assertChunksHoldAllRecords(configuration, file, boundaries);
+	}
+
+	@Test
+	public void segmentsWithinOneRecordMergeTheirChunks() throws Exception {
+		// one quoted value spans the middle segment entirely, so the file has one boundary less
+		char[] breaks = new char[12 * MIB];
+		Arrays.fill(breaks, '\n');
+		InputConfiguration configuration = configuration(3);
+		File file = this.write(rows(0, 9 * MIB), "\"huge\";\"" + new String(breaks) + "\";\"\";0\n", rows(1000000, 9 * MIB));
+
+		long[] boundaries = configuration.splitIntoChunks(file, ForkJoinPool.commonPool()).get();
+		assertEquals(3, boundaries.length);
+		assertChunksHoldAllRecords(configuration, file, boundaries);
+	}
+
+	@Test
+	public void escapedQuotesOutsideOfQuotesOpenNoQuotes() throws Exception {
+		// the escaped quote of every row would otherwise pair up with the quotes around the line break
+		StringBuilder rows = new StringBuilder();
+		for (int i = 0; rows.length() < 30 * MIB; i++)
+			rows.append(i).append(";a \\\"b;\"line\nbreak\";c \\\\\n");
+		InputConfiguration configuration = configuration(3);
+		File file = this.write(rows.toString());
+
+		long[] boundaries = configuration.splitIntoChunks(file, ForkJoinPool.commonPool()).get();
+		assertEquals(4, boundaries.length);
+		assertChunksHoldAllRecords(configuration, file, boundaries);
+		assertEquals(4, read(configuration, file, boundaries[1], boundaries[2]).get(0).length);
+	}
+}
@@ -0,0 +1,92 @@
+package de.ddm.serialization;
+
+import de.ddm.configuration.SystemConfiguration.Compression;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BlockCompressionTest {
+
+	// Collects the decompressed bytes
+	private static class BytesDecoder implements StreamingDeserializer.Decoder {
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		@Override
+		public void decode(byte[] bytes, int offset, int length) {
+			this.bytes.write(bytes, offset, length);
+		}
+
+		@Override
+		public Object result() {
+			return this.bytes.toByteArray();
+		}
+	}
+
+	// repetitive text, which compresses well, followed by random bytes, which do not
+	private static byte[] payload(int length) {
+		byte[] bytes = new byte[length];
+		Random random = new Random(length);
+		for (int i = 0; i < length; i++)
+			bytes[i] = i < length / 2 ? (byte) ("value;" + (i / 64 % 100)).charAt(i % 6) : (byte) random.nextInt();
+		return bytes;
+	}
+
+	private static byte[] decompress(Compression compression, byte[] compressed, int split) {
+		BlockCompression.Decompressor decompressor = new BlockCompression.Decompressor(compression, new BytesDecoder());
+		for (int offset = 0; offset < compressed.length; offset += split)
+			decompressor.decode(compressed, offset, Math.min(split, compressed.length - offset));
+		return (byte[]) decompressor.result();
+	}
+
+	@Test
+	public void decompressesInAllSplits() {
+		byte[] bytes = payload(3000);
+		for (Compression compression : Compression.values()) {
+			byte[] compressed = BlockCompression.compress(compression, bytes);
+			for (int split = 1; split <= compressed.length; split++)
+				assertArrayEquals(compression + " in pieces of " + split, bytes, decompress(compression, compressed, split));
+		}
+	}
+
+	@Test
+	public void decompressesMultipleBlocks() {
+		// the random second half is stored uncompressed
+		byte[] bytes = payload(5 * BlockCompression.BLOCK_SIZE / 2);
+		for (Compression compression : Compression.values()) {
+			byte[] compressed = BlockCompression.compress(compression, bytes);
+			for (int split : new int[]{1, 4093, BlockCompression.BLOCK_SIZE - 1, BlockCompression.BLOCK_SIZE, BlockCompression.BLOCK_SIZE + 1, compressed.length})
+				assertArrayEquals(compression + " in pieces of " + split, bytes, decompress(compression, compressed, split));
+		}
+	}
+
+	@Test
+	public void compressesOnlyTheGivenLength() {
+		byte[] bytes = payload(5000);
+		byte[] compressed = BlockCompression.compress(Compression.LZ4, bytes, 1000);
+		byte[] expected = new byte[1000];
+		System.arraycopy(bytes, 0, expected, 0, expected.length);
+		assertArrayEquals(expected, decompress(Compression.LZ4, compressed, 7));
+	}
+
+	@Test
+	public void decompressesEmptyMessages() {
+		for (Compression compression : Compression.values())
+			assertEquals(0, decompress(compression, BlockCompression.compress(compression, new byte[0]), 1).length);
+	}
+
+	@Test
+	public void storesIncompressibleBlocks() {
+		byte[] random = new byte[10000];
+		new Random(1).nextBytes(random);
+		for (Compression compression : Compression.values())
+			assertTrue(compression.toString(), BlockCompression.compress(compression, random).length <= random.length + 10);
+
+		byte[] repetitive = payload(20000);
+		System.arraycopy(repetitive, 0, repetitive, 10000, 10000);
+		assertTrue(BlockCompression.ratio(Compression.DEFLATE, repetitive, repetitive.length) < 0.5);
+		assertTrue(BlockCompression.ratio(Compression.LZ4, repetitive, repetitive.length) < 0.5);
+	}
+}
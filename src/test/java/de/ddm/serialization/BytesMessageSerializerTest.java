@@ -0,0 +1,48 @@
+package de.ddm.serialization;
+
+import de.ddm.actors.patterns.LargeMessageProxy;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class BytesMessageSerializerTest {
+
+	private final BytesMessageSerializer serializer = new BytesMessageSerializer();
+
+	private LargeMessageProxy.BytesMessage roundTrip(LargeMessageProxy.BytesMessage message) {
+		ByteBuffer buffer = ByteBuffer.allocate(1024);
+		this.serializer.toBinary(message, buffer);
+		buffer.flip();
+		return (LargeMessageProxy.BytesMessage) this.serializer.fromBinary(buffer, this.serializer.manifest(message));
+	}
+
+	@Test
+	public void writesOnlyTheChunkOfTheSendersView() {
+		byte[] bytes = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+		LargeMessageProxy.BytesMessage message = new LargeMessageProxy.BytesMessage(bytes, 4, 1, 2, 4, 3, 42L);
+
+		LargeMessageProxy.BytesMessage received = this.roundTrip(message);
+		assertArrayEquals(new byte[]{4, 5, 6}, received.getBytes());
+		// the receiver's bytes hold the chunk only, but the chunk keeps its offset in the large message
+		assertEquals(0, received.getStart());
+		assertEquals(4, received.getOffset());
+		assertEquals(3, received.getLength());
+		assertEquals(1, received.getSenderTransmissionKey());
+		assertEquals(2, received.getReceiverTransmissionKey());
+		assertEquals(42L, received.getSendTime());
+	}
+
+	@Test
+	public void framesChunksOfTheLengthOfTheWholeView() {
+		// a chunk that happens to be as long as the whole view is framed by its start, not by its length
+		byte[] bytes = Arrays.copyOf(new byte[]{7, 8, 9}, 6);
+		LargeMessageProxy.BytesMessage message = new LargeMessageProxy.BytesMessage(bytes, 3, 0, 0, 3, 3, 0L);
+		assertArrayEquals(new byte[]{0, 0, 0}, this.roundTrip(message).getBytes());
+
+		message = new LargeMessageProxy.BytesMessage(bytes, 0, 0, 0, 0, 6, 0L);
+		assertArrayEquals(bytes, this.roundTrip(message).getBytes());
+	}
+}
@@ -0,0 +1,210 @@
+package de.ddm.serialization;
+
+import akka.actor.ExtendedActorSystem;
+import akka.actor.testkit.typed.javadsl.ActorTestKit;
+import akka.actor.typed.ActorRef;
+import akka.actor.typed.javadsl.Adapter;
+import com.typesafe.config.ConfigFactory;
+import de.ddm.actors.patterns.LargeMessageProxy;
+import de.ddm.actors.profiling.DependencyMiner;
+import de.ddm.actors.profiling.DependencyWorker;
+import de.ddm.structures.ColumnBatch;
+import de.ddm.structures.ColumnId;
+import de.ddm.structures.InclusionDependency;
+import de.ddm.structures.Task;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.NotSerializableException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ProfilingSerializerTest {
+
+	private static ActorTestKit testKit;
+	private static ProfilingSerializer serializer;
+	private static ActorRef<LargeMessageProxy.Message> proxy;
+
+	@BeforeClass
+	public static void setUp() {
+		testKit = ActorTestKit.create(ConfigFactory.parseString("akka.actor.provider = local"));
+		serializer = new ProfilingSerializer((ExtendedActorSystem) Adapter.toClassic(testKit.system()));
+		proxy = testKit.<LargeMessageProxy.Message>createTestProbe().ref();
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		testKit.shutdownTestKit();
+	}
+
+	// ascending ids with gaps of all varint sizes
+	private static int[] ids(int count, int seed) {
+		Random random = new Random(seed);
+		int[] ids = new int[count];
+		int id = random.nextInt(10);
+		for (int i = 0; i < count; i++) {
+			ids[i] = id;
+			id += 1 + random.nextInt(1 << random.nextInt(24));
+		}
+		return ids;
+	}
+
+	private static Map<String, int[]> columns(String... names) {
+		Map<String, int[]> columns = new LinkedHashMap<>();
+		for (int i = 0; i < names.length; i++)
+			columns.put(names[i], ids(i * 37, i));
+		return columns;
+	}
+
+	// Decodes the bytes with a fresh decoder for every split size, in pieces of that size
+	private static List<Object> decodeInAllSplits(String manifest, byte[] bytes) {
+		List<Object> messages = new ArrayList<>();
+		for (int split = 1; split <= bytes.length; split++) {
+			StreamingDeserializer.Decoder decoder = serializer.decoder(manifest);
+			for (int offset = 0; offset < bytes.length; offset += split)
+				decoder.decode(bytes, offset, Math.min(split, bytes.length - offset));
+			messages.add(decoder.result());
+		}
+		return messages;
+	}
+
+	private static void assertColumnsEqual(Map<String, int[]> expected, Map<String, int[]> actual) {
+		assertEquals(expected.keySet(), actual.keySet());
+		for (String column : expected.keySet())
+			assertArrayEquals(column, expected.get(column), actual.get(column));
+	}
+
+	private static void assertTaskMessagesEqual(DependencyWorker.TaskMessage expected, DependencyWorker.TaskMessage actual) {
+		assertEquals(expected.getDependencyMinerLargeMessageProxy(), actual.getDependencyMinerLargeMessageProxy());
+		assertEquals(expected.getTaskId(), actual.getTaskId());
+		assertEquals(expected.getSequenceNumber(), actual.getSequenceNumber());
+		Task expectedTask = expected.getTask();
+		Task actualTask = actual.getTask();
+		assertEquals(expectedTask.getTableNameA(), actualTask.getTableNameA());
+		assertEquals(expectedTask.getTableNameB(), actualTask.getTableNameB());
+		assertEquals(expectedTask.getColumnNamesA(), actualTask.getColumnNamesA());
+		assertEquals(expectedTask.getColumnNamesB(), actualTask.getColumnNamesB());
+		assertEquals(expectedTask.getPartition(), actualTask.getPartition());
+		assertEquals(expectedTask.getNumPartitions(), actualTask.getNumPartitions());
+		assertEquals(expectedTask.getCandidates(), actualTask.getCandidates());
+		assertColumnsEqual(expected.getDistinctValuesA(), actual.getDistinctValuesA());
+		assertColumnsEqual(expected.getDistinctValuesB(), actual.getDistinctValuesB());
+		assertEquals(expected.getEvictedColumns(), actual.getEvictedColumns());
+	}
+
+	@Test
+	public void decodesUnaryTaskMessagesInAllSplits() throws NotSerializableException {
+		Task task = new Task("orders.csv", "lineitem.csv", Arrays.asList("O_ORDERKEY", "O_CUSTKEY"), Arrays.asList("L_ORDERKEY", "L_PARTKEY", "L_SUPPKEY"), 2, 5);
+		DependencyWorker.TaskMessage message = new DependencyWorker.TaskMessage(proxy, 17, 300, task,
+			columns("O_ORDERKEY", "O_CUSTKEY"), columns("L_ORDERKEY", "L_PARTKEY", "L_SUPPKEY"),
+			Arrays.asList(new ColumnId("part.csv", "P_NAME"), new ColumnId("Straße", "Größe")));
+		byte[] bytes = serializer.toBinary(message);
+
+		for (Object decoded : decodeInAllSplits(serializer.manifest(message), bytes))
+			assertTaskMessagesEqual(message, (DependencyWorker.TaskMessage) decoded);
+		assertTaskMessagesEqual(message, (DependencyWorker.TaskMessage) serializer.fromBinary(bytes, serializer.manifest(message)));
+	}
+
+	@Test
+	public void decodesNaryTaskMessagesInAllSplits() {
+		List<InclusionDependency> candidates = Arrays.asList(
+			new InclusionDependency("R", "S", Arrays.asList("A", "B"), Arrays.asList("C", "D")),
+			new InclusionDependency("R", "S", Arrays.asList("A", "E"), Arrays.asList("C", "F")));
+		Task task = new Task("R", "S", Arrays.asList("A,B", "A,E"), Arrays.asList("C,D", "C,F"), 0, 1, candidates);
+		DependencyWorker.TaskMessage message = new DependencyWorker.TaskMessage(proxy, 0, 0, task,
+			columns("A,B", "A,E"), columns("C,D", "C,F"), new ArrayList<>());
+		byte[] bytes = serializer.toBinary(message);
+
+		for (Object decoded : decodeInAllSplits(serializer.manifest(message), bytes))
+			assertTaskMessagesEqual(message, (DependencyWorker.TaskMessage) decoded);
+	}
+
+	@Test
+	public void decodesSindyColumnMessagesInAllSplits() {
+		DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(proxy, 3, 11, 40, ids(500, 7));
+		byte[] bytes = serializer.toBinary(message);
+
+		for (Object decoded : decodeInAllSplits(serializer.manifest(message), bytes)) {
+			DependencyWorker.SindyColumnMessage actual = (DependencyWorker.SindyColumnMessage) decoded;
+			assertEquals(proxy, actual.getDependencyMinerLargeMessageProxy());
+			assertEquals(3, actual.getPartition());
+			assertEquals(11, actual.getColumn());
+			assertEquals(40, actual.getNumColumns());
+			assertArrayEquals(message.getValues(), actual.getValues());
+		}
+	}
+
+	@Test
+	public void decodesMessagesWithoutIds() {
+		DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(proxy, 0, 0, 1, new int[0]);
+		for (Object decoded : decodeInAllSplits(serializer.manifest(message), serializer.toBinary(message)))
+			assertEquals(0, ((DependencyWorker.SindyColumnMessage) decoded).getValues().length);
+	}
+
+	@Test
+	public void rejectsIncompleteMessages() {
+		DependencyWorker.SindyColumnMessage message = new DependencyWorker.SindyColumnMessage(proxy, 0, 0, 1, ids(100, 1));
+		byte[] bytes = serializer.toBinary(message);
+		for (int length : new int[]{0, 1, bytes.length / 2, bytes.length - 1}) {
+			StreamingDeserializer.Decoder decoder = serializer.decoder(serializer.manifest(message));
+			decoder.decode(bytes, 0, length);
+			try {
+				decoder.result();
+				fail("decoded a message from " + length + " of " + bytes.length + " bytes");
+			} catch (IllegalStateException e) {
+				// expected
+			}
+		}
+	}
+
+	@Test
+	public void roundTripsCompletionMessages() throws NotSerializableException {
+		ActorRef<DependencyWorker.Message> worker = testKit.<DependencyWorker.Message>createTestProbe().ref();
+		List<InclusionDependency> inclusionDependencies = Arrays.asList(
+			new InclusionDependency("orders.csv", "lineitem.csv", "O_ORDERKEY", "L_ORDERKEY"),
+			new InclusionDependency("Straße", "Größe", Arrays.asList("A", "B"), Arrays.asList("C", "D")));
+		DependencyMiner.CompletionMessage message = new DependencyMiner.CompletionMessage(worker, 42, inclusionDependencies);
+
+		DependencyMiner.CompletionMessage actual = (DependencyMiner.CompletionMessage)
+			serializer.fromBinary(serializer.toBinary(message), serializer.manifest(message));
+		assertEquals(worker, actual.getDependencyWorker());
+		assertEquals(42, actual.getTaskId());
+		assertEquals(inclusionDependencies, actual.getInclusionDependencies());
+	}
+
+	private static DependencyMiner.BatchMessage roundTrip(DependencyMiner.BatchMessage message) throws NotSerializableException {
+		DependencyMiner.BatchMessage actual = (DependencyMiner.BatchMessage)
+			serializer.fromBinary(serializer.toBinary(message), serializer.manifest(message));
+		assertEquals(message.getId(), actual.getId());
+		assertEquals(message.getChunk(), actual.getChunk());
+		assertEquals(message.getAttempt(), actual.getAttempt());
+		assertEquals(message.getSequenceNumber(), actual.getSequenceNumber());
+		assertEquals(message.getBatch().getNumRows(), actual.getBatch().getNumRows());
+		assertEquals(message.getBatch().isDistinctOnly(), actual.getBatch().isDistinctOnly());
+		assertArrayEquals(message.getBatch().getDictionaries(), actual.getBatch().getDictionaries());
+		return actual;
+	}
+
+	@Test
+	public void roundTripsBatchMessages() throws NotSerializableException {
+		ColumnBatch.Builder builder = new ColumnBatch.Builder(8);
+		builder.add(new String[]{"a", null, "Größe"});
+		builder.add(new String[]{"b", "", "Größe"});
+		builder.add(new String[]{"a", "\uD83D\uDE00", null});
+		DependencyMiner.BatchMessage message = new DependencyMiner.BatchMessage(2, 5, 1, 17, builder.build());
+
+		assertArrayEquals(message.getBatch().getCodes(), roundTrip(message).getBatch().getCodes());
+	}
+
+	@Test
+	public void roundTripsDistinctOnlyAndEmptyBatchMessages() throws NotSerializableException {
+		ColumnBatch.Builder builder = new ColumnBatch.Builder(8, new ArrayList<>());
+		builder.add(new String[]{"a", null});
+		builder.add(new String[]{"a", "x"});
+		assertNull(roundTrip(new DependencyMiner.BatchMessage(0, 0, 0, 0, builder.build())).getBatch().getCodes());
+
+		assertEquals(0, roundTrip(new DependencyMiner.BatchMessage(0, 1, 0, 3, new ColumnBatch.Builder(0).build())).getBatch().getNumColumns());
+	}
+}
@@ -0,0 +1,60 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BloomFilterTest {
+
+    private static String[] values(String prefix, int count) {
+        String[] values = new String[count];
+        for (int i = 0; i < count; i++)
+            values[i] = prefix + i;
+        return values;
+    }
+
+    // Adds the values like Column does, growing the filter whenever it is full
+    private static BloomFilter filter(String[] values) {
+        BloomFilter filter = new BloomFilter();
+        for (int i = 0; i < values.length; i++) {
+            if (filter.isFull())
+                filter.grow(values, i);
+            filter.add(values[i]);
+        }
+        return filter;
+    }
+
+    @Test
+    public void neverMissesAnAddedValue() {
+        String[] values = values("v", 100000);
+        BloomFilter filter = filter(values);
+        for (String value : values)
+            assertTrue(value, filter.mightContain(value));
+    }
+
+    @Test
+    public void rejectsMostOtherValues() {
+        BloomFilter filter = filter(values("v", 50000));
+        int falsePositives = 0;
+        for (String value : values("w", 50000))
+            if (filter.mightContain(value))
+                falsePositives++;
+        // about 2.4 % at 8 bits per value; growing only adds bits
+        assertTrue(falsePositives + " false positives", falsePositives < 50000 * 5 / 100);
+    }
+
+    @Test
+    public void containsNullOnlyOnceAdded() {
+        BloomFilter filter = new BloomFilter();
+        assertFalse(filter.mightContain(null));
+        filter.add(null);
+        assertTrue(filter.mightContain(null));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void mustGrowBeforeItOverflows() {
+        BloomFilter filter = new BloomFilter();
+        for (String value : values("v", 1000))
+            filter.add(value);
+    }
+}
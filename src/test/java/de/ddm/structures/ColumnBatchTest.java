@@ -0,0 +1,78 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class ColumnBatchTest {
+
+    private static ColumnBatch build(ColumnBatch.Builder builder, String[]... rows) {
+        for (String[] row : rows)
+            builder.add(row);
+        assertEquals(rows.length, builder.getNumRows());
+        return builder.build();
+    }
+
+    @Test
+    public void encodesEveryColumnByItsOwnDictionary() {
+        ColumnBatch batch = build(new ColumnBatch.Builder(2),
+            new String[]{"a", "x"}, new String[]{"b", null}, new String[]{"a", "x"}, new String[]{null, "x"});
+
+        assertFalse(batch.isDistinctOnly());
+        assertEquals(4, batch.getNumRows());
+        assertEquals(2, batch.getNumColumns());
+        assertArrayEquals(new String[]{"a", "b", null}, batch.getDictionaries()[0]);
+        assertArrayEquals(new int[]{0, 1, 0, 2}, batch.getCodes()[0]);
+        assertArrayEquals(new String[]{"x", null}, batch.getDictionaries()[1]);
+        assertArrayEquals(new int[]{0, 1, 0, 0}, batch.getCodes()[1]);
+    }
+
+    @Test
+    public void batchesAppendTheSameRowsAsSingleRows() {
+        Random random = new Random(9);
+        LocalDataStorage rows = new LocalDataStorage();
+        LocalDataStorage batches = new LocalDataStorage();
+        rows.addTable("R", Arrays.asList("A", "B", "C"));
+        batches.addTable("R", Arrays.asList("A", "B", "C"));
+        for (int batch = 0; batch < 20; batch++) {
+            ColumnBatch.Builder builder = new ColumnBatch.Builder(random.nextInt(50));
+            for (int row = random.nextInt(100); row > 0; row--) {
+                String[] values = {"a" + random.nextInt(10), random.nextInt(5) == 0 ? null : "b" + random.nextInt(1000), "c"};
+                rows.addRow("R", Arrays.asList(values));
+                builder.add(values);
+            }
+            batches.addBatch("R", builder.build());
+        }
+
+        for (String column : Arrays.asList("A", "B", "C"))
+            assertArrayEquals(rows.getColumn("R", column).stream().toArray(), batches.getColumn("R", column).stream().toArray());
+    }
+
+    @Test
+    public void distinctOnlyBatchesCarryEveryValueOnce() {
+        List<Set<String>> sentValues = new ArrayList<>();
+        ColumnBatch first = build(new ColumnBatch.Builder(4, sentValues),
+            new String[]{"a", "x"}, new String[]{"b", "x"}, new String[]{"a", null});
+        ColumnBatch second = build(new ColumnBatch.Builder(4, sentValues),
+            new String[]{"b", "y"}, new String[]{"c", null});
+
+        assertTrue(first.isDistinctOnly());
+        assertEquals(3, first.getNumRows());
+        assertArrayEquals(new String[]{"a", "b"}, first.getDictionaries()[0]);
+        assertArrayEquals(new String[]{"x", null}, first.getDictionaries()[1]);
+        // the second batch leaves out what the first one sent already
+        assertEquals(2, second.getNumRows());
+        assertArrayEquals(new String[]{"c"}, second.getDictionaries()[0]);
+        assertArrayEquals(new String[]{"y"}, second.getDictionaries()[1]);
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c")), sentValues.get(0));
+    }
+
+    @Test
+    public void emptyBuildersBuildEmptyBatches() {
+        ColumnBatch batch = new ColumnBatch.Builder(16).build();
+        assertEquals(0, batch.getNumRows());
+        assertEquals(0, batch.getNumColumns());
+    }
+}
@@ -0,0 +1,167 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ColumnTest {
+
+    private static Column column(String... values) {
+        Column column = new Column();
+        for (String value : values)
+            column.add(value);
+        return column;
+    }
+
+    @Test
+    public void storesEveryRowAsACodeOfItsDistinctValue() {
+        Column column = column("a", "b", "a", null, "c", null, "a");
+
+        assertEquals(7, column.size());
+        assertEquals(4, column.getDistinctCount());
+        assertArrayEquals(new Object[]{"a", "b", "a", null, "c", null, "a"}, column.stream().toArray());
+        assertArrayEquals(new int[]{0, 1, 0, 2, 3, 2, 0}, Arrays.copyOf(column.getCodes(), column.size()));
+        assertArrayEquals(new String[]{"a", "b", null, "c"}, Arrays.copyOf(column.getValuesByPosition(), column.getDistinctCount()));
+    }
+
+    @Test
+    public void keepsValuesWithCollidingHashesApart() {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Column column = column("Aa", "BB", "Aa");
+        assertEquals(2, column.getDistinctCount());
+        assertEquals("BB", column.get(1));
+        assertEquals("Aa", column.get(2));
+    }
+
+    @Test
+    public void growsBeyondItsInitialCapacity() {
+        Column column = new Column();
+        for (int row = 0; row < 100000; row++)
+            column.add(Integer.toString(row % 30000));
+        assertEquals(100000, column.size());
+        assertEquals(30000, column.getDistinctCount());
+        assertEquals("29999", column.get(29999));
+        assertEquals("123", column.get(60123));
+    }
+
+    @Test
+    public void appendsBatchesByTheirDictionaries() {
+        Column column = column("x", "y");
+        column.addAll(new String[]{"y", "z", null}, new int[]{0, 1, 1, 2, 0}, 5);
+
+        assertTrue(column.hasAllRows());
+        assertEquals(7, column.size());
+        assertEquals(4, column.getDistinctCount());
+        assertArrayEquals(new Object[]{"x", "y", "y", "z", "z", null, "y"}, column.stream().toArray());
+    }
+
+    @Test
+    public void appendsDistinctOnlyBatchesAsValues() {
+        Column column = column("x");
+        column.addAll(new String[]{"x", "y"}, null, 10);
+
+        assertFalse(column.hasAllRows());
+        assertEquals(3, column.size());
+        assertEquals(2, column.getDistinctCount());
+    }
+
+    @Test
+    public void mayBeIncludedInColumnsThatHoldAllOfItsValues() {
+        Column dependent = new Column();
+        Column referenced = new Column();
+        for (int i = 0; i < 20000; i++) {
+            dependent.add("v" + (i % 5000));
+            referenced.add("v" + i);
+        }
+        assertTrue(dependent.mayBeIncludedIn(referenced, 100));
+        assertTrue(dependent.mayBeIncludedIn(referenced, 100000));
+        assertTrue(column().mayBeIncludedIn(referenced, 100));
+    }
+
+    @Test
+    public void isNotIncludedInColumnsThatCertainlyLackAValue() {
+        Column referenced = column("a", "b", "c");
+        assertFalse(column("a", "zzz-missing").mayBeIncludedIn(referenced, 10));
+        assertFalse(column("a", null).mayBeIncludedIn(referenced, 10));
+        assertTrue(column(null, "a").mayBeIncludedIn(column("b", null, "a"), 10));
+    }
+
+    @Test
+    public void numbersTheValuesOfAllColumnsByOneDictionary() {
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        Column a = column("x", "y", null, "x");
+        Column b = column("z", "x");
+        a.freeze(dictionary);
+        b.freeze(dictionary);
+
+        assertTrue(a.isFrozen());
+        assertEquals(a.getId(0), b.getId(1));
+        assertEquals(a.getId(0), a.getId(3));
+        assertArrayEquals(new int[]{0, 1, 2}, a.getDistinctIds());
+        assertArrayEquals(new int[]{0, 3}, b.getDistinctIds());
+
+        // freezing again keeps the ids
+        int[] ids = a.getDistinctIds();
+        a.freeze(new IdDictionary<>());
+        assertSame(ids, a.getDistinctIds());
+    }
+
+    @Test
+    public void splitsTheDistinctIdsIntoPartitions() {
+        Column column = new Column();
+        for (int row = 0; row < 1000; row++)
+            column.add(Integer.toString(row % 300));
+        column.freeze(new IdDictionary<>());
+
+        int numIds = 0;
+        for (int partition = 0; partition < 4; partition++) {
+            int[] ids = column.getDistinctIds(partition, 4);
+            for (int i = 0; i < ids.length; i++) {
+                assertEquals(partition, Task.partitionOf(ids[i], 4));
+                assertTrue(i == 0 || ids[i - 1] < ids[i]);
+            }
+            numIds += ids.length;
+        }
+        assertEquals(300, numIds);
+    }
+
+    @Test
+    public void frozenColumnsRejectNewRows() {
+        Column column = column("a");
+        column.freeze(new IdDictionary<>());
+        try {
+            column.add("b");
+            fail("added a row to a frozen column");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            column.addAll(new String[]{"b"}, new int[]{0}, 1);
+            fail("added a batch to a frozen column");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(1, column.size());
+    }
+
+    @Test
+    public void estimatesTheHeapOfItsValuesRowsAndIds() {
+        Column shortValues = column("a", "b");
+        Column longValues = column("a".concat(new String(new char[1000])), "b");
+        Column moreRows = column("a", "b", "a", "b");
+        // a latin-1 value of 1001 chars takes 1000 bytes more than one of a single char
+        assertEquals(1000, longValues.getMemorySize() - shortValues.getMemorySize());
+        assertEquals(shortValues.getMemorySize(), moreRows.getMemorySize()); // within the initial row capacity
+
+        long unfrozen = shortValues.getMemorySize();
+        shortValues.freeze(new IdDictionary<>());
+        assertEquals(2 * (16 + 2 * Integer.BYTES), shortValues.getMemorySize() - unfrozen);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void columnsHaveNoIdsBeforeTheyAreFrozen() {
+        column("a").getDistinctIds();
+    }
+}
@@ -0,0 +1,139 @@
+package de.ddm.structures;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.Assert.*;
+
+public class ColumnarSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String FINGERPRINT = "fingerprint";
+
+    private static LocalDataStorage table(String tableName, List<String> header, String[][] rows) {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        dataStorage.addTable(tableName, header);
+        for (String[] row : rows)
+            dataStorage.addRow(tableName, Arrays.asList(row));
+        dataStorage.freeze(tableName, new IdDictionary<>());
+        return dataStorage;
+    }
+
+    private File save(LocalDataStorage dataStorage, String tableName) throws IOException {
+        File file = new File(this.folder.getRoot(), tableName + ".columns");
+        dataStorage.saveSnapshot(tableName, FINGERPRINT, file, Runnable::run).join();
+        return file;
+    }
+
+    private static void assertSameTable(LocalDataStorage expected, LocalDataStorage actual, String tableName) {
+        assertEquals(expected.getHeader(tableName), actual.getHeader(tableName));
+        assertEquals(expected.getNumRows(tableName), actual.getNumRows(tableName));
+        for (String columnName : expected.getHeader(tableName)) {
+            Column expectedColumn = expected.getColumn(tableName, columnName);
+            Column actualColumn = actual.getColumn(tableName, columnName);
+            assertEquals(expectedColumn.getDistinctCount(), actualColumn.getDistinctCount());
+            for (int row = 0; row < expectedColumn.size(); row++)
+                assertEquals(expectedColumn.get(row), actualColumn.get(row));
+        }
+    }
+
+    @Test
+    public void roundTripsNullAndNonAsciiValues() throws IOException {
+        LocalDataStorage dataStorage = table("T", Arrays.asList("Name", "Straße", "Emoji"), new String[][]{
+            {"a", null, "🙂"},
+            {null, "Grüße", "日本語"},
+            {"a", "Grüße", null},
+            {"", "ß", "🙂"}});
+        File file = this.save(dataStorage, "T");
+
+        LocalDataStorage loaded = new LocalDataStorage();
+        assertTrue(loaded.loadSnapshot("T", FINGERPRINT, file));
+        assertSameTable(dataStorage, loaded, "T");
+        assertNull(loaded.getColumn("T", "Name").get(1));
+        assertEquals("", loaded.getColumn("T", "Name").get(3));
+    }
+
+    @Test
+    public void roundTripsSectionsLargerThanTheOutputBuffer() throws IOException {
+        // a value and a code section that both exceed the 1 MiB buffer of the writer
+        char[] large = new char[3 * 1024 * 1024 / 2];
+        Arrays.fill(large, 'ä');
+        String[][] rows = new String[400000][];
+        for (int row = 0; row < rows.length; row++)
+            rows[row] = new String[]{Integer.toString(row % 70000), row == 12345 ? new String(large) : "v" + (row % 3)};
+        LocalDataStorage dataStorage = table("T", Arrays.asList("A", "B"), rows);
+        File file = this.save(dataStorage, "T");
+        assertTrue(file.length() > 2 * 1024 * 1024);
+
+        LocalDataStorage loaded = new LocalDataStorage();
+        assertTrue(loaded.loadSnapshot("T", FINGERPRINT, file));
+        assertSameTable(dataStorage, loaded, "T");
+    }
+
+    @Test
+    public void ignoresSnapshotsOfOtherFingerprints() throws IOException {
+        File file = this.save(table("T", Arrays.asList("A"), new String[][]{{"x"}}), "T");
+
+        LocalDataStorage loaded = new LocalDataStorage();
+        assertFalse(loaded.loadSnapshot("T", "stale", file));
+        assertNull(loaded.getHeader("T"));
+        assertFalse(loaded.loadSnapshot("T", FINGERPRINT, new File(this.folder.getRoot(), "missing.columns")));
+    }
+
+    @Test
+    public void rejectsTruncatedSnapshots() throws IOException {
+        String[][] rows = new String[1000][];
+        for (int row = 0; row < rows.length; row++)
+            rows[row] = new String[]{"a" + row, "b" + (row % 10)};
+        File file = this.save(table("T", Arrays.asList("A", "B"), rows), "T");
+        byte[] bytes = Files.readAllBytes(file.toPath());
+
+        for (long length : new long[]{0, 6, 20, bytes.length / 2, bytes.length - 1}) {
+            Files.write(file.toPath(), bytes);
+            try (RandomAccessFile truncated = new RandomAccessFile(file, "rw")) {
+                truncated.setLength(length);
+            }
+
+            LocalDataStorage loaded = new LocalDataStorage();
+            try {
+                loaded.loadSnapshot("T", FINGERPRINT, file);
+                fail("read a snapshot truncated to " + length + " bytes");
+            } catch (IOException e) {
+                assertNull(loaded.getHeader("T"));
+            }
+        }
+    }
+
+    @Test
+    public void refusesDistinctOnlyTables() throws IOException {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        dataStorage.addTable("T", Arrays.asList("A"));
+        dataStorage.getColumn("T", "A").addAll(new String[]{"x", "y"}, null, 5);
+        dataStorage.freeze("T", new IdDictionary<>());
+        try {
+            this.save(dataStorage, "T");
+            fail("saved a table without its rows");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void refusesTablesThatAreNotFrozen() throws IOException {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        dataStorage.addTable("T", Arrays.asList("A"));
+        dataStorage.addRow("T", Arrays.asList("x"));
+        this.save(dataStorage, "T");
+    }
+}
@@ -0,0 +1,156 @@
+package de.ddm.structures;
+
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.enums.CSVReaderNullFieldIndicator;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CsvTokenizerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String content, Charset charset) throws IOException {
+        File file = this.folder.newFile();
+        Files.write(file.toPath(), content.getBytes(charset));
+        return file;
+    }
+
+    private static List<String[]> tokenize(File file, long start, long end, Charset charset, boolean strictQuotes) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(file, start, end, charset, ';', '"', '\\', strictQuotes)) {
+            String[] record;
+            while ((record = tokenizer.readNext()) != null)
+                records.add(record);
+        }
+        return records;
+    }
+
+    // The records of opencsv with the options that InputConfiguration uses, or null if it rejects the file
+    private static List<String[]> parse(File file, Charset charset, boolean strictQuotes) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CSVReader reader = new CSVReaderBuilder(Files.newBufferedReader(file.toPath(), charset))
+                .withCSVParser(new CSVParserBuilder()
+                    .withSeparator(';')
+                    .withQuoteChar('"')
+                    .withEscapeChar('\\')
+                    .withStrictQuotes(strictQuotes)
+                    .withIgnoreLeadingWhiteSpace(false)
+                    .withFieldAsNull(CSVReaderNullFieldIndicator.EMPTY_SEPARATORS)
+                    .build())
+                .build()) {
+            String[] record;
+            while ((record = reader.readNext()) != null)
+                records.add(record);
+        } catch (Exception e) {
+            return null;
+        }
+        return records;
+    }
+
+    private static void assertRecordsEqual(String message, List<String[]> expected, List<String[]> actual) {
+        assertEquals(message, expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++)
+            assertArrayEquals(message + ", record " + i, expected.get(i), actual.get(i));
+    }
+
+    private void assertTokenizedLikeOpencsv(String content, Charset charset, boolean strictQuotes) throws IOException {
+        File file = this.write(content, charset);
+        List<String[]> expected = parse(file, charset, strictQuotes);
+        String message = "\"" + content.replace("\n", "\\n").replace("\r", "\\r") + "\", strict quotes " + strictQuotes;
+        if (expected == null) {
+            try {
+                tokenize(file, 0, file.length(), charset, strictQuotes);
+                fail("accepted " + message);
+            } catch (IOException e) {
+                return; // opencsv rejects it as well
+            }
+        }
+        assertRecordsEqual(message, expected, tokenize(file, 0, file.length(), charset, strictQuotes));
+    }
+
+    @Test
+    public void tokenizesLikeOpencsv() throws IOException {
+        String[] contents = {
+            "a;b;c\n1;2;3\n",
+            "a;;c\n;\n\n",
+            "\"a\";\"\";\"c;d\"\r\n\"e\"\"f\";g\r\n",
+            "\"multi\nline\";\"value\"\n",
+            "\"escaped \\\" quote\";\\;;x\\\\y\n",
+            "ab\"cd\"ef;\"x\"y;z\"\n",
+            "\"a\" b;c\n",
+            "no final line break",
+            "Straße;größe;\"naïve\"\n",
+            "\uD83D\uDE00\"a;\"\uD83D\uDE00\"\n",
+        };
+        for (String content : contents)
+            for (boolean strictQuotes : new boolean[]{false, true})
+                this.assertTokenizedLikeOpencsv(content, StandardCharsets.UTF_8, strictQuotes);
+        this.assertTokenizedLikeOpencsv("café;\"é\"\"é\"\n", StandardCharsets.ISO_8859_1, false);
+    }
+
+    @Test
+    public void tokenizesRandomInputLikeOpencsv() throws IOException {
+        String alphabet = "ab;;\"\"\\\n\r é";
+        Random random = new Random(13);
+        for (int round = 0; round < 2000; round++) {
+            StringBuilder content = new StringBuilder();
+            for (int length = random.nextInt(20); length > 0; length--)
+                content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            this.assertTokenizedLikeOpencsv(content.toString(), StandardCharsets.UTF_8, random.nextBoolean());
+        }
+    }
+
+    @Test
+    public void readsOnlyTheGivenRange() throws IOException {
+        File file = this.write("a;b\nc;d\ne;f\n", StandardCharsets.UTF_8);
+        List<String[]> records = tokenize(file, 4, 8, StandardCharsets.UTF_8, false);
+        assertEquals(1, records.size());
+        assertArrayEquals(new String[]{"c", "d"}, records.get(0));
+    }
+
+    @Test
+    public void handsOutRepeatedValuesAsTheSameString() throws IOException {
+        File file = this.write("same;x1\nsame;x2\n", StandardCharsets.UTF_8);
+        List<String[]> records = tokenize(file, 0, file.length(), StandardCharsets.UTF_8, false);
+        assertSame(records.get(0)[0], records.get(1)[0]);
+    }
+
+    @Test
+    public void keepsValuesCorrectBeyondTheDictionarySize() throws IOException {
+        // the first column repeats its values, the second one never does and bypasses its dictionary
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100000; i++)
+            content.append("v").append(i % 20000).append(';').append(i).append('\n');
+        File file = this.write(content.toString(), StandardCharsets.UTF_8);
+
+        List<String[]> records = tokenize(file, 0, file.length(), StandardCharsets.UTF_8, false);
+        assertEquals(100000, records.size());
+        for (int i = 0; i < records.size(); i++) {
+            assertEquals("v" + (i % 20000), records.get(i)[0]);
+            assertEquals(Integer.toString(i), records.get(i)[1]);
+        }
+    }
+
+    @Test
+    public void supportsOnlySingleByteCharacters() {
+        assertTrue(CsvTokenizer.supports(StandardCharsets.UTF_8, ';', '"', '\\'));
+        assertTrue(CsvTokenizer.supports(StandardCharsets.ISO_8859_1, ';', '"', '\\'));
+        assertFalse(CsvTokenizer.supports(StandardCharsets.UTF_8, '§', '"', '\\'));
+        assertFalse(CsvTokenizer.supports(StandardCharsets.UTF_16, ';', '"', '\\'));
+    }
+}
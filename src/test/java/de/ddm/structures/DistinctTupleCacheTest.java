@@ -0,0 +1,85 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DistinctTupleCacheTest {
+
+    private final LocalDataStorage dataStorage = new LocalDataStorage();
+    private final IdDictionary<String> dictionary = new IdDictionary<>();
+
+    @Before
+    public void setUp() {
+        this.dataStorage.addTable("R", Arrays.asList("A", "B"));
+        for (int i = 0; i < 1000; i++)
+            this.dataStorage.addRow("R", Arrays.asList("a" + (i % 50), "b" + (i % 20)));
+        this.dataStorage.addTable("S", Arrays.asList("C", "D"));
+        for (int i = 0; i < 300; i++)
+            this.dataStorage.addRow("S", Arrays.asList("a" + (i % 10), "b" + (i % 20)));
+        this.dataStorage.freeze("R", this.dictionary);
+        this.dataStorage.freeze("S", this.dictionary);
+    }
+
+    private static void assertAscending(int[] ids) {
+        for (int i = 1; i < ids.length; i++)
+            assertTrue(ids[i - 1] < ids[i]);
+    }
+
+    @Test
+    public void numbersEqualCombinationsOfAllTablesAlike() {
+        DistinctTupleCache cache = new DistinctTupleCache(this.dataStorage);
+        int[] r = cache.get("R", Arrays.asList("A", "B"), 0, 1);
+        int[] s = cache.get("S", Arrays.asList("C", "D"), 0, 1);
+
+        // (a{i % 50}, b{i % 20}) has 100 distinct combinations, (a{i % 10}, b{i % 20}) has 20, all of which occur in R
+        assertEquals(100, r.length);
+        assertEquals(20, s.length);
+        assertAscending(r);
+        assertAscending(s);
+        IntOpenHashSet rIds = new IntOpenHashSet(r);
+        for (int id : s)
+            assertTrue(rIds.contains(id));
+    }
+
+    @Test
+    public void sharesTheComputedCombinations() {
+        DistinctTupleCache cache = new DistinctTupleCache(this.dataStorage);
+        List<String> columns = Arrays.asList("A", "B");
+        assertSame(cache.get("R", columns, 0, 1), cache.get("R", columns, 0, 1));
+        assertSame(cache.get("R", columns, 2, 4), cache.get("R", columns, 2, 4));
+    }
+
+    @Test
+    public void partitionsSplitTheCombinations() {
+        DistinctTupleCache cache = new DistinctTupleCache(this.dataStorage);
+        List<String> columns = Arrays.asList("B", "A");
+        int[] all = cache.get("R", columns, 0, 1);
+
+        IntOpenHashSet union = new IntOpenHashSet();
+        int size = 0;
+        for (int partition = 0; partition < 4; partition++) {
+            int[] ids = cache.get("R", columns, partition, 4);
+            assertAscending(ids);
+            for (int id : ids)
+                assertEquals(partition, Task.partitionOf(id, 4));
+            union.addAll(new IntOpenHashSet(ids));
+            size += ids.length;
+        }
+        assertEquals(all.length, size);
+        assertEquals(new IntOpenHashSet(all), union);
+    }
+
+    @Test
+    public void columnOrderMatters() {
+        DistinctTupleCache cache = new DistinctTupleCache(this.dataStorage);
+        IntOpenHashSet ab = new IntOpenHashSet(cache.get("R", Arrays.asList("A", "B"), 0, 1));
+        for (int id : cache.get("R", Arrays.asList("B", "A"), 0, 1))
+            assertFalse(ab.contains(id));
+    }
+}
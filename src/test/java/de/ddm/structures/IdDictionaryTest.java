@@ -0,0 +1,56 @@
+package de.ddm.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class IdDictionaryTest {
+
+    @Test
+    public void assignsConsecutiveIdsToDistinctKeys() {
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        assertEquals(0, dictionary.getId("a"));
+        assertEquals(1, dictionary.getId(null));
+        assertEquals(2, dictionary.getId("b"));
+        assertEquals(0, dictionary.getId(new String("a")));
+        assertEquals(1, dictionary.getId(null));
+        assertEquals(3, dictionary.size());
+    }
+
+    @Test
+    public void storesCopiesOfReusedKeys() {
+        IdDictionary<IntArrayList> dictionary = new IdDictionary<>();
+        IntArrayList key = new IntArrayList(new int[]{1, 2});
+        assertEquals(0, dictionary.getId(key, IntArrayList::clone));
+
+        // the caller overwrites its key for the next lookup, which must not change the stored one
+        key.set(1, 3);
+        assertEquals(1, dictionary.getId(key, IntArrayList::clone));
+        key.set(1, 2);
+        assertEquals(0, dictionary.getId(key, IntArrayList::clone));
+        assertEquals(0, dictionary.getId(new IntArrayList(new int[]{1, 2})));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void numbersEqualValuesOfAllTablesAlike() {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        dataStorage.addTable("R", Arrays.asList("A", "B"));
+        dataStorage.addRow("R", Arrays.asList("x", "1"));
+        dataStorage.addRow("R", Arrays.asList("y", "2"));
+        dataStorage.addTable("S", Arrays.asList("C"));
+        dataStorage.addRow("S", Arrays.asList("2"));
+        dataStorage.addRow("S", Arrays.asList("x"));
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        dataStorage.freeze("R", dictionary);
+        dataStorage.freeze("S", dictionary);
+
+        assertEquals(4, dictionary.size());
+        assertEquals(dataStorage.getColumn("R", "A").getId(0), dataStorage.getColumn("S", "C").getId(1));
+        assertEquals(dataStorage.getColumn("R", "B").getId(1), dataStorage.getColumn("S", "C").getId(0));
+        assertNotEquals(dataStorage.getColumn("R", "A").getId(1), dataStorage.getColumn("S", "C").getId(0));
+    }
+}
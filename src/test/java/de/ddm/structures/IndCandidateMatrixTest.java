@@ -0,0 +1,143 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IndCandidateMatrixTest {
+
+    private static final ColumnId A = new ColumnId("R", "A");
+    private static final ColumnId B = new ColumnId("S", "B");
+    private static final ColumnId C = new ColumnId("T", "C");
+
+    private static IndCandidateMatrix matrix() {
+        IndCandidateMatrix matrix = new IndCandidateMatrix();
+        matrix.addColumns("R", Collections.singletonList("A"));
+        matrix.addColumns("S", Collections.singletonList("B"));
+        matrix.addColumns("T", Collections.singletonList("C"));
+        return matrix;
+    }
+
+    private static Task task(ColumnId a, ColumnId b) {
+        return new Task(a.getTableName(), b.getTableName(), Collections.singletonList(a.getColumnName()), Collections.singletonList(b.getColumnName()));
+    }
+
+    @Test
+    public void infersTransitiveInds() {
+        IndCandidateMatrix matrix = matrix();
+        assertEquals(Collections.singletonList(TestData.ind(A, B)), matrix.record(task(A, B), Collections.singletonList(TestData.ind(A, B))));
+        assertTrue(matrix.isUndecided(A, C));
+
+        assertEquals(TestData.toStrings(Arrays.asList(TestData.ind(B, C), TestData.ind(A, C))), TestData.toStrings(matrix.record(task(B, C), Collections.singletonList(TestData.ind(B, C)))));
+        assertFalse(matrix.isUndecided(A, C));
+        // B c C and not B c A imply not C c A, so nothing is left to validate between A and C
+        assertFalse(matrix.isUndecided(C, A));
+        assertNull(matrix.prune(task(A, C)));
+
+        assertEquals(4, matrix.getValidatedPairs());
+        assertEquals(2, matrix.getInferredPairs());
+        assertEquals(2, matrix.getPrunedPairs());
+    }
+
+    @Test
+    public void propagatesFailuresAlongInds() {
+        IndCandidateMatrix matrix = matrix();
+        matrix.record(task(A, B), Collections.singletonList(TestData.ind(A, B)));
+
+        // A c B and not A c C imply not B c C
+        matrix.refute(A, C);
+        assertFalse(matrix.isUndecided(B, C));
+        // A c B and not C c B imply not C c A
+        matrix.refute(C, B);
+        assertFalse(matrix.isUndecided(C, A));
+        assertEquals(2, matrix.getRefutedPairs());
+        assertEquals(2, matrix.getInferredPairs());
+        assertNull(matrix.prune(task(A, C)));
+        assertNull(matrix.prune(task(B, C)));
+    }
+
+    @Test
+    public void prunesOnlyTheDecidedColumnsOfATask() {
+        IndCandidateMatrix matrix = new IndCandidateMatrix();
+        matrix.addColumns("R", Arrays.asList("A", "D"));
+        matrix.addColumns("S", Collections.singletonList("B"));
+        matrix.record(task(A, B), Collections.emptyList());
+
+        Task pruned = matrix.prune(new Task("R", "S", Arrays.asList("A", "D"), Collections.singletonList("B")));
+        assertEquals(Collections.singletonList("D"), pruned.getColumnNamesA());
+        assertEquals(Collections.singletonList("B"), pruned.getColumnNamesB());
+
+        // partitioned tasks are kept whole
+        Task partitioned = new Task("R", "S", Arrays.asList("A", "D"), Collections.singletonList("B"), 0, 2);
+        assertSame(partitioned, matrix.prune(partitioned));
+    }
+
+    @Test
+    public void findsAllIndsOfRandomColumnsWithPruning() {
+        Random random = new Random(11);
+        List<String> tables = Arrays.asList("R", "S", "T");
+        for (int round = 0; round < 200; round++) {
+            IndCandidateMatrix matrix = new IndCandidateMatrix();
+            Map<ColumnId, Set<Integer>> values = new LinkedHashMap<>();
+            Map<String, List<String>> columnNames = new LinkedHashMap<>();
+            for (String table : tables) {
+                columnNames.put(table, new ArrayList<>());
+                for (int column = 0; column < 1 + random.nextInt(3); column++) {
+                    columnNames.get(table).add("C" + column);
+                    Set<Integer> columnValues = new HashSet<>();
+                    // small, nested domains, so that many INDs hold
+                    int domain = 1 + random.nextInt(6);
+                    for (int value = 0; value < domain; value++)
+                        if (random.nextInt(4) > 0)
+                            columnValues.add(value);
+                    values.put(new ColumnId(table, "C" + column), columnValues);
+                }
+                matrix.addColumns(table, columnNames.get(table));
+            }
+
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < tables.size(); i++)
+                for (int j = i; j < tables.size(); j++)
+                    tasks.add(new Task(tables.get(i), tables.get(j), columnNames.get(tables.get(i)), columnNames.get(tables.get(j))));
+            Collections.shuffle(tasks, random);
+
+            Set<String> found = new TreeSet<>();
+            for (Task task : tasks) {
+                Task pruned = matrix.prune(task);
+                if (pruned == null)
+                    continue;
+                List<InclusionDependency> holding = new ArrayList<>();
+                for (String a : pruned.getColumnNamesA()) {
+                    for (String b : pruned.getColumnNamesB()) {
+                        ColumnId columnA = new ColumnId(pruned.getTableNameA(), a);
+                        ColumnId columnB = new ColumnId(pruned.getTableNameB(), b);
+                        if (columnA.equals(columnB))
+                            continue;
+                        if (values.get(columnB).containsAll(values.get(columnA)))
+                            holding.add(TestData.ind(columnA, columnB));
+                        if (values.get(columnA).containsAll(values.get(columnB)))
+                            holding.add(TestData.ind(columnB, columnA));
+                    }
+                }
+                for (InclusionDependency ind : matrix.record(pruned, holding))
+                    assertTrue("reported twice: " + ind, found.add(ind.toString()));
+            }
+
+            Set<String> expected = new TreeSet<>();
+            for (ColumnId dependent : values.keySet()) {
+                for (ColumnId referenced : values.keySet()) {
+                    if (dependent.equals(referenced))
+                        continue;
+                    assertFalse(dependent + " c " + referenced, matrix.isUndecided(dependent, referenced));
+                    if (values.get(referenced).containsAll(values.get(dependent)))
+                        expected.add(TestData.ind(dependent, referenced).toString());
+                }
+            }
+            assertEquals(expected, found);
+            long numColumns = values.size();
+            assertEquals(numColumns * (numColumns - 1), matrix.getValidatedPairs() + matrix.getInferredPairs());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class IndValidatorTest {
+
+    private static final IndValidator[] VALIDATORS = {new SortMergeValidator(), new HashValidator()};
+
+    private static Map<String, int[]> columns(Object... namesAndIds) {
+        Map<String, int[]> columns = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndIds.length; i += 2)
+            columns.put((String) namesAndIds[i], (int[]) namesAndIds[i + 1]);
+        return columns;
+    }
+
+    private static Set<String> validate(IndValidator validator, Task task, Map<String, int[]> a, Map<String, int[]> b) {
+        return TestData.toStrings(validator.validate(task, a, b));
+    }
+
+    private static Set<String> inds(String... inds) {
+        return new TreeSet<>(Arrays.asList(inds));
+    }
+
+    private static String ind(String dependentTable, String referencedTable, String dependent, String referenced) {
+        return new InclusionDependency(dependentTable, referencedTable, dependent, referenced).toString();
+    }
+
+    @Test
+    public void findsIndsBetweenTablesInBothDirections() {
+        Task task = new Task("R", "S", Arrays.asList("A", "B"), Arrays.asList("C", "D"));
+        Map<String, int[]> r = columns("A", new int[]{1, 2, 3}, "B", new int[]{2, 5, 9});
+        Map<String, int[]> s = columns("C", new int[]{1, 2, 3, 4}, "D", new int[]{2, 5, 9});
+
+        for (IndValidator validator : VALIDATORS)
+            assertEquals(validator.getClass().getSimpleName(),
+                inds(ind("R", "S", "A", "C"), ind("R", "S", "B", "D"), ind("S", "R", "D", "B")),
+                validate(validator, task, r, s));
+    }
+
+    @Test
+    public void skipsTrivialIndsWithinATable() {
+        Map<String, int[]> r = columns("A", new int[]{1, 2}, "B", new int[]{1, 2, 3});
+        Task task = new Task("R", "R", Arrays.asList("A", "B"), Arrays.asList("A", "B"));
+
+        for (IndValidator validator : VALIDATORS)
+            assertEquals(validator.getClass().getSimpleName(), inds(ind("R", "R", "A", "B")), validate(validator, task, r, r));
+    }
+
+    @Test
+    public void agreesWithTheHashValidatorOnRandomColumns() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Map<String, int[]> a = new LinkedHashMap<>();
+            Map<String, int[]> b = new LinkedHashMap<>();
+            for (int column = 0; column < 1 + random.nextInt(5); column++)
+                a.put("A" + column, TestData.randomIds(random, 12));
+            for (int column = 0; column < 1 + random.nextInt(5); column++)
+                b.put("B" + column, TestData.randomIds(random, 12));
+            Task task = new Task("R", "S", new ArrayList<>(a.keySet()), new ArrayList<>(b.keySet()));
+
+            assertEquals(validate(new HashValidator(), task, a, b), validate(new SortMergeValidator(), task, a, b));
+        }
+    }
+}
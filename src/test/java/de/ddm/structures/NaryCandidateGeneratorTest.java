@@ -0,0 +1,51 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NaryCandidateGeneratorTest {
+
+    private static InclusionDependency ind(String dependentColumns, String referencedColumns) {
+        return new InclusionDependency("R", "S", Arrays.asList(dependentColumns.split(",")), Arrays.asList(referencedColumns.split(",")));
+    }
+
+    private static Set<InclusionDependency> generate(InclusionDependency... valid) {
+        List<InclusionDependency> candidates = NaryCandidateGenerator.generate(Arrays.asList(valid));
+        Set<InclusionDependency> unique = new HashSet<>(candidates);
+        assertEquals("generated twice: " + candidates, candidates.size(), unique.size());
+        return unique;
+    }
+
+    private static Set<InclusionDependency> inds(InclusionDependency... inds) {
+        return new HashSet<>(Arrays.asList(inds));
+    }
+
+    @Test
+    public void joinsUnaryIndsOfTheSameTables() {
+        InclusionDependency otherTables = new InclusionDependency("R", "T", "B", "E");
+        assertEquals(inds(ind("A,B", "C,D")), generate(ind("A", "C"), ind("B", "D"), otherTables));
+    }
+
+    @Test
+    public void neverRepeatsAColumn() {
+        // B c C as well, but A,B c C,C would reference C twice
+        assertEquals(inds(ind("A,B", "C,D"), ind("A,B", "D,C")),
+            generate(ind("A", "C"), ind("A", "D"), ind("B", "C"), ind("B", "D")));
+    }
+
+    @Test
+    public void keepsOnlyCandidatesWhoseSubIndsAreAllValid() {
+        // A,B,E c C,D,F needs B,E c D,F, the only sub-IND that is not one of the two joined ones
+        assertEquals(inds(), generate(ind("A,B", "C,D"), ind("A,E", "C,F")));
+        assertEquals(inds(ind("A,B,E", "C,D,F")), generate(ind("A,B", "C,D"), ind("A,E", "C,F"), ind("B,E", "D,F")));
+    }
+
+    @Test
+    public void generatesNothingFromASingleInd() {
+        assertTrue(generate(ind("A", "C")).isEmpty());
+        assertTrue(generate().isEmpty());
+    }
+}
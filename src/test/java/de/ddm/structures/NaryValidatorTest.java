@@ -0,0 +1,125 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class NaryValidatorTest {
+
+    private static final List<String> COLUMNS_R = Arrays.asList("A", "B", "C");
+    private static final List<String> COLUMNS_S = Arrays.asList("D", "E", "F");
+
+    private static Map<String, int[]> tuples(DistinctTupleCache cache, String tableName, Collection<List<String>> combinations) {
+        Map<String, int[]> tuples = new HashMap<>();
+        for (List<String> combination : combinations)
+            tuples.put(Task.getCombinationKey(combination), cache.get(tableName, combination, 0, 1));
+        return tuples;
+    }
+
+    private static List<InclusionDependency> validate(DistinctTupleCache cache, List<InclusionDependency> candidates) {
+        Map<String, List<String>> combinationsA = new LinkedHashMap<>();
+        Map<String, List<String>> combinationsB = new LinkedHashMap<>();
+        for (InclusionDependency candidate : candidates) {
+            combinationsA.put(Task.getCombinationKey(candidate.getDependentColumns()), candidate.getDependentColumns());
+            combinationsB.put(Task.getCombinationKey(candidate.getReferencedColumns()), candidate.getReferencedColumns());
+        }
+        Task task = new Task("R", "S", new ArrayList<>(combinationsA.keySet()), new ArrayList<>(combinationsB.keySet()), 0, 1, candidates);
+        return new NaryValidator().validate(task,
+            tuples(cache, "R", combinationsA.values()), tuples(cache, "S", combinationsB.values()));
+    }
+
+    @Test
+    public void checksTheCombinationsRatherThanTheSingleColumns() {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        dataStorage.addTable("R", COLUMNS_R);
+        dataStorage.addRow("R", Arrays.asList("1", "x", "p"));
+        dataStorage.addRow("R", Arrays.asList("2", "y", "q"));
+        dataStorage.addTable("S", COLUMNS_S);
+        dataStorage.addRow("S", Arrays.asList("1", "x", "q"));
+        dataStorage.addRow("S", Arrays.asList("2", "y", "p"));
+        dataStorage.addRow("S", Arrays.asList("3", "y", "p"));
+        IdDictionary<String> dictionary = new IdDictionary<>();
+        dataStorage.freeze("R", dictionary);
+        dataStorage.freeze("S", dictionary);
+
+        InclusionDependency ab = new InclusionDependency("R", "S", Arrays.asList("A", "B"), Arrays.asList("D", "E"));
+        InclusionDependency ac = new InclusionDependency("R", "S", Arrays.asList("A", "C"), Arrays.asList("D", "F"));
+        // every column of A,C is included in D,F, but (1, p) is not
+        assertEquals(Collections.singletonList(ab), validate(new DistinctTupleCache(dataStorage), Arrays.asList(ab, ac)));
+    }
+
+    @Test
+    public void findsTheNaryIndsOfRandomTablesLevelByLevel() {
+        Random random = new Random(5);
+        for (int round = 0; round < 50; round++) {
+            LocalDataStorage dataStorage = new LocalDataStorage();
+            List<List<String>> rowsR = randomRows(random, 1 + random.nextInt(6));
+            List<List<String>> rowsS = new ArrayList<>(rowsR.subList(0, random.nextInt(rowsR.size() + 1)));
+            // S contains some of the rows of R with shuffled columns, so that n-ary INDs hold
+            List<Integer> order = Arrays.asList(0, 1, 2);
+            Collections.shuffle(order, random);
+            for (int i = 0; i < rowsS.size(); i++) {
+                List<String> row = rowsS.get(i);
+                rowsS.set(i, Arrays.asList(row.get(order.get(0)), row.get(order.get(1)), row.get(order.get(2))));
+            }
+            rowsS.addAll(randomRows(random, random.nextInt(4)));
+            dataStorage.addTable("R", COLUMNS_R);
+            rowsR.forEach(row -> dataStorage.addRow("R", row));
+            dataStorage.addTable("S", COLUMNS_S);
+            rowsS.forEach(row -> dataStorage.addRow("S", row));
+            IdDictionary<String> dictionary = new IdDictionary<>();
+            dataStorage.freeze("R", dictionary);
+            dataStorage.freeze("S", dictionary);
+            DistinctTupleCache cache = new DistinctTupleCache(dataStorage);
+
+            List<InclusionDependency> valid = new ArrayList<>();
+            for (int a = 0; a < COLUMNS_R.size(); a++)
+                for (int b = 0; b < COLUMNS_S.size(); b++)
+                    if (isIncluded(rowsR, rowsS, new int[]{a}, new int[]{b}))
+                        valid.add(new InclusionDependency("R", "S", COLUMNS_R.get(a), COLUMNS_S.get(b)));
+
+            while (!valid.isEmpty()) {
+                List<InclusionDependency> candidates = NaryCandidateGenerator.generate(valid);
+                if (candidates.isEmpty())
+                    break;
+                valid = validate(cache, candidates);
+
+                Set<InclusionDependency> expected = new HashSet<>();
+                for (InclusionDependency candidate : candidates)
+                    if (isIncluded(rowsR, rowsS, indicesOf(COLUMNS_R, candidate.getDependentColumns()), indicesOf(COLUMNS_S, candidate.getReferencedColumns())))
+                        expected.add(candidate);
+                assertEquals(expected, new HashSet<>(valid));
+            }
+        }
+    }
+
+    private static List<List<String>> randomRows(Random random, int count) {
+        List<List<String>> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            rows.add(Arrays.asList(Integer.toString(random.nextInt(3)), Integer.toString(random.nextInt(3)), Integer.toString(random.nextInt(3))));
+        return rows;
+    }
+
+    private static int[] indicesOf(List<String> columnNames, List<String> columns) {
+        return columns.stream().mapToInt(columnNames::indexOf).toArray();
+    }
+
+    private static boolean isIncluded(List<List<String>> rowsA, List<List<String>> rowsB, int[] columnsA, int[] columnsB) {
+        Set<List<String>> tuplesB = new HashSet<>();
+        for (List<String> row : rowsB)
+            tuplesB.add(project(row, columnsB));
+        for (List<String> row : rowsA)
+            if (!tuplesB.contains(project(row, columnsA)))
+                return false;
+        return true;
+    }
+
+    private static List<String> project(List<String> row, int[] columns) {
+        List<String> tuple = new ArrayList<>();
+        for (int column : columns)
+            tuple.add(row.get(column));
+        return tuple;
+    }
+}
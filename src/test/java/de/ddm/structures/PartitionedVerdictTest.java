@@ -0,0 +1,83 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class PartitionedVerdictTest {
+
+    private static final InclusionDependency AC = new InclusionDependency("R", "S", "A", "C");
+    private static final InclusionDependency BD = new InclusionDependency("R", "S", "B", "D");
+    private static final InclusionDependency DB = new InclusionDependency("S", "R", "D", "B");
+
+    @Test
+    public void keepsTheIndsThatHoldInEveryPartition() {
+        PartitionedVerdict verdict = new PartitionedVerdict(3);
+        assertFalse(verdict.add(2, Arrays.asList(AC, BD, DB)));
+        assertFalse(verdict.add(0, Arrays.asList(AC, BD)));
+        assertFalse(verdict.isComplete());
+        assertTrue(verdict.add(1, Arrays.asList(BD, AC)));
+
+        assertTrue(verdict.isComplete());
+        assertEquals(new HashSet<>(Arrays.asList(AC, BD)), new HashSet<>(verdict.getInclusionDependencies()));
+    }
+
+    @Test
+    public void ignoresRepeatedResultsOfAPartition() {
+        PartitionedVerdict verdict = new PartitionedVerdict(2);
+        verdict.add(0, Arrays.asList(AC, BD));
+        // a re-sent task must neither complete the verdict nor change it
+        assertFalse(verdict.add(0, Collections.singletonList(AC)));
+        assertFalse(verdict.add(0, Arrays.asList(AC, BD, DB)));
+        assertTrue(verdict.add(1, Arrays.asList(AC, BD, DB)));
+
+        assertEquals(new HashSet<>(Arrays.asList(AC, BD)), new HashSet<>(verdict.getInclusionDependencies()));
+    }
+
+    @Test
+    public void aPartitionWithoutIndsRefutesAll() {
+        PartitionedVerdict verdict = new PartitionedVerdict(2);
+        verdict.add(1, Collections.emptyList());
+        verdict.add(0, Arrays.asList(AC, BD));
+        assertTrue(verdict.getInclusionDependencies().isEmpty());
+    }
+
+    @Test
+    public void agreesWithTheValidationOfWholeColumns() {
+        Random random = new Random(7);
+        IndValidator validator = new SortMergeValidator();
+        for (int round = 0; round < 100; round++) {
+            Map<String, int[]> a = new LinkedHashMap<>();
+            Map<String, int[]> b = new LinkedHashMap<>();
+            for (int column = 0; column < 1 + random.nextInt(4); column++)
+                a.put("A" + column, TestData.randomIds(random, 20));
+            for (int column = 0; column < 1 + random.nextInt(4); column++)
+                b.put("B" + column, TestData.randomIds(random, 20));
+            Task task = new Task("R", "S", new ArrayList<>(a.keySet()), new ArrayList<>(b.keySet()));
+            int numPartitions = 1 + random.nextInt(5);
+
+            PartitionedVerdict verdict = new PartitionedVerdict(numPartitions);
+            Map<String, int[][]> partitionsA = partition(a, numPartitions);
+            Map<String, int[][]> partitionsB = partition(b, numPartitions);
+            for (int partition = 0; partition < numPartitions; partition++)
+                verdict.add(partition, validator.validate(task, select(partitionsA, partition), select(partitionsB, partition)));
+
+            assertTrue(verdict.isComplete());
+            assertEquals(new HashSet<>(validator.validate(task, a, b)), new HashSet<>(verdict.getInclusionDependencies()));
+        }
+    }
+
+    private static Map<String, int[][]> partition(Map<String, int[]> columns, int numPartitions) {
+        Map<String, int[][]> partitions = new LinkedHashMap<>();
+        columns.forEach((column, ids) -> partitions.put(column, Task.partition(ids, numPartitions)));
+        return partitions;
+    }
+
+    private static Map<String, int[]> select(Map<String, int[][]> partitions, int partition) {
+        Map<String, int[]> columns = new LinkedHashMap<>();
+        partitions.forEach((column, ids) -> columns.put(column, ids[partition]));
+        return columns;
+    }
+}
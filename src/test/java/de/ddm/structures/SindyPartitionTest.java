@@ -0,0 +1,98 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class SindyPartitionTest {
+
+    private static final List<ColumnId> COLUMNS = Arrays.asList(
+        new ColumnId("R", "A"), new ColumnId("R", "B"), new ColumnId("S", "C"), new ColumnId("S", "D"));
+
+    private static String ind(int dependent, int referenced) {
+        return TestData.ind(COLUMNS.get(dependent), COLUMNS.get(referenced)).toString();
+    }
+
+    @Test
+    public void invertsThePartitionIntoTheColumnsThatMayIncludeEachColumn() {
+        SindyPartition partition = new SindyPartition(4);
+        partition.addColumn(0, new int[]{1, 2});
+        partition.addColumn(1, new int[]{1, 2, 3});
+        partition.addColumn(2, new int[]{2});
+        assertFalse(partition.isComplete());
+        partition.addColumn(3, new int[0]);
+
+        assertTrue(partition.isComplete());
+        assertEquals(3, partition.getNumValues());
+        int[][] candidates = partition.getCandidates();
+        assertArrayEquals(new int[]{1}, candidates[0]);
+        assertArrayEquals(new int[0], candidates[1]);
+        assertArrayEquals(new int[]{0, 1}, candidates[2]);
+        // a column without values in this partition is not constrained by it
+        assertNull(candidates[3]);
+    }
+
+    @Test
+    public void ignoresResentColumns() {
+        SindyPartition partition = new SindyPartition(2);
+        partition.addColumn(0, new int[]{1});
+        partition.addColumn(0, new int[]{1});
+        partition.addColumn(1, new int[]{1});
+        assertArrayEquals(new int[]{1}, partition.getCandidates()[0]);
+        assertArrayEquals(new int[]{0}, partition.getCandidates()[1]);
+    }
+
+    @Test
+    public void intersectsTheCandidatesOfAllPartitions() {
+        SindyCandidates candidates = new SindyCandidates(COLUMNS, 2);
+        assertFalse(candidates.add(1, new int[][]{{1, 2}, {0}, null, null}));
+        assertTrue(candidates.isCompleted(1));
+        // a re-sent partition changes nothing
+        assertFalse(candidates.add(1, new int[][]{{}, {}, {}, {}}));
+        assertTrue(candidates.add(0, new int[][]{{1, 3}, null, {0}, null}));
+
+        assertTrue(candidates.isComplete());
+        assertEquals(new TreeSet<>(Arrays.asList(
+                ind(0, 1), ind(1, 0), ind(2, 0),
+                // D is empty, so it is included in every other column
+                ind(3, 0), ind(3, 1), ind(3, 2))),
+            TestData.toStrings(candidates.getInclusionDependencies()));
+    }
+
+    @Test
+    public void agreesWithSetInclusionOnRandomColumns() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            int numPartitions = 1 + random.nextInt(4);
+            int[][] values = new int[COLUMNS.size()][];
+            for (int column = 0; column < values.length; column++) {
+                int domain = 1 + random.nextInt(10);
+                values[column] = random.ints(random.nextInt(domain + 1), 0, domain).distinct().sorted().toArray();
+            }
+
+            SindyCandidates candidates = new SindyCandidates(COLUMNS, numPartitions);
+            for (int partition = 0; partition < numPartitions; partition++) {
+                SindyPartition sindyPartition = new SindyPartition(COLUMNS.size());
+                for (int column = 0; column < values.length; column++)
+                    sindyPartition.addColumn(column, Task.partition(values[column], numPartitions)[partition]);
+                candidates.add(partition, sindyPartition.getCandidates());
+            }
+
+            Set<String> expected = new TreeSet<>();
+            for (int dependent = 0; dependent < values.length; dependent++)
+                for (int referenced = 0; referenced < values.length; referenced++)
+                    if (dependent != referenced && isIncluded(values[dependent], values[referenced]))
+                        expected.add(ind(dependent, referenced));
+            assertEquals(expected, TestData.toStrings(candidates.getInclusionDependencies()));
+        }
+    }
+
+    private static boolean isIncluded(int[] dependent, int[] referenced) {
+        for (int value : dependent)
+            if (Arrays.binarySearch(referenced, value) < 0)
+                return false;
+        return true;
+    }
+}
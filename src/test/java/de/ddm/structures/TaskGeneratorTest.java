@@ -0,0 +1,133 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TaskGeneratorTest {
+
+    private static final double DELTA = 1e-9;
+
+    // A table of 100 rows whose column names start with their distinct counts
+    private static LocalDataStorage dataStorage(String tableName, int... distinctCounts) {
+        LocalDataStorage dataStorage = new LocalDataStorage();
+        addTable(dataStorage, tableName, distinctCounts);
+        return dataStorage;
+    }
+
+    private static void addTable(LocalDataStorage dataStorage, String tableName, int... distinctCounts) {
+        List<String> header = new ArrayList<>();
+        for (int i = 0; i < distinctCounts.length; i++)
+            header.add(distinctCounts[i] + "_" + i);
+        dataStorage.addTable(tableName, header);
+        for (int row = 0; row < 100; row++) {
+            List<String> values = new ArrayList<>();
+            for (int distinctCount : distinctCounts)
+                values.add(Integer.toString(row % distinctCount));
+            dataStorage.addRow(tableName, values);
+        }
+    }
+
+    @Test
+    public void costsTheLargerShareOfBothBudgets() {
+        LocalDataStorage dataStorage = dataStorage("R", 50);
+        Column column = dataStorage.getColumn("R", "50_0");
+
+        // every id takes 10 bytes
+        assertEquals(0.5, new TaskCostModel(1000000, 100).cost(column), DELTA);
+        assertEquals(1.0, new TaskCostModel(500, 100000).cost(column), DELTA);
+    }
+
+    @Test
+    public void boundsCombinationsByRowsAndDistinctCounts() {
+        LocalDataStorage dataStorage = dataStorage("R", 4, 5, 50);
+        TaskCostModel costModel = new TaskCostModel(Long.MAX_VALUE, 1000);
+
+        assertEquals(0.004, costModel.cost(dataStorage, "R", Collections.singletonList("4_0")), DELTA);
+        assertEquals(0.020, costModel.cost(dataStorage, "R", Arrays.asList("4_0", "5_1")), DELTA);
+        // 4 * 50 combinations are more than the 100 rows
+        assertEquals(0.100, costModel.cost(dataStorage, "R", Arrays.asList("4_0", "50_2")), DELTA);
+    }
+
+    // Every pair of columns of the two tables is in exactly one task, or in every partition of one partitioned task
+    private static void assertCoversAllPairsOnce(LocalDataStorage dataStorage, String tableNameA, String tableNameB, List<Task> tasks) {
+        Map<List<String>, Integer> partitions = new HashMap<>();
+        for (Task task : tasks) {
+            assertEquals(tableNameA, task.getTableNameA());
+            assertEquals(tableNameB, task.getTableNameB());
+            for (String a : task.getColumnNamesA())
+                for (String b : task.getColumnNamesB())
+                    partitions.merge(Arrays.asList(a, b), 1, Integer::sum);
+        }
+        assertEquals(dataStorage.getHeader(tableNameA).size() * dataStorage.getHeader(tableNameB).size(), partitions.size());
+        for (Task task : tasks)
+            for (String a : task.getColumnNamesA())
+                for (String b : task.getColumnNamesB())
+                    assertEquals(task.getNumPartitions(), (int) partitions.get(Arrays.asList(a, b)));
+    }
+
+    @Test
+    public void fillsEachTaskSideUpToHalfTheBudget() {
+        LocalDataStorage dataStorage = dataStorage("R", 20, 20, 20, 30, 10);
+        addTable(dataStorage, "S", 40, 5, 5, 50, 10);
+        TaskCostModel costModel = new TaskCostModel(Long.MAX_VALUE, 100);
+
+        List<Task> tasks = TaskGenerator.run(dataStorage, costModel, "R", "S");
+        assertCoversAllPairsOnce(dataStorage, "R", "S", tasks);
+        for (Task task : tasks) {
+            assertFalse(task.isPartitioned());
+            double costA = 0;
+            for (String column : task.getColumnNamesA())
+                costA += costModel.cost(dataStorage.getColumn("R", column));
+            double costB = 0;
+            for (String column : task.getColumnNamesB())
+                costB += costModel.cost(dataStorage.getColumn("S", column));
+            assertTrue(task.toString(), costA <= 0.5 + DELTA && costB <= 0.5 + DELTA);
+        }
+        // R splits into 20,20 | 20,30 | 10 and S into 40,5,5 | 50 | 10
+        assertEquals(9, tasks.size());
+    }
+
+    @Test
+    public void partitionsColumnsThatExceedTheBudgetAlone() {
+        LocalDataStorage dataStorage = dataStorage("R", 100, 10);
+        addTable(dataStorage, "S", 5);
+        TaskCostModel costModel = new TaskCostModel(Long.MAX_VALUE, 80);
+
+        List<Task> tasks = TaskGenerator.run(dataStorage, costModel, "R", "S");
+        assertCoversAllPairsOnce(dataStorage, "R", "S", tasks);
+        // 100 distinct values cost 1.25, i.e. three partitions of at most half the budget
+        assertEquals(4, tasks.size());
+        for (int partition = 0; partition < 3; partition++) {
+            assertEquals(Collections.singletonList("100_0"), tasks.get(partition).getColumnNamesA());
+            assertEquals(partition, tasks.get(partition).getPartition());
+            assertEquals(3, tasks.get(partition).getNumPartitions());
+        }
+        assertFalse(tasks.get(3).isPartitioned());
+    }
+
+    @Test
+    public void groupsNaryCandidatesByTablesAndBudget() {
+        LocalDataStorage dataStorage = dataStorage("R", 4, 5, 10);
+        addTable(dataStorage, "S", 4, 5, 10);
+        TaskCostModel costModel = new TaskCostModel(Long.MAX_VALUE, 200);
+        List<InclusionDependency> candidates = Arrays.asList(
+            new InclusionDependency("R", "S", Arrays.asList("4_0", "5_1"), Arrays.asList("4_0", "5_1")),
+            new InclusionDependency("R", "S", Arrays.asList("4_0", "10_2"), Arrays.asList("4_0", "10_2")),
+            new InclusionDependency("S", "R", Arrays.asList("4_0", "5_1"), Arrays.asList("4_0", "5_1")),
+            new InclusionDependency("R", "S", Arrays.asList("5_1", "10_2"), Arrays.asList("5_1", "10_2")));
+
+        // 20 + 40 combinations fit half the budget of 200 ids, the 50 combinations of 5_1,10_2 do not fit in addition
+        List<Task> tasks = TaskGenerator.runNary(dataStorage, costModel, candidates);
+        assertEquals(3, tasks.size());
+        assertEquals(candidates.subList(0, 2), tasks.get(0).getCandidates());
+        assertEquals(Arrays.asList("4_0,5_1", "4_0,10_2"), tasks.get(0).getColumnNamesA());
+        assertEquals(Collections.singletonList(candidates.get(3)), tasks.get(1).getCandidates());
+        assertEquals("S", tasks.get(2).getTableNameA());
+        assertEquals(Collections.singletonList(candidates.get(2)), tasks.get(2).getCandidates());
+        for (Task task : tasks)
+            assertTrue(task.isNary());
+    }
+}
@@ -0,0 +1,33 @@
+package de.ddm.structures;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertTrue;
+
+// Fixtures that the tests of the structures share
+final class TestData {
+
+    private TestData() {
+    }
+
+    // Ascending ids from a small domain of at most maxDomain values, so that inclusions happen
+    static int[] randomIds(Random random, int maxDomain) {
+        int domain = 1 + random.nextInt(maxDomain);
+        return random.ints(random.nextInt(domain + 1), 0, domain).distinct().sorted().toArray();
+    }
+
+    static InclusionDependency ind(ColumnId dependent, ColumnId referenced) {
+        return new InclusionDependency(dependent.getTableName(), referenced.getTableName(), dependent.getColumnName(), referenced.getColumnName());
+    }
+
+    // The inds in a comparable form, failing if one is reported twice
+    static Set<String> toStrings(Collection<InclusionDependency> inds) {
+        Set<String> strings = new TreeSet<>();
+        for (InclusionDependency ind : inds)
+            assertTrue("reported twice: " + ind, strings.add(ind.toString()));
+        return strings;
+    }
+}
@@ -0,0 +1,73 @@
+package de.ddm.structures;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class WorkerColumnCacheTest {
+
+    private static final ColumnId A = new ColumnId("R", "A");
+    private static final ColumnId B = new ColumnId("R", "B");
+    private static final ColumnId C = new ColumnId("S", "C");
+    private static final ColumnId D = new ColumnId("S", "D");
+
+    private static Set<ColumnId> task(ColumnId... columns) {
+        return new HashSet<>(Arrays.asList(columns));
+    }
+
+    private static Map<ColumnId, Long> added(Object... columnsAndSizes) {
+        Map<ColumnId, Long> added = new LinkedHashMap<>();
+        for (int i = 0; i < columnsAndSizes.length; i += 2)
+            added.put((ColumnId) columnsAndSizes[i], ((Number) columnsAndSizes[i + 1]).longValue());
+        return added;
+    }
+
+    @Test
+    public void cachesTheAddedColumnsWithinTheBudget() {
+        WorkerColumnCache cache = new WorkerColumnCache(100);
+        assertEquals(Collections.emptyList(), cache.admit(task(A, B), added(A, 40, B, 30)));
+
+        assertTrue(cache.contains(A));
+        assertTrue(cache.contains(B));
+        assertFalse(cache.contains(C));
+        assertEquals(70, cache.getSize());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedColumns() {
+        WorkerColumnCache cache = new WorkerColumnCache(100);
+        cache.admit(task(A, B), added(A, 40, B, 30));
+        // A is used again, so B is the least recently used column when C arrives
+        cache.admit(task(A), added());
+
+        assertEquals(Collections.singletonList(B), cache.admit(task(C), added(C, 50)));
+        assertEquals(task(A, C), cache.getColumns());
+        assertEquals(90, cache.getSize());
+    }
+
+    @Test
+    public void neverEvictsTheColumnsOfTheCurrentTask() {
+        WorkerColumnCache cache = new WorkerColumnCache(100);
+        cache.admit(task(A), added(A, 60));
+
+        // the task alone exceeds the budget, so everything else goes, but its own columns stay
+        assertEquals(Collections.singletonList(A), cache.admit(task(C, D), added(C, 70, D, 50)));
+        assertEquals(task(C, D), cache.getColumns());
+        assertEquals(120, cache.getSize());
+
+        // the next task evicts them, but only until the budget is met again
+        assertEquals(Collections.singletonList(C), cache.admit(task(B), added(B, 10)));
+        assertEquals(task(D, B), cache.getColumns());
+        assertEquals(60, cache.getSize());
+    }
+
+    @Test
+    public void replacesTheSizeOfColumnsThatAreSentAgain() {
+        WorkerColumnCache cache = new WorkerColumnCache(100);
+        cache.admit(task(A), added(A, 60));
+        cache.admit(task(A), added(A, 20));
+        assertEquals(20, cache.getSize());
+    }
+}